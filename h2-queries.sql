@@ -10,8 +10,10 @@ JOIN users u ON d.author_id = u.id
 WHERE u.username = 'editor1';
 
 -- Query to find documents containing specific text (H2 version)
-SELECT * FROM documents
-WHERE LOWER(content_text) LIKE LOWER('%artificial intelligence%');
+-- search_vector holds the lower-cased text, content_text may be stored compressed
+SELECT d.* FROM documents d
+WHERE EXISTS (SELECT 1 FROM document_contents c
+              WHERE c.document_id = d.id AND c.search_vector LIKE LOWER('%artificial intelligence%'));
 
 -- Query to get user roles
 SELECT u.username, r.name FROM users u
@@ -1,3 +1,6 @@
+-- Sample data for the H2 console. The application creates its schema with the Flyway
+-- migrations in src/main/resources/db/migration, keep both in step.
+
 -- Create roles table to match Role.java
 CREATE TABLE IF NOT EXISTS roles (
     id INT AUTO_INCREMENT PRIMARY KEY,
@@ -38,15 +41,26 @@ CREATE TABLE IF NOT EXISTS documents (
     file_path VARCHAR(255),
     file_type VARCHAR(50),
     file_size BIGINT,
-    content_text TEXT,
+    checksum VARCHAR(64),
     author_id BIGINT,
     indexed BOOLEAN DEFAULT FALSE,
     created_at TIMESTAMP,
     updated_at TIMESTAMP,
-    search_vector TEXT,
     FOREIGN KEY (author_id) REFERENCES users (id)
 );
 
+-- Create document_contents table to match DocumentContent.java, the extracted text of a
+-- document split into one or more chunks so the documents rows stay small
+CREATE TABLE IF NOT EXISTS document_contents (
+    id BIGINT PRIMARY KEY,
+    document_id BIGINT NOT NULL,
+    chunk_index INT NOT NULL,
+    content_text TEXT,
+    search_vector TEXT,
+    UNIQUE (document_id, chunk_index),
+    FOREIGN KEY (document_id) REFERENCES documents (id) ON DELETE CASCADE
+);
+
 -- Create document_tags table to link documents and tags
 CREATE TABLE IF NOT EXISTS document_tags (
     document_id BIGINT NOT NULL,
@@ -56,6 +70,39 @@ CREATE TABLE IF NOT EXISTS document_tags (
     FOREIGN KEY (tag_id) REFERENCES tags (id) ON DELETE CASCADE
 );
 
+-- Heartbeat row used to measure replica lag
+CREATE TABLE IF NOT EXISTS replication_heartbeat (
+    id INT PRIMARY KEY,
+    beat_at TIMESTAMP NOT NULL
+);
+MERGE INTO replication_heartbeat (id, beat_at) KEY (id) VALUES (1, CURRENT_TIMESTAMP);
+
+-- Tokens revoked by logout, kept until they expire
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    jti VARCHAR(36) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL
+);
+
+-- Id sequences for users, tags, documents and document contents, Hibernate takes blocks of 50 ids at a time (pooled-lo)
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS tags_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS documents_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS document_contents_seq START WITH 1 INCREMENT BY 50;
+
+-- Secondary indexes, see V2__query_indexes.sql
+CREATE INDEX IF NOT EXISTS idx_documents_author_created ON documents (author_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_documents_type_created ON documents (file_type, created_at);
+CREATE INDEX IF NOT EXISTS idx_documents_created ON documents (created_at);
+CREATE INDEX IF NOT EXISTS idx_documents_indexed_created ON documents (indexed, created_at);
+CREATE INDEX IF NOT EXISTS idx_documents_title ON documents (title);
+CREATE INDEX IF NOT EXISTS idx_document_tags_tag ON document_tags (tag_id, document_id);
+CREATE INDEX IF NOT EXISTS idx_roles_name ON roles (name);
+
+-- Revoked token indexes, see V4__revoked_tokens.sql
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked ON revoked_tokens (revoked_at);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires ON revoked_tokens (expires_at);
+
 -- Insert roles based on ERole enum
 INSERT INTO roles (name) VALUES 
 ('ROLE_ADMIN'),
@@ -107,7 +154,7 @@ INSERT INTO tags (name, description) VALUES
 ('research', 'Research documents');
 
 -- Insert sample documents
-INSERT INTO documents (title, description, file_path, file_type, file_size, content_text, author_id, created_at, updated_at, indexed) 
+INSERT INTO documents (title, description, file_path, file_type, file_size, author_id, created_at, updated_at, indexed) 
 VALUES
 (
     'Annual Report 2024', 
@@ -115,6 +162,63 @@ VALUES
     '/storage/documents/annual_report_2024.pdf', 
     'pdf', 
     2048576, 
+    (SELECT id FROM users WHERE username = 'admin'),
+    CURRENT_TIMESTAMP(),
+    CURRENT_TIMESTAMP(),
+    TRUE
+),
+(
+    'Q1 2024 Financial Results', 
+    'First quarter financial performance', 
+    '/storage/documents/q1_2024_results.pdf', 
+    'pdf', 
+    1536000, 
+    (SELECT id FROM users WHERE username = 'editor1'),
+    CURRENT_TIMESTAMP(),
+    CURRENT_TIMESTAMP(),
+    TRUE
+),
+(
+    'Product Roadmap 2024-2025', 
+    'Strategic product development plan', 
+    '/storage/documents/product_roadmap.docx', 
+    'docx', 
+    1024768, 
+    (SELECT id FROM users WHERE username = 'editor2'),
+    CURRENT_TIMESTAMP(),
+    CURRENT_TIMESTAMP(),
+    TRUE
+),
+(
+    'Employee Handbook 2024', 
+    'Updated policies and procedures for staff', 
+    '/storage/documents/employee_handbook.pdf', 
+    'pdf', 
+    3145728, 
+    (SELECT id FROM users WHERE username = 'admin'),
+    CURRENT_TIMESTAMP(),
+    CURRENT_TIMESTAMP(),
+    TRUE
+),
+(
+    'Market Analysis: AI Industry Trends', 
+    'Research report on artificial intelligence market trends', 
+    '/storage/documents/ai_market_analysis.pptx', 
+    'pptx', 
+    4194304, 
+    (SELECT id FROM users WHERE username = 'editor1'),
+    CURRENT_TIMESTAMP(),
+    CURRENT_TIMESTAMP(),
+    TRUE
+);
+
+-- Insert the extracted text of the sample documents, one chunk each
+INSERT INTO document_contents (id, document_id, chunk_index, content_text)
+VALUES
+(
+    1,
+    1,
+    0,
     'Executive Summary
     
     The fiscal year 2024 has been a transformative period for our company, marked by significant growth across all business segments. We achieved a total revenue of $87.5 million, representing a 15% increase compared to the previous year. Our operating margin improved to 28%, and we successfully launched three new product lines that have been well-received by the market.
@@ -125,18 +229,12 @@ VALUES
     - Net Income: $18.2 million (+12% YoY)
     - EPS: $1.45 (+10% YoY)
     
-    We continued our strategic investments in R&D, allocating $12.3 million to innovation initiatives that will drive future growth. The Board of Directors has approved a dividend of $0.35 per share, payable to shareholders of record as of June 15, 2024.',
-    (SELECT id FROM users WHERE username = 'admin'),
-    CURRENT_TIMESTAMP(),
-    CURRENT_TIMESTAMP(),
-    TRUE
+    We continued our strategic investments in R&D, allocating $12.3 million to innovation initiatives that will drive future growth. The Board of Directors has approved a dividend of $0.35 per share, payable to shareholders of record as of June 15, 2024.'
 ),
 (
-    'Q1 2024 Financial Results', 
-    'First quarter financial performance', 
-    '/storage/documents/q1_2024_results.pdf', 
-    'pdf', 
-    1536000, 
+    2,
+    2,
+    0,
     'Q1 2024 Financial Performance
     
     Revenue increased by 15% to $24.3 million in Q1 2024, compared to $21.1 million in the same period last year. Operating expenses were $18.7 million, resulting in an operating income of $5.6 million. Net income for the quarter was $4.2 million, or $0.33 per share.
@@ -146,18 +244,12 @@ VALUES
     - Hardware Solutions: $8.3 million (+12%)
     - Consulting Services: $3.5 million (+13%)
     
-    Cash flow from operations was $3.8 million, and we ended the quarter with $28.5 million in cash and equivalents.',
-    (SELECT id FROM users WHERE username = 'editor1'),
-    CURRENT_TIMESTAMP(),
-    CURRENT_TIMESTAMP(),
-    TRUE
+    Cash flow from operations was $3.8 million, and we ended the quarter with $28.5 million in cash and equivalents.'
 ),
 (
-    'Product Roadmap 2024-2025', 
-    'Strategic product development plan', 
-    '/storage/documents/product_roadmap.docx', 
-    'docx', 
-    1024768, 
+    3,
+    3,
+    0,
     'Product Development Strategy 2024-2025
     
     Our product roadmap for the coming year focuses on three key areas: AI integration, sustainability features, and enhanced user experience. We plan to release quarterly updates to our core products while developing two entirely new product lines for launch in Q4 2024 and Q2 2025 respectively.
@@ -169,18 +261,12 @@ VALUES
     4. New cloud-native enterprise solution (Q4 2024)
     5. Sustainability reporting platform for corporate clients (Q2 2025)
     
-    The roadmap prioritizes customer-requested features while strategically positioning us to enter new market segments.',
-    (SELECT id FROM users WHERE username = 'editor2'),
-    CURRENT_TIMESTAMP(),
-    CURRENT_TIMESTAMP(),
-    TRUE
+    The roadmap prioritizes customer-requested features while strategically positioning us to enter new market segments.'
 ),
 (
-    'Employee Handbook 2024', 
-    'Updated policies and procedures for staff', 
-    '/storage/documents/employee_handbook.pdf', 
-    'pdf', 
-    3145728, 
+    4,
+    4,
+    0,
     'Company Policies and Procedures
     
     This handbook outlines our company policies, benefits, and expectations for all employees. It includes information on our remote work policy, health benefits, professional development opportunities, and code of conduct.
@@ -194,18 +280,12 @@ VALUES
     - Code of Conduct
     - Health and Safety
     
-    All employees are required to review this handbook annually and acknowledge their understanding of its contents.',
-    (SELECT id FROM users WHERE username = 'admin'),
-    CURRENT_TIMESTAMP(),
-    CURRENT_TIMESTAMP(),
-    TRUE
+    All employees are required to review this handbook annually and acknowledge their understanding of its contents.'
 ),
 (
-    'Market Analysis: AI Industry Trends', 
-    'Research report on artificial intelligence market trends', 
-    '/storage/documents/ai_market_analysis.pptx', 
-    'pptx', 
-    4194304, 
+    5,
+    5,
+    0,
     'AI Industry Trends 2024-2026
     
     This market analysis examines the current state and future projections of the artificial intelligence industry. Global AI market size reached $150 billion in 2023 and is projected to grow at a CAGR of 38% through 2026.
@@ -217,13 +297,13 @@ VALUES
     - Regulatory frameworks are evolving rapidly, with significant regional differences
     - AI ethics and responsible AI development are becoming key differentiators
     
-    The report includes competitive analysis of major players, regional market dynamics, and emerging opportunities.',
-    (SELECT id FROM users WHERE username = 'editor1'),
-    CURRENT_TIMESTAMP(),
-    CURRENT_TIMESTAMP(),
-    TRUE
+    The report includes competitive analysis of major players, regional market dynamics, and emerging opportunities.'
 );
 
+-- Populate the normalized search column used by keyword search (content_text may be stored compressed)
+UPDATE document_contents SET search_vector = LOWER(content_text)
+WHERE search_vector IS NULL AND chunk_index = 0;
+
 -- Insert document tags - linking documents with tags
 INSERT INTO document_tags (document_id, tag_id) VALUES
 (1, (SELECT id FROM tags WHERE name = 'financial')),
@@ -241,3 +321,10 @@ INSERT INTO document_tags (document_id, tag_id) VALUES
 (5, (SELECT id FROM tags WHERE name = 'AI')),
 (5, (SELECT id FROM tags WHERE name = 'market analysis')),
 (5, (SELECT id FROM tags WHERE name = 'research'));
+
+-- Continue the id sequences after the seeded rows (5 users, 14 tags, 5 documents and their
+-- contents), the application also moves them past MAX(id) on startup
+ALTER SEQUENCE users_seq RESTART WITH 6;
+ALTER SEQUENCE tags_seq RESTART WITH 15;
+ALTER SEQUENCE documents_seq RESTART WITH 6;
+ALTER SEQUENCE document_contents_seq RESTART WITH 6;
@@ -5,16 +5,28 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import com.example.config.BulkheadProperties;
+import com.example.config.DocumentCacheProperties;
 import com.example.config.FileStorageProperties;
+import com.example.config.RateLimitProperties;
+import com.example.config.ReplicaProperties;
+import com.example.config.SearchProperties;
 
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 @EnableCaching
 @EnableTransactionManagement
 @EnableConfigurationProperties({
-    FileStorageProperties.class
+    FileStorageProperties.class,
+    DocumentCacheProperties.class,
+    SearchProperties.class,
+    ReplicaProperties.class,
+    BulkheadProperties.class,
+    RateLimitProperties.class
 })
 public class DocumentManagementApplication {
 
@@ -0,0 +1,204 @@
+package com.example.config;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Rate limits /api requests after authentication. Every request takes its endpoint
+ * class's weight in tokens from the caller's bucket (user, or client address when
+ * anonymous) and from the bucket of the endpoint class shared by all callers, so one
+ * client can neither exceed its own rate nor use up a class like Q&A for everyone.
+ * Rejected requests get 429 with Retry-After. Admissions and rejections per endpoint
+ * class are logged and published over JMX.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public enum EndpointClass {
+        READ, SEARCH, QA, UPLOAD, WRITE
+    }
+
+    /**
+     * Admitted and rejected requests of one endpoint class, published over JMX (see
+     * {@link WebSecurityConfig}) so the rate of 429s can be alerted on.
+     */
+    public interface EndpointClassMXBean {
+        long getAdmittedCount();
+
+        long getCallerRejectedCount();
+
+        long getEndpointRejectedCount();
+    }
+
+    private final RateLimitProperties properties;
+    private final Cache<String, TokenBucket> callers;
+    private final Map<EndpointClass, RateLimitProperties.Endpoint> settings = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, TokenBucket> endpoints = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, LongAdder> callerRejections = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, LongAdder> endpointRejections = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, LongAdder> admissions = new EnumMap<>(EndpointClass.class);
+
+    public AdmissionControlFilter(RateLimitProperties properties) {
+        this.properties = properties;
+        this.callers = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedCallers())
+                .expireAfterAccess(properties.getIdleExpiry())
+                .build();
+
+        settings.put(EndpointClass.READ, properties.getRead());
+        settings.put(EndpointClass.SEARCH, properties.getSearch());
+        settings.put(EndpointClass.QA, properties.getQa());
+        settings.put(EndpointClass.UPLOAD, properties.getUpload());
+        settings.put(EndpointClass.WRITE, properties.getWrite());
+        long now = System.nanoTime();
+        for (EndpointClass endpoint : EndpointClass.values()) {
+            RateLimitProperties.Endpoint endpointSettings = settings.get(endpoint);
+            endpoints.put(endpoint, new TokenBucket(endpointSettings.getCapacity(),
+                    endpointSettings.getRefillPerSecond(), now));
+            callerRejections.put(endpoint, new LongAdder());
+            endpointRejections.put(endpoint, new LongAdder());
+            admissions.put(endpoint, new LongAdder());
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getServletPath().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpoint = classify(request);
+        int cost = settings.get(endpoint).getWeight();
+        long now = System.nanoTime();
+
+        RateLimitProperties.Bucket user = properties.getUser();
+        TokenBucket caller = callers.get(callerKey(request),
+                key -> new TokenBucket(user.getCapacity(), user.getRefillPerSecond(), now));
+        long waitNanos = caller.tryAcquire(cost, now);
+        if (waitNanos > 0) {
+            callerRejections.get(endpoint).increment();
+            reject(request, response, waitNanos, "Request rate limit exceeded");
+            return;
+        }
+
+        waitNanos = endpoints.get(endpoint).tryAcquire(cost, now);
+        if (waitNanos > 0) {
+            // The caller did not get served, so it keeps its tokens
+            caller.refund(cost);
+            endpointRejections.get(endpoint).increment();
+            reject(request, response, waitNanos, "Too many " + endpoint.name().toLowerCase() + " requests");
+            return;
+        }
+
+        admissions.get(endpoint).increment();
+        filterChain.doFilter(request, response);
+    }
+
+    public long getRejectedCount(EndpointClass endpoint) {
+        return callerRejections.get(endpoint).sum() + endpointRejections.get(endpoint).sum();
+    }
+
+    public EndpointClassMXBean statistics(EndpointClass endpoint) {
+        return new EndpointClassMXBean() {
+            @Override
+            public long getAdmittedCount() {
+                return admissions.get(endpoint).sum();
+            }
+
+            @Override
+            public long getCallerRejectedCount() {
+                return callerRejections.get(endpoint).sum();
+            }
+
+            @Override
+            public long getEndpointRejectedCount() {
+                return endpointRejections.get(endpoint).sum();
+            }
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.stats-log-interval-ms:300000}",
+            initialDelayString = "${app.rate-limit.stats-log-interval-ms:300000}")
+    public void report() {
+        for (EndpointClass endpoint : EndpointClass.values()) {
+            long byCaller = callerRejections.get(endpoint).sum();
+            long byEndpoint = endpointRejections.get(endpoint).sum();
+            if (byCaller + byEndpoint > 0) {
+                logger.info("Admission control {}: {} rejected by caller limit, {} by endpoint limit",
+                        endpoint, byCaller, byEndpoint);
+            }
+        }
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String path = request.getServletPath();
+        String method = request.getMethod();
+        if (path.startsWith("/api/qa/") && "POST".equals(method)) {
+            return EndpointClass.QA;
+        }
+        if (path.startsWith("/api/documents/search")) {
+            return EndpointClass.SEARCH;
+        }
+        // Single, streamed and bulk uploads and starting a chunked one, its chunks count as writes
+        if ((path.startsWith("/api/documents/upload") && !path.startsWith("/api/documents/uploads/"))
+                || path.startsWith("/api/documents/bulk")) {
+            return EndpointClass.UPLOAD;
+        }
+        return "GET".equals(method) || "HEAD".equals(method) ? EndpointClass.READ : EndpointClass.WRITE;
+    }
+
+    private String callerKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos, String message)
+            throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        logger.debug("Rejecting {} {}: {}, retry after {} s", request.getMethod(), request.getServletPath(), message,
+                retryAfterSeconds);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        final Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+        body.put("message", message);
+        body.put("path", request.getServletPath());
+        mapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -17,8 +17,12 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.example.service.PrincipalCache;
+import com.example.service.TokenRevocationService;
 import com.example.service.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+
 public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtils jwtUtils;
@@ -26,6 +30,12 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -33,10 +43,17 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            Claims claims = jwt != null ? jwtUtils.getValidClaims(jwt) : null;
+            if (claims != null && !tokenRevocationService.isRevoked(claims)) {
+                UserDetails userDetails;
+                if (jwtUtils.hasEmbeddedPrincipal(claims)
+                        && !principalCache.isChangedSince(claims.getSubject(), claims.getIssuedAt())) {
+                    userDetails = jwtUtils.getPrincipalFromClaims(claims);
+                } else {
+                    // Only the first request with a token loads the user and its roles
+                    userDetails = principalCache.get(claims.getSubject(), claims.getIssuedAt(),
+                            userDetailsService::loadUserByUsername);
+                }
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
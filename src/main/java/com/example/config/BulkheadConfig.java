@@ -0,0 +1,49 @@
+package com.example.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jmx.export.MBeanExporter;
+import org.springframework.jmx.support.RegistrationPolicy;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Executors for the controllers' CompletableFuture handlers (see {@link Bulkheads}) and
+ * the timeout of those async requests: a request still waiting when it expires gets
+ * 503 from Spring MVC. Each bulkhead's load and rejections are published over JMX.
+ */
+@Configuration
+public class BulkheadConfig implements WebMvcConfigurer {
+    private final BulkheadProperties properties;
+
+    public BulkheadConfig(BulkheadProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkheads bulkheads(@Value("${app.threads.virtual.enabled:false}") boolean virtualThreads) {
+        return new Bulkheads(properties, virtualThreads);
+    }
+
+    // One MXBean per workload, com.example:type=Bulkhead,name=<workload>, for monitoring to poll
+    @Bean
+    public MBeanExporter bulkheadMBeanExporter(Bulkheads bulkheads) {
+        Map<String, Object> beans = new LinkedHashMap<>();
+        for (Bulkheads.Workload workload : Bulkheads.Workload.values()) {
+            beans.put("com.example:type=Bulkhead,name=" + workload.name().toLowerCase(), bulkheads.statistics(workload));
+        }
+        MBeanExporter exporter = new MBeanExporter();
+        exporter.setBeans(beans);
+        exporter.setRegistrationPolicy(RegistrationPolicy.REPLACE_EXISTING);
+        return exporter;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(properties.getRequestTimeout().toMillis());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.bulkhead")
+public class BulkheadProperties {
+    // Async requests not answered within this time end with 503
+    private Duration requestTimeout = Duration.ofSeconds(30);
+    private Pool reads = new Pool(10, 100);
+    private Pool search = new Pool(4, 20);
+    private Pool uploads = new Pool(4, 20);
+    private Pool admin = new Pool(2, 10);
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public Pool getReads() {
+        return reads;
+    }
+
+    public void setReads(Pool reads) {
+        this.reads = reads;
+    }
+
+    public Pool getSearch() {
+        return search;
+    }
+
+    public void setSearch(Pool search) {
+        this.search = search;
+    }
+
+    public Pool getUploads() {
+        return uploads;
+    }
+
+    public void setUploads(Pool uploads) {
+        this.uploads = uploads;
+    }
+
+    public Pool getAdmin() {
+        return admin;
+    }
+
+    public void setAdmin(Pool admin) {
+        this.admin = admin;
+    }
+
+    public static class Pool {
+        private int threads;
+        // Tasks waiting for a thread, anything beyond is rejected with 503
+        private int queueCapacity;
+
+        public Pool() {
+        }
+
+        public Pool(int threads, int queueCapacity) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs load and rejections of the controller bulkheads. The same figures are published
+ * over JMX for alerting, see {@link BulkheadConfig}.
+ */
+@Component
+public class BulkheadStatisticsReporter {
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadStatisticsReporter.class);
+
+    @Autowired
+    private Bulkheads bulkheads;
+
+    @Scheduled(fixedDelayString = "${app.bulkhead.stats-log-interval-ms:300000}",
+            initialDelayString = "${app.bulkhead.stats-log-interval-ms:300000}")
+    public void report() {
+        for (Bulkheads.Workload workload : Bulkheads.Workload.values()) {
+            logger.info("Bulkhead {}: {}/{} active, {} queued, {} completed, {} rejected", workload,
+                    bulkheads.getActiveCount(workload), bulkheads.getConcurrencyLimit(workload),
+                    bulkheads.getQueuedCount(workload), bulkheads.getCompletedCount(workload),
+                    bulkheads.getRejectedCount(workload));
+        }
+    }
+}
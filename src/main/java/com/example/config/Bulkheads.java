@@ -0,0 +1,290 @@
+package com.example.config;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+
+import com.example.exception.BulkheadFullException;
+
+/**
+ * One bounded thread pool per kind of controller work, so slow searches or large
+ * uploads only queue behind each other instead of taking the threads of plain reads.
+ * Tasks carry the submitting request's SecurityContext, and a full queue rejects the
+ * task with {@link BulkheadFullException} (503) instead of letting requests pile up.
+ * <p>
+ * With virtual threads every task gets its own virtual thread and the pool size
+ * becomes a semaphore limit, the waiting tasks are bounded the same way.
+ */
+public class Bulkheads {
+    private static final Logger logger = LoggerFactory.getLogger(Bulkheads.class);
+
+    public enum Workload {
+        READS, SEARCH, UPLOADS, ADMIN
+    }
+
+    /**
+     * Load and rejections of one workload, published over JMX (see {@link BulkheadConfig})
+     * so queue depth and 503s can be alerted on.
+     */
+    public interface WorkloadMXBean {
+        int getActiveCount();
+
+        int getQueuedCount();
+
+        int getConcurrencyLimit();
+
+        long getCompletedCount();
+
+        long getRejectedCount();
+    }
+
+    private final Map<Workload, Lane> lanes = new EnumMap<>(Workload.class);
+    private final Map<Workload, Executor> executors = new EnumMap<>(Workload.class);
+    private final Map<Workload, LongAdder> rejections = new EnumMap<>(Workload.class);
+
+    public Bulkheads(BulkheadProperties properties) {
+        this(properties, false);
+    }
+
+    public Bulkheads(BulkheadProperties properties, boolean virtualThreads) {
+        create(Workload.READS, properties.getReads(), virtualThreads);
+        create(Workload.SEARCH, properties.getSearch(), virtualThreads);
+        create(Workload.UPLOADS, properties.getUploads(), virtualThreads);
+        create(Workload.ADMIN, properties.getAdmin(), virtualThreads);
+    }
+
+    public Executor reads() {
+        return executor(Workload.READS);
+    }
+
+    public Executor search() {
+        return executor(Workload.SEARCH);
+    }
+
+    public Executor uploads() {
+        return executor(Workload.UPLOADS);
+    }
+
+    public Executor admin() {
+        return executor(Workload.ADMIN);
+    }
+
+    public Executor executor(Workload workload) {
+        return executors.get(workload);
+    }
+
+    public int getActiveCount(Workload workload) {
+        return lanes.get(workload).active();
+    }
+
+    public int getQueuedCount(Workload workload) {
+        return lanes.get(workload).queued();
+    }
+
+    public int getConcurrencyLimit(Workload workload) {
+        return lanes.get(workload).limit();
+    }
+
+    public long getCompletedCount(Workload workload) {
+        return lanes.get(workload).completed();
+    }
+
+    public long getRejectedCount(Workload workload) {
+        return rejections.get(workload).sum();
+    }
+
+    public WorkloadMXBean statistics(Workload workload) {
+        return new WorkloadMXBean() {
+            @Override
+            public int getActiveCount() {
+                return Bulkheads.this.getActiveCount(workload);
+            }
+
+            @Override
+            public int getQueuedCount() {
+                return Bulkheads.this.getQueuedCount(workload);
+            }
+
+            @Override
+            public int getConcurrencyLimit() {
+                return Bulkheads.this.getConcurrencyLimit(workload);
+            }
+
+            @Override
+            public long getCompletedCount() {
+                return Bulkheads.this.getCompletedCount(workload);
+            }
+
+            @Override
+            public long getRejectedCount() {
+                return Bulkheads.this.getRejectedCount(workload);
+            }
+        };
+    }
+
+    public void shutdown() {
+        lanes.values().forEach(Lane::shutdown);
+    }
+
+    private void create(Workload workload, BulkheadProperties.Pool settings, boolean virtualThreads) {
+        LongAdder rejected = new LongAdder();
+        String name = workload.name().toLowerCase();
+        Lane lane = virtualThreads
+                ? new VirtualLane(name, settings, () -> reject(workload, rejected))
+                : new PooledLane(name, settings, () -> reject(workload, rejected));
+
+        lanes.put(workload, lane);
+        executors.put(workload, new DelegatingSecurityContextExecutor(lane));
+        rejections.put(workload, rejected);
+    }
+
+    private void reject(Workload workload, LongAdder rejected) {
+        rejected.increment();
+        Lane lane = lanes.get(workload);
+        logger.warn("{} bulkhead is full ({} active, {} queued), rejecting request", workload, lane.active(),
+                lane.queued());
+        throw new BulkheadFullException("Too many concurrent " + workload.name().toLowerCase()
+                + " requests, try again later");
+    }
+
+    private interface Lane extends Executor {
+        int active();
+
+        int queued();
+
+        int limit();
+
+        long completed();
+
+        void shutdown();
+    }
+
+    private static final class PooledLane implements Lane {
+        private final ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+
+        PooledLane(String name, BulkheadProperties.Pool settings, Runnable onRejected) {
+            pool.setThreadNamePrefix(name + "-");
+            pool.setCorePoolSize(settings.getThreads());
+            pool.setMaxPoolSize(settings.getThreads());
+            pool.setAllowCoreThreadTimeOut(true);
+            pool.setQueueCapacity(settings.getQueueCapacity());
+            pool.setRejectedExecutionHandler((task, executor) -> onRejected.run());
+            pool.initialize();
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            pool.execute(task);
+        }
+
+        @Override
+        public int active() {
+            return pool.getActiveCount();
+        }
+
+        @Override
+        public int queued() {
+            return pool.getThreadPoolExecutor().getQueue().size();
+        }
+
+        @Override
+        public int limit() {
+            return pool.getMaxPoolSize();
+        }
+
+        @Override
+        public long completed() {
+            ThreadPoolExecutor executor = pool.getThreadPoolExecutor();
+            return executor.getCompletedTaskCount();
+        }
+
+        @Override
+        public void shutdown() {
+            pool.shutdown();
+        }
+    }
+
+    // A virtual thread per task, at most limit of them running and capacity waiting for a permit
+    private static final class VirtualLane implements Lane {
+        private final ExecutorService executor;
+        private final Semaphore permits;
+        private final int limit;
+        private final int capacity;
+        private final Runnable onRejected;
+        private final AtomicInteger admitted = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+
+        VirtualLane(String name, BulkheadProperties.Pool settings, Runnable onRejected) {
+            this.executor = VirtualThreads.newExecutor(name + "-");
+            this.limit = settings.getThreads();
+            this.permits = new Semaphore(limit, true);
+            this.capacity = settings.getThreads() + settings.getQueueCapacity();
+            this.onRejected = onRejected;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (admitted.incrementAndGet() > capacity) {
+                admitted.decrementAndGet();
+                onRejected.run();
+                return;
+            }
+            executor.execute(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                        completed.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    admitted.decrementAndGet();
+                }
+            });
+        }
+
+        @Override
+        public int active() {
+            return limit - permits.availablePermits();
+        }
+
+        @Override
+        public int queued() {
+            return Math.max(0, admitted.get() - active());
+        }
+
+        @Override
+        public int limit() {
+            return limit;
+        }
+
+        @Override
+        public long completed() {
+            return completed.sum();
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
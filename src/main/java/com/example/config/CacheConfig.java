@@ -0,0 +1,46 @@
+package com.example.config;
+
+import java.util.Collections;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.dto.DocumentDetails;
+import com.example.service.DocumentDetailsLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Caffeine-backed application caches. documentCache is bounded by the estimated size of
+ * its snapshots, expires entries and records hit/miss/eviction statistics (logged by
+ * CacheStatisticsReporter). Entries still being read are refreshed ahead of their
+ * expiry, so a popular document never expires into a burst of concurrent loads.
+ * <p>
+ * Puts and evictions inside a transaction are applied after it commits, so a reader
+ * cannot put back the old state between an eviction and the commit of the write that
+ * caused it.
+ */
+@Configuration
+public class CacheConfig {
+    public static final String DOCUMENT_CACHE = "documentCache";
+
+    @Bean
+    public CacheManager cacheManager(DocumentCacheProperties properties, DocumentDetailsLoader documentDetailsLoader) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumWeight().toBytes())
+                .weigher((Object key, Object value) -> value instanceof DocumentDetails
+                        ? ((DocumentDetails) value).estimatedBytes() : 1)
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .refreshAfterWrite(properties.getRefreshAfterWrite())
+                .recordStats());
+        // Entries read after refreshAfterWrite are reloaded in the background while the old value is served
+        cacheManager.setCacheLoader(documentDetailsLoader);
+        cacheManager.setAllowNullValues(false);
+        // Named last, the caches are built as soon as names are set and refreshAfterWrite needs the loader
+        cacheManager.setCacheNames(Collections.singleton(DOCUMENT_CACHE));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
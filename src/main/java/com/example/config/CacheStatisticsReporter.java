@@ -0,0 +1,44 @@
+package com.example.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Logs size, hit rate and evictions of the Caffeine application caches.
+ */
+@Component
+public class CacheStatisticsReporter {
+    private static final Logger logger = LoggerFactory.getLogger(CacheStatisticsReporter.class);
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Scheduled(fixedDelayString = "${app.cache.stats-log-interval-ms:300000}",
+            initialDelayString = "${app.cache.stats-log-interval-ms:300000}")
+    public void report() {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TransactionAwareCacheDecorator) {
+                cache = ((TransactionAwareCacheDecorator) cache).getTargetCache();
+            }
+            if (!(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache)) {
+                continue;
+            }
+
+            com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache =
+                    (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache();
+            CacheStats stats = nativeCache.stats();
+            logger.info("Cache {}: {} entries, {} hits, {} misses (hit rate {}%), {} evictions ({} weight)",
+                    name, nativeCache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                    Math.round(stats.hitRate() * 100), stats.evictionCount(), stats.evictionWeight());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "app.cache.document")
+public class DocumentCacheProperties {
+    // Upper bound for the estimated heap size of all cached documents
+    private DataSize maximumWeight = DataSize.ofMegabytes(64);
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+    // Reads after this age trigger a background reload, must stay below expireAfterWrite
+    private Duration refreshAfterWrite = Duration.ofMinutes(5);
+
+    public DataSize getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public void setMaximumWeight(DataSize maximumWeight) {
+        this.maximumWeight = maximumWeight;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    public Duration getRefreshAfterWrite() {
+        return refreshAfterWrite;
+    }
+
+    public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+        this.refreshAfterWrite = refreshAfterWrite;
+    }
+}
@@ -1,11 +1,23 @@
 package com.example.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 @ConfigurationProperties(prefix = "app.file")
 public class FileStorageProperties {
     private String storageLocation;
     private String maxSize;
+    private final Packed packed = new Packed();
+    private final Compression compression = new Compression();
+    private final Upload upload = new Upload();
+    private final Content content = new Content();
 
     public String getStorageLocation() {
         return storageLocation;
@@ -22,4 +34,226 @@ public class FileStorageProperties {
     public void setMaxSize(String maxSize) {
         this.maxSize = maxSize;
     }
+
+    public Packed getPacked() {
+        return packed;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public Upload getUpload() {
+        return upload;
+    }
+
+    public Content getContent() {
+        return content;
+    }
+
+    public static class Packed {
+        private boolean enabled = false;
+        private long maxBlobSize = 64 * 1024;
+        private long segmentSize = 256L * 1024 * 1024;
+        private double compactionThreshold = 0.5;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxBlobSize() {
+            return maxBlobSize;
+        }
+
+        public void setMaxBlobSize(long maxBlobSize) {
+            this.maxBlobSize = maxBlobSize;
+        }
+
+        public long getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(long segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public double getCompactionThreshold() {
+            return compactionThreshold;
+        }
+
+        public void setCompactionThreshold(double compactionThreshold) {
+            this.compactionThreshold = compactionThreshold;
+        }
+    }
+
+    public static class Compression {
+        private String codec = "none";
+        private int level = 6;
+        private int textMinLength = 1024;
+        // Formats that are already compressed gain nothing from another pass
+        private List<String> skipMediaTypes = new ArrayList<>(Arrays.asList(
+                "image/*", "video/*", "audio/*", "application/pdf", "application/zip",
+                "application/gzip", "application/x-gzip", "application/x-7z-compressed",
+                "application/x-rar-compressed", "application/x-bzip2", "application/x-xz",
+                "application/java-archive", "application/vnd.openxmlformats-officedocument.*",
+                "application/vnd.oasis.opendocument.*"));
+
+        public String getCodec() {
+            return codec;
+        }
+
+        public void setCodec(String codec) {
+            this.codec = codec;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+
+        public int getTextMinLength() {
+            return textMinLength;
+        }
+
+        public void setTextMinLength(int textMinLength) {
+            this.textMinLength = textMinLength;
+        }
+
+        public List<String> getSkipMediaTypes() {
+            return skipMediaTypes;
+        }
+
+        public void setSkipMediaTypes(List<String> skipMediaTypes) {
+            this.skipMediaTypes = skipMediaTypes;
+        }
+    }
+
+    public static class Upload {
+        // Applies to users whose roles have no quota of their own
+        private DataSize defaultQuota = DataSize.ofMegabytes(10);
+        // Keyed by role name without the ROLE_ prefix, e.g. editor=2GB
+        private Map<String, DataSize> roleQuotas = new HashMap<>();
+        private int bufferSize = 64 * 1024;
+        // Largest chunk a client may send in a chunked upload session
+        private DataSize maxChunkSize = DataSize.ofMegabytes(64);
+        // Smallest chunk a client may ask for, unless the whole file fits in one chunk
+        private DataSize minChunkSize = DataSize.ofKilobytes(256);
+        private int maxChunkCount = 10_000;
+        private Duration sessionTtl = Duration.ofHours(24);
+        // Documents persisted per transaction by the bulk upload
+        private int bulkBatchSize = 500;
+        // Limits of a bulk ZIP upload: entries read and bytes they expand to in total
+        private int bulkMaxEntries = 10_000;
+        private DataSize bulkMaxArchiveSize = DataSize.ofGigabytes(1);
+        // manifest.json of a bulk ZIP is parsed in memory, so it has its own small limit
+        private DataSize bulkMaxManifestSize = DataSize.ofMegabytes(4);
+
+        public DataSize getDefaultQuota() {
+            return defaultQuota;
+        }
+
+        public void setDefaultQuota(DataSize defaultQuota) {
+            this.defaultQuota = defaultQuota;
+        }
+
+        public Map<String, DataSize> getRoleQuotas() {
+            return roleQuotas;
+        }
+
+        public void setRoleQuotas(Map<String, DataSize> roleQuotas) {
+            this.roleQuotas = roleQuotas;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public DataSize getMaxChunkSize() {
+            return maxChunkSize;
+        }
+
+        public void setMaxChunkSize(DataSize maxChunkSize) {
+            this.maxChunkSize = maxChunkSize;
+        }
+
+        public DataSize getMinChunkSize() {
+            return minChunkSize;
+        }
+
+        public void setMinChunkSize(DataSize minChunkSize) {
+            this.minChunkSize = minChunkSize;
+        }
+
+        public int getMaxChunkCount() {
+            return maxChunkCount;
+        }
+
+        public void setMaxChunkCount(int maxChunkCount) {
+            this.maxChunkCount = maxChunkCount;
+        }
+
+        public Duration getSessionTtl() {
+            return sessionTtl;
+        }
+
+        public void setSessionTtl(Duration sessionTtl) {
+            this.sessionTtl = sessionTtl;
+        }
+
+        public int getBulkBatchSize() {
+            return bulkBatchSize;
+        }
+
+        public void setBulkBatchSize(int bulkBatchSize) {
+            this.bulkBatchSize = bulkBatchSize;
+        }
+
+        public int getBulkMaxEntries() {
+            return bulkMaxEntries;
+        }
+
+        public void setBulkMaxEntries(int bulkMaxEntries) {
+            this.bulkMaxEntries = bulkMaxEntries;
+        }
+
+        public DataSize getBulkMaxArchiveSize() {
+            return bulkMaxArchiveSize;
+        }
+
+        public void setBulkMaxArchiveSize(DataSize bulkMaxArchiveSize) {
+            this.bulkMaxArchiveSize = bulkMaxArchiveSize;
+        }
+
+        public DataSize getBulkMaxManifestSize() {
+            return bulkMaxManifestSize;
+        }
+
+        public void setBulkMaxManifestSize(DataSize bulkMaxManifestSize) {
+            this.bulkMaxManifestSize = bulkMaxManifestSize;
+        }
+    }
+
+    public static class Content {
+        // Extracted text is stored in rows of at most this many characters, 0 keeps it in one row
+        private int chunkSize = 0;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
 }
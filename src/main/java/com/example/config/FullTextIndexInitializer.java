@@ -0,0 +1,56 @@
+package com.example.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets up H2's native full-text search when {@code app.search.mode=fulltext}. The
+ * index is kept current by triggers that H2 installs on the indexed tables, rows
+ * that exist when the index is created are indexed once on startup, after the
+ * Flyway migrations have created the tables.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.search", name = "mode", havingValue = "fulltext")
+@DependsOn("flywayInitializer")
+public class FullTextIndexInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(FullTextIndexInitializer.class);
+
+    private static final Map<String, String> COLUMNS_BY_TABLE = new LinkedHashMap<>();
+
+    static {
+        COLUMNS_BY_TABLE.put("DOCUMENTS", "TITLE,DESCRIPTION");
+        // content_text may be stored compressed, the search column holds the same words in plain text
+        COLUMNS_BY_TABLE.put("DOCUMENT_CONTENTS", "SEARCH_VECTOR");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void initialize() {
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS FT_INIT FOR 'org.h2.fulltext.FullText.init'");
+        jdbcTemplate.execute("CALL FT_INIT()");
+        COLUMNS_BY_TABLE.forEach(this::createIndex);
+    }
+
+    private void createIndex(String table, String columns) {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM FT.INDEXES WHERE \"SCHEMA\" = 'PUBLIC' AND \"TABLE\" = ?", Integer.class, table);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        jdbcTemplate.update("CALL FT_CREATE_INDEX('PUBLIC', ?, ?)", table, columns);
+        logger.info("Created full-text index on {}({}) in {} ms", table, columns, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.config;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the id sequences past rows that were inserted without them (seed scripts,
+ * data created while ids were still IDENTITY columns). Runs once the Flyway
+ * migrations have created the sequences and before the web server accepts requests.
+ * Sequences are only ever moved forward so blocks already handed out to another
+ * instance stay valid.
+ */
+@Component
+@DependsOn("flywayInitializer")
+public class IdSequenceAligner {
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    private static final Map<String, String> SEQUENCES_BY_TABLE = new LinkedHashMap<>();
+
+    static {
+        SEQUENCES_BY_TABLE.put("users", "users_seq");
+        SEQUENCES_BY_TABLE.put("tags", "tags_seq");
+        SEQUENCES_BY_TABLE.put("documents", "documents_seq");
+        SEQUENCES_BY_TABLE.put("document_contents", "document_contents_seq");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES_BY_TABLE.forEach(this::alignSequence);
+    }
+
+    private void alignSequence(String table, String sequence) {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            Long nextValue = jdbcTemplate.queryForObject(
+                    "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+                    Long.class, sequence.toUpperCase(Locale.ROOT));
+            if (maxId != null && nextValue != null && nextValue <= maxId) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 1));
+                logger.info("Restarted sequence {} at {} to follow existing {} rows", sequence, maxId + 1, table);
+            }
+        } catch (DataAccessException ex) {
+            logger.warn("Could not align sequence {} with table {}: {}", sequence, table, ex.getMessage());
+        }
+    }
+}
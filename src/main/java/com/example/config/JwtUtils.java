@@ -1,46 +1,131 @@
 package com.example.config;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import com.example.service.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+
+    private final int jwtExpirationMs;
+
+    // Self-contained tokens carry id and roles so requests are authorized without a user lookup
+    private final boolean selfContained;
+    private final int selfContainedExpirationMs;
+
+    // Same key bytes the string overloads of signWith/setSigningKey derived on every call
+    private final SecretKey signingKey;
+    private final JwtParser parser;
 
-    @Value("${app.jwt.expiration-ms}")
-    private int jwtExpirationMs;
+    // Claims of recently verified tokens by token hash, each entry expires with its token
+    private final Cache<String, Claims> verifiedTokens;
+
+    public JwtUtils(@Value("${app.jwt.secret}") String jwtSecret,
+            @Value("${app.jwt.expiration-ms}") int jwtExpirationMs,
+            @Value("${app.jwt.self-contained:false}") boolean selfContained,
+            @Value("${app.jwt.self-contained-expiration-ms:900000}") int selfContainedExpirationMs,
+            @Value("${app.jwt.verified-cache.max-size:10000}") long verifiedCacheSize,
+            @Value("${app.jwt.verified-cache.ttl-ms:300000}") long verifiedCacheTtlMs) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.selfContained = selfContained;
+        this.selfContainedExpirationMs = selfContainedExpirationMs;
+        this.signingKey = new SecretKeySpec(Decoders.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new TokenExpiry(Duration.ofMillis(verifiedCacheTtlMs).toNanos()))
+                .build();
+    }
 
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject((userPrincipal.getUsername()))
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
-                .compact();
+                .setIssuedAt(new Date());
+        if (selfContained) {
+            List<String> roles = userPrincipal.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.toList());
+            builder.claim(USER_ID_CLAIM, userPrincipal.getId())
+                    .claim(ROLES_CLAIM, roles)
+                    .setExpiration(new Date((new Date()).getTime() + selfContainedExpirationMs));
+        } else {
+            builder.setExpiration(new Date((new Date()).getTime() + jwtExpirationMs));
+        }
+        return builder.signWith(signingKey, SignatureAlgorithm.HS512).compact();
+    }
+
+    public boolean hasEmbeddedPrincipal(Claims claims) {
+        return claims.get(USER_ID_CLAIM) != null && claims.get(ROLES_CLAIM) instanceof Collection;
+    }
+
+    // Principal of a self-contained token, built from its claims without touching the database
+    public UserDetailsImpl getPrincipalFromClaims(Claims claims) {
+        Collection<?> roles = claims.get(ROLES_CLAIM, Collection.class);
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .collect(Collectors.toList());
+        return new UserDetailsImpl(claims.get(USER_ID_CLAIM, Long.class), claims.getSubject(), null, null,
+                authorities);
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
 
     public boolean validateJwtToken(String authToken) {
+        return getValidClaims(authToken) != null;
+    }
+
+    // Verifies the token and returns its claims in one parse, null when the token is not valid
+    public Claims getValidClaims(String authToken) {
+        if (authToken == null || authToken.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            return null;
+        }
+
+        String tokenHash = hash(authToken);
+        Claims cached = verifiedTokens.getIfPresent(tokenHash);
+        if (cached != null) {
+            return cached;
+        }
+
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-            return true;
+            Claims claims = parser.parseClaimsJws(authToken).getBody();
+            verifiedTokens.put(tokenHash, claims);
+            return claims;
         } catch (SignatureException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -53,6 +138,44 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Keeps an entry no longer than the configured TTL and never past the token's own expiration
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+        private final long maxNanos;
+
+        TokenExpiry(long maxNanos) {
+            this.maxNanos = maxNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxNanos;
+            }
+            long remaining = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis()).toNanos();
+            return Math.max(0, Math.min(maxNanos, remaining));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,144 @@
+package com.example.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // Per user, or per client address for anonymous requests, in weighted tokens
+    private Bucket user = new Bucket(100, 20);
+    // Callers without requests for this long are forgotten, their bucket starts full again
+    private Duration idleExpiry = Duration.ofMinutes(10);
+    private long maxTrackedCallers = 100_000;
+
+    // Shared by all callers, weight is the tokens one request takes from both buckets
+    private Endpoint read = new Endpoint(1, 2000, 1000);
+    private Endpoint search = new Endpoint(5, 500, 200);
+    private Endpoint qa = new Endpoint(10, 200, 50);
+    private Endpoint upload = new Endpoint(20, 400, 100);
+    private Endpoint write = new Endpoint(2, 1000, 500);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Bucket getUser() {
+        return user;
+    }
+
+    public void setUser(Bucket user) {
+        this.user = user;
+    }
+
+    public Duration getIdleExpiry() {
+        return idleExpiry;
+    }
+
+    public void setIdleExpiry(Duration idleExpiry) {
+        this.idleExpiry = idleExpiry;
+    }
+
+    public long getMaxTrackedCallers() {
+        return maxTrackedCallers;
+    }
+
+    public void setMaxTrackedCallers(long maxTrackedCallers) {
+        this.maxTrackedCallers = maxTrackedCallers;
+    }
+
+    public Endpoint getRead() {
+        return read;
+    }
+
+    public void setRead(Endpoint read) {
+        this.read = read;
+    }
+
+    public Endpoint getSearch() {
+        return search;
+    }
+
+    public void setSearch(Endpoint search) {
+        this.search = search;
+    }
+
+    public Endpoint getQa() {
+        return qa;
+    }
+
+    public void setQa(Endpoint qa) {
+        this.qa = qa;
+    }
+
+    public Endpoint getUpload() {
+        return upload;
+    }
+
+    public void setUpload(Endpoint upload) {
+        this.upload = upload;
+    }
+
+    public Endpoint getWrite() {
+        return write;
+    }
+
+    public void setWrite(Endpoint write) {
+        this.write = write;
+    }
+
+    public static class Bucket {
+        // Burst size
+        private double capacity;
+        private double refillPerSecond;
+
+        public Bucket() {
+        }
+
+        public Bucket(double capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+
+        public double getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(double capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+
+    public static class Endpoint extends Bucket {
+        private int weight;
+
+        public Endpoint() {
+        }
+
+        public Endpoint(int weight, double capacity, double refillPerSecond) {
+            super(capacity, refillPerSecond);
+            this.weight = weight;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+    }
+}
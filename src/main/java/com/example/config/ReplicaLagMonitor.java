@@ -0,0 +1,73 @@
+package com.example.config;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Measures how far the replica is behind the primary with a heartbeat row: each check
+ * writes the current time to replication_heartbeat on the primary and reads back the
+ * value the replica has received so far. The replica is only used while the difference
+ * stays within the configured maximum lag, and until the first successful check it is
+ * not used at all. The lag includes up to one check interval, keep maxLag above it.
+ */
+public class ReplicaLagMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+
+    private volatile boolean replicaUsable = false;
+    private volatile Duration lastLag;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        Instant now = Instant.now();
+        boolean usable;
+        try {
+            primary.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", Timestamp.from(now));
+            Timestamp replicated = replica.queryForObject(
+                    "SELECT beat_at FROM replication_heartbeat WHERE id = 1", Timestamp.class);
+            lastLag = replicated == null ? null : Duration.between(replicated.toInstant(), now);
+            usable = lastLag != null && lastLag.compareTo(maxLag) <= 0;
+        } catch (DataAccessException ex) {
+            logger.debug("Replica lag check failed: {}", ex.getMessage());
+            lastLag = null;
+            usable = false;
+        }
+
+        // Only log transitions, the check runs every second
+        if (usable != replicaUsable) {
+            if (usable) {
+                logger.info("Replica is in sync (lag {} ms), routing read-only transactions to it", lastLag.toMillis());
+            } else {
+                logger.warn("Replica lag {} exceeds {} ms or replica unreachable, routing reads to the primary",
+                        lastLag != null ? lastLag.toMillis() + " ms" : "unknown", maxLag.toMillis());
+            }
+        }
+        replicaUsable = usable;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public Duration getLastLag() {
+        return lastLag;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.search")
+public class SearchProperties {
+    private Mode mode = Mode.LIKE;
+    // How long a listing total is reused for later pages of the same filter
+    private Duration countTtl = Duration.ofSeconds(30);
+    private int countCacheSize = 1000;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Duration getCountTtl() {
+        return countTtl;
+    }
+
+    public void setCountTtl(Duration countTtl) {
+        this.countTtl = countTtl;
+    }
+
+    public int getCountCacheSize() {
+        return countCacheSize;
+    }
+
+    public void setCountCacheSize(int countCacheSize) {
+        this.countCacheSize = countCacheSize;
+    }
+
+    public enum Mode {
+        // Substring matching with LIKE, needs no setup but scans every row
+        LIKE,
+        // Word matching through H2's built-in full-text index (FT_SEARCH_DATA)
+        FULLTEXT
+    }
+}
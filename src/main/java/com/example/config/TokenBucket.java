@@ -0,0 +1,42 @@
+package com.example.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is the theoretical arrival
+ * time of the next token, advanced with one compare-and-set per admitted request.
+ * Time is {@link System#nanoTime()}, passed in by the caller.
+ */
+public class TokenBucket {
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double capacity, double refillPerSecond, long now) {
+        this.nanosPerToken = Math.max(1L, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = (long) (capacity * nanosPerToken);
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    // 0 when the cost was taken, otherwise the nanos until it would fit
+    public long tryAcquire(int cost, long now) {
+        // A cost above the capacity would never fit, it takes the full bucket instead
+        long increment = Math.min(cost * nanosPerToken, burstNanos);
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, now) + increment;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Returns tokens taken for a request that was rejected further on
+    public void refund(int cost) {
+        theoreticalArrival.addAndGet(-Math.min(cost * nanosPerToken, burstNanos));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.config;
+
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Opt-in virtual thread mode (app.threads.virtual.enabled=true, JDK 21 or later):
+ * Tomcat handles requests on virtual threads, and so do @Async ingestion and the
+ * controller bulkheads (see BulkheadConfig). Every connection pool, the primary and the
+ * replica one when reads are routed, is wrapped in a {@link ConnectionPermitDataSource}
+ * sized to that pool, so the unbounded number of threads cannot exhaust it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    private final ExecutorService requestExecutor = VirtualThreads.newExecutor("http-");
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(requestExecutor);
+    }
+
+    // Replaces Boot's pooled applicationTaskExecutor, used by @Async and Spring MVC async requests
+    @Bean(name = { "applicationTaskExecutor", "taskExecutor" })
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newExecutor("task-"));
+    }
+
+    // Wraps each connection pool, not the routing DataSource above them, so reads and writes
+    // are each capped at their own pool's size. The permit wait takes the pool's connectionTimeout:
+    // a permit holder finds a free connection, so a caller waits that long once, not twice
+    @Bean
+    public static BeanPostProcessor connectionPermitPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource)) {
+                    return bean;
+                }
+                HikariDataSource pool = (HikariDataSource) bean;
+                logger.info("Virtual threads enabled, at most {} concurrent connections from {}",
+                        pool.getMaximumPoolSize(), beanName);
+                return new ConnectionPermitDataSource(pool, pool.getMaximumPoolSize(), pool.getConnectionTimeout());
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        requestExecutor.shutdown();
+    }
+}
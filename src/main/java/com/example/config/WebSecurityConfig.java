@@ -1,8 +1,13 @@
 package com.example.config;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jmx.export.MBeanExporter;
+import org.springframework.jmx.support.RegistrationPolicy;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
@@ -30,11 +35,34 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    @Autowired
+    private RateLimitProperties rateLimitProperties;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
     }
 
+    @Bean
+    public AdmissionControlFilter admissionControlFilter() {
+        return new AdmissionControlFilter(rateLimitProperties);
+    }
+
+    // One MXBean per endpoint class, com.example:type=AdmissionControl,name=<class>, for monitoring to poll
+    @Bean
+    public MBeanExporter admissionControlMBeanExporter() {
+        AdmissionControlFilter filter = admissionControlFilter();
+        Map<String, Object> beans = new LinkedHashMap<>();
+        for (AdmissionControlFilter.EndpointClass endpoint : AdmissionControlFilter.EndpointClass.values()) {
+            beans.put("com.example:type=AdmissionControl,name=" + endpoint.name().toLowerCase(),
+                    filter.statistics(endpoint));
+        }
+        MBeanExporter exporter = new MBeanExporter();
+        exporter.setBeans(beans);
+        exporter.setRegistrationPolicy(RegistrationPolicy.REPLACE_EXISTING);
+        return exporter;
+    }
+
     @Override
     public void configure(AuthenticationManagerBuilder authenticationManagerBuilder) throws Exception {
         authenticationManagerBuilder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
@@ -63,5 +91,7 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
             .anyRequest().authenticated();
 
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+        // Runs once the caller is known, so limits apply per user
+        http.addFilterAfter(admissionControlFilter(), AuthTokenFilter.class);
     }
 }
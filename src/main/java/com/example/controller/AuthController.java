@@ -19,6 +19,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -32,8 +33,11 @@ import com.example.entity.Role.ERole;
 import com.example.entity.User;
 import com.example.repository.RoleRepository;
 import com.example.repository.UserRepository;
+import com.example.service.TokenRevocationService;
 import com.example.service.UserDetailsImpl;
 
+import io.jsonwebtoken.Claims;
+
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -61,6 +65,9 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
     @PostMapping("/login")
     @Operation(summary = "Authenticate user", description = "Login with username and password")
     @ApiResponse(responseCode = "200", description = "Successfully authenticated",
@@ -111,10 +118,11 @@ public class AuthController {
         }
 
         // Create new user
-        User user = new User(
-                signupRequest.getUsername(),
-                signupRequest.getEmail(),
-                passwordEncoder.encode(signupRequest.getPassword()));
+        User user = User.builder()
+                .username(signupRequest.getUsername())
+                .email(signupRequest.getEmail())
+                .password(passwordEncoder.encode(signupRequest.getPassword()))
+                .build();
 
         Set<String> strRoles = signupRequest.getRoles();
         Set<Role> roles = new HashSet<>();
@@ -155,10 +163,15 @@ public class AuthController {
     @PostMapping("/logout")
     @Operation(summary = "Logout user", description = "Invalidate JWT token")
     @ApiResponse(responseCode = "200", description = "User logged out successfully")
-    public ResponseEntity<?> logoutUser() {
-        // In JWT, server-side logout is not needed as tokens are stateless
-        // But we can implement token blacklisting for better security in a real application
-        // Here we just return a success message
+    public ResponseEntity<?> logoutUser(
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
+        // The token stays revoked until it expires, on every instance
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            Claims claims = jwtUtils.getValidClaims(authorization.substring(7));
+            if (claims != null) {
+                tokenRevocationService.revoke(claims);
+            }
+        }
         SecurityContextHolder.clearContext();
         
         logger.info("User logged out");
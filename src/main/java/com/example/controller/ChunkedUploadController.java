@@ -0,0 +1,112 @@
+package com.example.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.dto.ChunkedUploadRequest;
+import com.example.dto.MessageResponse;
+import com.example.dto.UploadChunkDto;
+import com.example.dto.UploadSessionDto;
+import com.example.entity.Document;
+import com.example.service.ChunkedUploadService;
+import com.example.service.DocumentService;
+import com.example.service.StoredUpload;
+import com.example.service.UploadSession;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.util.TreeSet;
+
+@RestController
+@RequestMapping("/api/documents/uploads")
+@PreAuthorize("hasRole('EDITOR') or hasRole('ADMIN')")
+@Tag(name = "Chunked Uploads", description = "APIs for resumable chunked document uploads")
+@SecurityRequirement(name = "bearerAuth")
+public class ChunkedUploadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadController.class);
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @PostMapping
+    @Operation(summary = "Open an upload session", description = "Declare the file size and get the chunk layout")
+    @ApiResponse(responseCode = "201", description = "Session created",
+            content = @Content(schema = @Schema(implementation = UploadSessionDto.class)))
+    @ApiResponse(responseCode = "413", description = "File size exceeds the role quota")
+    public ResponseEntity<UploadSessionDto> createSession(@Valid @RequestBody ChunkedUploadRequest request,
+            Authentication authentication) {
+        long quota = documentService.resolveUploadQuota(authentication.getAuthorities());
+        UploadSession session = chunkedUploadService.createSession(request, quota, authentication.getName());
+        return ResponseEntity.status(HttpStatus.CREATED).body(toDto(session));
+    }
+
+    @GetMapping("/{sessionId}")
+    @Operation(summary = "Get upload session status", description = "Lists the chunks received so far, used to resume")
+    public ResponseEntity<UploadSessionDto> getSession(@PathVariable String sessionId, Authentication authentication) {
+        return ResponseEntity.ok(toDto(chunkedUploadService.getSession(sessionId, authentication.getName())));
+    }
+
+    @PutMapping(value = "/{sessionId}/chunks/{index}", consumes = MediaType.ALL_VALUE)
+    @Operation(summary = "Upload one chunk", description = "Chunks can be sent in parallel and retried independently")
+    @ApiResponse(responseCode = "200", description = "Chunk stored")
+    @ApiResponse(responseCode = "400", description = "Wrong chunk size, index or checksum")
+    public ResponseEntity<UploadChunkDto> uploadChunk(
+            @PathVariable String sessionId,
+            @PathVariable int index,
+            @Parameter(description = "Hex SHA-256 of the chunk") @RequestHeader(value = "X-Chunk-Checksum", required = false) String checksum,
+            HttpServletRequest request,
+            Authentication authentication) throws IOException {
+        // Runs on the request thread, the body can only be read while the servlet call is active
+        StoredUpload chunk = chunkedUploadService.storeChunk(sessionId, index, request.getInputStream(), checksum,
+                authentication.getName());
+        return ResponseEntity.ok(new UploadChunkDto(index, chunk.getSize(), chunk.getChecksum()));
+    }
+
+    @PostMapping("/{sessionId}/complete")
+    @Operation(summary = "Complete an upload session", description = "Assembles the chunks and creates the document")
+    @ApiResponse(responseCode = "201", description = "Document uploaded successfully",
+            content = @Content(schema = @Schema(implementation = Document.class)))
+    @ApiResponse(responseCode = "400", description = "Chunks are missing")
+    public ResponseEntity<Document> completeSession(@PathVariable String sessionId, Authentication authentication) {
+        logger.info("Completing upload session: {}", sessionId);
+        Document document = chunkedUploadService.completeSession(sessionId, authentication.getName());
+        return ResponseEntity.status(HttpStatus.CREATED).body(document);
+    }
+
+    @DeleteMapping("/{sessionId}")
+    @Operation(summary = "Abort an upload session", description = "Discards the session and its chunks")
+    public ResponseEntity<MessageResponse> abortSession(@PathVariable String sessionId, Authentication authentication) {
+        chunkedUploadService.abortSession(sessionId, authentication.getName());
+        return ResponseEntity.ok(new MessageResponse("Upload session aborted"));
+    }
+
+    private UploadSessionDto toDto(UploadSession session) {
+        return UploadSessionDto.builder()
+                .sessionId(session.getId())
+                .fileName(session.getFileName())
+                .fileSize(session.getFileSize())
+                .chunkSize(session.getChunkSize())
+                .chunkCount(session.getChunkCount())
+                .receivedChunks(new TreeSet<>(session.getReceivedChunks()))
+                .build();
+    }
+}
@@ -23,15 +23,27 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.config.Bulkheads;
+import com.example.dto.BulkUploadManifest;
+import com.example.dto.BulkUploadResult;
+import com.example.dto.DocumentDetails;
 import com.example.dto.DocumentDto;
 import com.example.dto.DocumentUploadRequest;
 import com.example.dto.SearchRequest;
 import com.example.entity.Document;
+import com.example.exception.UploadTooLargeException;
+import com.example.service.BulkUploadService;
 import com.example.service.DocumentService;
+import com.example.service.FileDownloadService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 @RestController
@@ -45,6 +57,15 @@ public class DocumentController {
     @Autowired
     private DocumentService documentService;
 
+    @Autowired
+    private FileDownloadService fileDownloadService;
+
+    @Autowired
+    private BulkUploadService bulkUploadService;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasRole('EDITOR') or hasRole('ADMIN')")
     @Operation(summary = "Upload a new document", description = "Upload a document with metadata")
@@ -59,33 +80,134 @@ public class DocumentController {
             logger.info("Uploading document: {}", metadata.getTitle());
             Document document = documentService.uploadDocument(metadata, file, authentication.getName());
             return ResponseEntity.status(HttpStatus.CREATED).body(document);
-        });
+        }, bulkheads.uploads());
+    }
+
+    @PostMapping(value = "/upload/stream", consumes = MediaType.ALL_VALUE)
+    @PreAuthorize("hasRole('EDITOR') or hasRole('ADMIN')")
+    @Operation(summary = "Upload a document as a raw request body",
+            description = "Streams the body straight to storage, limited by the caller's role quota instead of the multipart limit")
+    @ApiResponse(responseCode = "201", description = "Document uploaded successfully",
+            content = @Content(schema = @Schema(implementation = Document.class)))
+    @ApiResponse(responseCode = "413", description = "Upload exceeds the role quota")
+    public ResponseEntity<Document> uploadDocumentStream(
+            @Parameter(description = "Document title") @RequestParam String title,
+            @Parameter(description = "Document description") @RequestParam(required = false) String description,
+            @Parameter(description = "Document tags") @RequestParam(required = false) Set<String> tags,
+            @Parameter(description = "Original file name") @RequestHeader(value = "X-File-Name", required = false) String fileName,
+            HttpServletRequest request,
+            Authentication authentication) throws IOException {
+        // Runs on the request thread, the body can only be read while the servlet call is active
+        long quota = documentService.resolveUploadQuota(authentication.getAuthorities());
+        if (request.getContentLengthLong() > quota) {
+            throw new UploadTooLargeException("Upload exceeds the allowed size of " + quota + " bytes");
+        }
+
+        DocumentUploadRequest metadata = new DocumentUploadRequest();
+        metadata.setTitle(title);
+        metadata.setDescription(description);
+        if (tags != null) {
+            metadata.setTags(tags);
+        }
+
+        logger.info("Streaming upload of document: {}", title);
+        Document document = documentService.uploadDocumentStream(metadata, request.getInputStream(), fileName, quota,
+                authentication.getName());
+        return ResponseEntity.status(HttpStatus.CREATED).body(document);
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('EDITOR') or hasRole('ADMIN')")
+    @Operation(summary = "Bulk upload documents", description = "Upload several files with a manifest describing each one")
+    @ApiResponse(responseCode = "200", description = "Per-item upload status",
+            content = @Content(schema = @Schema(implementation = BulkUploadResult.class)))
+    @ApiResponse(responseCode = "400", description = "Two files with the same name")
+    public ResponseEntity<BulkUploadResult> bulkUpload(
+            @Valid @RequestPart("manifest") BulkUploadManifest manifest,
+            @RequestPart("files") List<MultipartFile> files,
+            Authentication authentication) {
+        logger.info("Bulk uploading {} documents", manifest.getItems().size());
+        long quota = documentService.resolveUploadQuota(authentication.getAuthorities());
+        return ResponseEntity.ok(bulkUploadService.uploadFiles(manifest, files, quota, authentication.getName()));
+    }
+
+    @PostMapping(value = "/bulk", consumes = { "application/zip", "application/x-zip-compressed" })
+    @PreAuthorize("hasRole('EDITOR') or hasRole('ADMIN')")
+    @Operation(summary = "Bulk upload a ZIP archive",
+            description = "Streams a ZIP whose manifest.json describes the documents contained in the archive")
+    @ApiResponse(responseCode = "200", description = "Per-item upload status",
+            content = @Content(schema = @Schema(implementation = BulkUploadResult.class)))
+    @ApiResponse(responseCode = "400", description = "Unreadable archive, missing manifest, duplicate or too many entries")
+    @ApiResponse(responseCode = "413", description = "Entries expand beyond app.file.upload.bulk-max-archive-size")
+    public ResponseEntity<BulkUploadResult> bulkUploadArchive(HttpServletRequest request,
+            Authentication authentication) throws IOException {
+        // Runs on the request thread, the body can only be read while the servlet call is active
+        logger.info("Bulk uploading ZIP archive");
+        long quota = documentService.resolveUploadQuota(authentication.getAuthorities());
+        return ResponseEntity.ok(bulkUploadService.uploadArchive(request.getInputStream(), quota,
+                authentication.getName()));
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('VIEWER') or hasRole('EDITOR') or hasRole('ADMIN')")
     @Operation(summary = "Get document by ID", description = "Retrieve a document by its ID")
     @ApiResponse(responseCode = "200", description = "Document found",
-            content = @Content(schema = @Schema(implementation = Document.class)))
+            content = @Content(schema = @Schema(implementation = DocumentDetails.class)))
     @ApiResponse(responseCode = "404", description = "Document not found")
-    public CompletableFuture<ResponseEntity<Document>> getDocument(
+    public CompletableFuture<ResponseEntity<DocumentDetails>> getDocument(
             @Parameter(description = "Document ID") @PathVariable Long id) {
         
         return CompletableFuture.supplyAsync(() -> {
             logger.info("Fetching document with ID: {}", id);
-            Document document = documentService.getDocumentById(id);
+            DocumentDetails document = documentService.getDocumentById(id);
             return ResponseEntity.ok(document);
-        });
+        }, bulkheads.reads());
+    }
+
+    @GetMapping(value = "/{id}/content", produces = MediaType.TEXT_PLAIN_VALUE)
+    @PreAuthorize("hasRole('VIEWER') or hasRole('EDITOR') or hasRole('ADMIN')")
+    @Operation(summary = "Get extracted text", description = "Retrieve the text extracted from the document file")
+    @ApiResponse(responseCode = "200", description = "Extracted text")
+    @ApiResponse(responseCode = "204", description = "No text extracted yet")
+    @ApiResponse(responseCode = "404", description = "Document not found")
+    public CompletableFuture<ResponseEntity<String>> getDocumentContent(
+            @Parameter(description = "Document ID") @PathVariable Long id) {
+
+        return CompletableFuture.supplyAsync(() -> {
+            logger.info("Fetching extracted text for document with ID: {}", id);
+            String content = documentService.getDocumentContent(id);
+            return content.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(content);
+        }, bulkheads.reads());
+    }
+
+    @GetMapping("/{id}/file")
+    @PreAuthorize("hasRole('VIEWER') or hasRole('EDITOR') or hasRole('ADMIN')")
+    @Operation(summary = "Download document file", description = "Stream the stored file, supports Range and If-None-Match")
+    @ApiResponse(responseCode = "200", description = "Full file content")
+    @ApiResponse(responseCode = "206", description = "Requested byte range")
+    @ApiResponse(responseCode = "304", description = "File not modified")
+    @ApiResponse(responseCode = "416", description = "Requested range not satisfiable")
+    public void downloadDocumentFile(
+            @Parameter(description = "Document ID") @PathVariable Long id,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        logger.info("Downloading file for document with ID: {}", id);
+        DocumentDetails document = documentService.getDocumentById(id);
+        fileDownloadService.sendFile(document.getFilePath(), document.getFileType(),
+                document.getFileSize() != null ? document.getFileSize() : 0L,
+                document.getTitle(), request, response);
     }
 
     @GetMapping
     @PreAuthorize("hasRole('VIEWER') or hasRole('EDITOR') or hasRole('ADMIN')")
     @Operation(summary = "Get all documents", description = "Retrieve all documents with pagination and sorting")
-    public CompletableFuture<ResponseEntity<Page<Document>>> getAllDocuments(
+    public CompletableFuture<ResponseEntity<Page<DocumentDto>>> getAllDocuments(
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Sort field") @RequestParam(defaultValue = "createdAt") String sortBy,
-            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "desc") String sortDir) {
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "desc") String sortDir,
+            @Parameter(description = "Run an exact count instead of reusing a recent total")
+            @RequestParam(defaultValue = "false") boolean exact) {
         
         return CompletableFuture.supplyAsync(() -> {
             Sort sort = sortDir.equalsIgnoreCase("asc") ? 
@@ -93,19 +215,20 @@ public class DocumentController {
             Pageable pageable = PageRequest.of(page, size, sort);
             
             logger.info("Fetching all documents, page: {}, size: {}", page, size);
-            Page<Document> documents = documentService.getAllDocuments(pageable);
+            Page<DocumentDto> documents = documentService.getAllDocuments(pageable, exact);
             return ResponseEntity.ok(documents);
-        });
+        }, bulkheads.reads());
     }
 
     @GetMapping("/user")
     @PreAuthorize("hasRole('VIEWER') or hasRole('EDITOR') or hasRole('ADMIN')")
     @Operation(summary = "Get current user's documents", description = "Retrieve documents for the authenticated user")
-    public CompletableFuture<ResponseEntity<Page<Document>>> getUserDocuments(
+    public CompletableFuture<ResponseEntity<Page<DocumentDto>>> getUserDocuments(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean exact,
             Authentication authentication) {
         
         return CompletableFuture.supplyAsync(() -> {
@@ -114,20 +237,22 @@ public class DocumentController {
             Pageable pageable = PageRequest.of(page, size, sort);
             
             logger.info("Fetching documents for user: {}", authentication.getName());
-            Page<Document> documents = documentService.getDocumentsByAuthor(authentication.getName(), pageable);
+            Page<DocumentDto> documents = documentService.getDocumentsByAuthor(authentication.getName(), pageable, exact);
             return ResponseEntity.ok(documents);
-        });
+        }, bulkheads.reads());
     }
 
     @PostMapping("/search")
     @PreAuthorize("hasRole('VIEWER') or hasRole('EDITOR') or hasRole('ADMIN')")
     @Operation(summary = "Search documents by criteria", description = "Search documents using multiple parameters")
-    public CompletableFuture<ResponseEntity<Page<Document>>> searchDocuments(
+    @ApiResponse(responseCode = "400", description = "Sort property not supported by the full-text search")
+    public CompletableFuture<ResponseEntity<Page<DocumentDto>>> searchDocuments(
             @RequestBody SearchRequest searchRequest,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean exact) {
         
         return CompletableFuture.supplyAsync(() -> {
             Sort sort = sortDir.equalsIgnoreCase("asc") ? 
@@ -135,20 +260,22 @@ public class DocumentController {
             Pageable pageable = PageRequest.of(page, size, sort);
             
             logger.info("Searching documents with criteria: {}", searchRequest);
-            Page<Document> documents = documentService.searchDocuments(searchRequest, pageable);
+            Page<DocumentDto> documents = documentService.searchDocuments(searchRequest, pageable, exact);
             return ResponseEntity.ok(documents);
-        });
+        }, bulkheads.search());
     }
 
     @GetMapping("/search")
     @PreAuthorize("hasRole('VIEWER') or hasRole('EDITOR') or hasRole('ADMIN')")
     @Operation(summary = "Search documents by keyword", description = "Full-text search in documents")
-    public CompletableFuture<ResponseEntity<Page<Document>>> searchByKeyword(
+    @ApiResponse(responseCode = "400", description = "Sort property not supported by the full-text search")
+    public CompletableFuture<ResponseEntity<Page<DocumentDto>>> searchByKeyword(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean exact) {
         
         return CompletableFuture.supplyAsync(() -> {
             Sort sort = sortDir.equalsIgnoreCase("asc") ? 
@@ -156,9 +283,9 @@ public class DocumentController {
             Pageable pageable = PageRequest.of(page, size, sort);
             
             logger.info("Searching documents with keyword: {}", keyword);
-            Page<Document> documents = documentService.searchByKeyword(keyword, pageable);
+            Page<DocumentDto> documents = documentService.searchByKeyword(keyword, pageable, exact);
             return ResponseEntity.ok(documents);
-        });
+        }, bulkheads.search());
     }
 
     @PutMapping("/{id}")
@@ -174,7 +301,7 @@ public class DocumentController {
             logger.info("Updating document with ID: {}", id);
             Document updatedDocument = documentService.updateDocument(id, documentDto);
             return ResponseEntity.ok(updatedDocument);
-        });
+        }, bulkheads.uploads());
     }
 
     @DeleteMapping("/{id}")
@@ -190,7 +317,7 @@ public class DocumentController {
             Map<String, String> response = new HashMap<>();
             response.put("message", "Document deleted successfully");
             return ResponseEntity.ok(response);
-        });
+        }, bulkheads.admin());
     }
 
     @GetMapping("/unprocessed")
@@ -200,6 +327,6 @@ public class DocumentController {
         return CompletableFuture.supplyAsync(() -> {
             logger.info("Fetching unprocessed documents");
             return ResponseEntity.ok(documentService.getUnprocessedDocuments());
-        });
+        }, bulkheads.admin());
     }
 }
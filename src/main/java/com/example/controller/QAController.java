@@ -20,10 +20,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.config.Bulkheads;
+import com.example.dto.DocumentDto;
 import com.example.dto.DocumentSnippet;
 import com.example.dto.QAResponse;
 import com.example.dto.QuestionRequest;
-import com.example.entity.Document;
 import com.example.service.DocumentService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -40,6 +41,9 @@ public class QAController {
     
     @Autowired
     private DocumentService documentService;
+
+    @Autowired
+    private Bulkheads bulkheads;
     
     @PostMapping("/question")
     @PreAuthorize("hasRole('VIEWER') or hasRole('EDITOR') or hasRole('ADMIN')")
@@ -50,13 +54,18 @@ public class QAController {
             
             // Search for documents by keyword (the question)
             Pageable pageable = PageRequest.of(0, 5); // Get top 5 results
-            Page<Document> matchingDocs = documentService.searchByKeyword(questionRequest.getQuestion(), pageable);
+            Page<DocumentDto> matchingDocs = documentService.searchByKeyword(questionRequest.getQuestion(), pageable, false);
+            
+            // Load the extracted text of the matches only, in one query
+            Map<Long, String> contents = documentService.getDocumentContents(matchingDocs.getContent().stream()
+                .map(DocumentDto::getId)
+                .collect(Collectors.toList()));
             
             // Extract snippets from matching documents
             List<DocumentSnippet> snippets = matchingDocs.getContent().stream()
                 .map(doc -> {
                     // Extract relevant text sections (simplified implementation)
-                    String contentText = doc.getContentText();
+                    String contentText = contents.get(doc.getId());
                     String relevantText = contentText != null ? 
                         extractRelevantSnippet(contentText, questionRequest.getQuestion()) : 
                         doc.getDescription();
@@ -65,8 +74,8 @@ public class QAController {
                         doc.getId(),
                         doc.getTitle(),
                         relevantText,
-                        doc.getAuthor().getUsername(),
-                        doc.getCreatedAt().toString()
+                        doc.getAuthorUsername(),
+                        doc.getCreatedAt()
                     );
                 })
                 .collect(Collectors.toList());
@@ -78,22 +87,22 @@ public class QAController {
             response.setTotalResults(matchingDocs.getTotalElements());
             
             return ResponseEntity.ok(response);
-        });
+        }, bulkheads.search());
     }
     
     @GetMapping("/recent")
     @PreAuthorize("hasRole('VIEWER') or hasRole('EDITOR') or hasRole('ADMIN')")
     @Operation(summary = "Get recent documents", description = "Retrieve recently created documents")
-    public CompletableFuture<ResponseEntity<Page<Document>>> getRecentDocuments(
+    public CompletableFuture<ResponseEntity<Page<DocumentDto>>> getRecentDocuments(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
         return CompletableFuture.supplyAsync(() -> {
             logger.info("Fetching recent documents");
             Pageable pageable = PageRequest.of(page, size);
-            Page<Document> documents = documentService.getAllDocuments(pageable);
+            Page<DocumentDto> documents = documentService.getAllDocuments(pageable, false);
             return ResponseEntity.ok(documents);
-        });
+        }, bulkheads.reads());
     }
     
     @GetMapping("/popular-terms")
@@ -112,7 +121,7 @@ public class QAController {
                 "user", 42
             );
             return ResponseEntity.ok(popularTerms);
-        });
+        }, bulkheads.reads());
     }
     
     /**
@@ -15,12 +15,19 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import com.example.config.Bulkheads;
 import com.example.dto.MessageResponse;
+import com.example.entity.Role;
+import com.example.entity.Role.ERole;
 import com.example.entity.User;
+import com.example.repository.RoleRepository;
 import com.example.repository.UserRepository;
+import com.example.service.PrincipalCache;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 @RestController
@@ -34,6 +41,15 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get all users", description = "Retrieve all registered users (Admin only)")
@@ -46,7 +62,7 @@ public class UserController {
             users.forEach(user -> user.setPassword(null));
             
             return ResponseEntity.ok(users);
-        });
+        }, bulkheads.admin());
     }
 
     @GetMapping("/{id}")
@@ -62,7 +78,7 @@ public class UserController {
         return CompletableFuture.supplyAsync(() -> {
             logger.info("Fetching user with ID: {}", id);
             
-            Optional<User> userOpt = userRepository.findById(id);
+            Optional<User> userOpt = userRepository.findWithRolesById(id);
             if (userOpt.isPresent()) {
                 User user = userOpt.get();
                 // Don't return password
@@ -71,7 +87,7 @@ public class UserController {
             }
             
             return ResponseEntity.notFound().build();
-        });
+        }, bulkheads.reads());
     }
 
     @GetMapping("/profile")
@@ -82,7 +98,7 @@ public class UserController {
             String username = authentication.getName();
             logger.info("Fetching profile for user: {}", username);
             
-            Optional<User> userOpt = userRepository.findByUsername(username);
+            Optional<User> userOpt = userRepository.findWithRolesByUsername(username);
             if (userOpt.isPresent()) {
                 User user = userOpt.get();
                 // Don't return password
@@ -91,7 +107,7 @@ public class UserController {
             }
             
             return ResponseEntity.notFound().build();
-        });
+        }, bulkheads.reads());
     }
 
     @DeleteMapping("/{id}")
@@ -103,13 +119,16 @@ public class UserController {
         return CompletableFuture.supplyAsync(() -> {
             logger.info("Deleting user with ID: {}", id);
             
-            if (!userRepository.existsById(id)) {
+            Optional<User> userOpt = userRepository.findById(id);
+            if (userOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
             
             userRepository.deleteById(id);
+            // Tokens of the deleted user must stop authenticating now, not when the cached principal expires
+            principalCache.invalidate(userOpt.get().getUsername());
             return ResponseEntity.ok(new MessageResponse("User deleted successfully"));
-        });
+        }, bulkheads.admin());
     }
 
     @PutMapping("/{id}/role")
@@ -121,12 +140,36 @@ public class UserController {
             @PathVariable Long id,
             @RequestBody List<String> roles) {
         
-        // This would typically involve more complex logic to update roles
-        // For a complete implementation, you'd need additional service logic
-        
         return CompletableFuture.supplyAsync(() -> {
             logger.info("Updating roles for user ID: {}", id);
+            
+            Optional<User> userOpt = userRepository.findWithRolesById(id);
+            if (userOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            User user = userOpt.get();
+            Set<Role> newRoles = new HashSet<>();
+            for (String role : roles) {
+                newRoles.add(roleRepository.findByName(toRoleName(role))
+                        .orElseThrow(() -> new RuntimeException("Error: Role is not found.")));
+            }
+            user.setRoles(newRoles);
+            userRepository.save(user);
+            principalCache.invalidate(user.getUsername());
             return ResponseEntity.ok(new MessageResponse("Roles updated successfully"));
-        });
+        }, bulkheads.admin());
+    }
+
+    // Same names as at registration, anything unknown means viewer
+    private ERole toRoleName(String role) {
+        switch (role.toLowerCase()) {
+            case "admin":
+                return ERole.ROLE_ADMIN;
+            case "editor":
+                return ERole.ROLE_EDITOR;
+            default:
+                return ERole.ROLE_VIEWER;
+        }
     }
 }
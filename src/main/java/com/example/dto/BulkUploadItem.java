@@ -0,0 +1,30 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUploadItem {
+    // Multipart file name or path of the entry inside the ZIP archive
+    @NotBlank
+    private String fileName;
+
+    @NotBlank
+    @Size(max = 255)
+    private String title;
+
+    private String description;
+
+    @Builder.Default
+    private Set<String> tags = new HashSet<>();
+}
@@ -0,0 +1,36 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUploadResult {
+    private int total;
+
+    private int created;
+
+    private int failed;
+
+    private List<ItemResult> items;
+
+    public enum Status {
+        CREATED,
+        FAILED,
+        SKIPPED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private String fileName;
+        private Status status;
+        private Long documentId;
+        private String message;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChunkedUploadRequest {
+    @NotBlank
+    @Size(max = 255)
+    private String title;
+
+    private String description;
+
+    @Builder.Default
+    private Set<String> tags = new HashSet<>();
+
+    private String fileName;
+
+    @NotNull
+    @Positive
+    private Long fileSize;
+
+    // Optional, capped by app.file.upload.max-chunk-size
+    @Positive
+    private Long chunkSize;
+}
@@ -0,0 +1,43 @@
+package com.example.dto;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable snapshot of a document's metadata as returned by GET /api/documents/{id}.
+ * This is what documentCache holds, never the managed entity.
+ */
+@Value
+@Builder
+public class DocumentDetails {
+    Long id;
+    String title;
+    String description;
+    String filePath;
+    String fileType;
+    Long fileSize;
+    String checksum;
+    String authorUsername;
+    Set<String> tags;
+    boolean indexed;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+
+    // Rough heap size for the cache weigher: fixed object overhead plus two bytes per character
+    public int estimatedBytes() {
+        int chars = length(title) + length(description) + length(filePath) + length(fileType)
+                + length(checksum) + length(authorUsername);
+        int bytes = 256 + 2 * chars;
+        for (String tag : tags) {
+            bytes += 48 + 2 * tag.length();
+        }
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UploadChunkDto {
+    private int index;
+    private long size;
+    private String checksum;
+}
@@ -0,0 +1,26 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.SortedSet;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionDto {
+    private String sessionId;
+
+    private String fileName;
+
+    private Long fileSize;
+
+    private Long chunkSize;
+
+    private Integer chunkCount;
+
+    private SortedSet<Integer> receivedChunks;
+}
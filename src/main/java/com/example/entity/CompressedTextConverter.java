@@ -0,0 +1,66 @@
+package com.example.entity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.config.FileStorageProperties;
+import com.example.service.CompressionCodec;
+
+/**
+ * Compresses large text columns with the configured codec. Values are stored as
+ * codec prefix + Base64 so the column type stays TEXT, and values without a prefix
+ * (written before compression was enabled) are returned unchanged.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, String> {
+
+    // Injected when Hibernate obtains the converter through Spring's bean container
+    @Autowired(required = false)
+    private FileStorageProperties fileStorageProperties;
+
+    @Override
+    public String convertToDatabaseColumn(String text) {
+        if (text == null || fileStorageProperties == null) {
+            return text;
+        }
+
+        FileStorageProperties.Compression settings = fileStorageProperties.getCompression();
+        CompressionCodec codec = CompressionCodec.fromName(settings.getCodec());
+        if (codec == CompressionCodec.NONE || text.length() < settings.getTextMinLength()) {
+            return text;
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(text.length() / 4);
+        try (OutputStream out = codec.compress(compressed, settings.getLevel())) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not compress text column", ex);
+        }
+        return codec.getTextPrefix() + Base64.getEncoder().encodeToString(compressed.toByteArray());
+    }
+
+    @Override
+    public String convertToEntityAttribute(String value) {
+        CompressionCodec codec = CompressionCodec.forText(value);
+        if (codec == CompressionCodec.NONE) {
+            return value;
+        }
+
+        byte[] compressed = Base64.getDecoder().decode(value.substring(codec.getTextPrefix().length()));
+        try (InputStream in = codec.decompress(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not decompress text column", ex);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,13 +15,21 @@ import java.util.Set;
 
 @Entity
 @Table(name = "documents")
+@NamedEntityGraph(name = Document.WITH_AUTHOR_AND_TAGS, attributeNodes = {
+        @NamedAttributeNode("author"),
+        @NamedAttributeNode("tags")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Document {
+    // Loads author and tags with the document in one query, for read paths that return the entity
+    public static final String WITH_AUTHOR_AND_TAGS = "Document.withAuthorAndTags";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_seq")
+    @SequenceGenerator(name = "document_seq", sequenceName = "documents_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -38,14 +48,18 @@ public class Document {
     @Column(name = "file_size")
     private Long fileSize;
 
-    @Column(name = "content_text", columnDefinition = "TEXT")
-    private String contentText;
+    // SHA-256 of the uploaded bytes, recorded by the streaming upload path
+    @Column(name = "checksum", length = 64)
+    private String checksum;
 
+    // Documents expose their author's name and email, never the credentials or roles
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
+    @JsonIgnoreProperties({"password", "roles", "hibernateLazyInitializer", "handler"})
     private User author;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     @JoinTable(name = "document_tags",
                joinColumns = @JoinColumn(name = "document_id"),
                inverseJoinColumns = @JoinColumn(name = "tag_id"))
@@ -61,8 +75,4 @@ public class Document {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
-
-    // Full-text search column
-    @Column(name = "search_vector", columnDefinition = "TEXT")
-    private String searchVector;
 }
@@ -0,0 +1,42 @@
+package com.example.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+/**
+ * Extracted text of a document, kept out of the documents table so loading,
+ * listing and caching documents never reads it. Long texts are split over
+ * several rows ordered by chunk index, the search column is only set on the first.
+ */
+@Entity
+@Table(name = "document_contents",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"document_id", "chunk_index"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentContent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_content_seq")
+    @SequenceGenerator(name = "document_content_seq", sequenceName = "document_contents_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "document_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Document document;
+
+    @Column(name = "chunk_index", nullable = false)
+    private int chunkIndex;
+
+    @Column(name = "content_text", columnDefinition = "TEXT")
+    @Convert(converter = CompressedTextConverter.class)
+    private String contentText;
+
+    // Search column for the whole text, on chunk 0 only (null on later chunks). Kept uncompressed
+    // because keyword search matches against it
+    @Column(name = "search_vector", columnDefinition = "TEXT")
+    private String searchVector;
+}
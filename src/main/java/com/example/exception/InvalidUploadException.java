@@ -0,0 +1,13 @@
+package com.example.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidUploadException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidUploadException(String message) {
+        super(message);
+    }
+}
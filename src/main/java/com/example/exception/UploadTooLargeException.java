@@ -0,0 +1,13 @@
+package com.example.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class UploadTooLargeException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public UploadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.entity.DocumentContent;
+
+@Repository
+public interface DocumentContentRepository extends JpaRepository<DocumentContent, Long> {
+    List<DocumentContent> findByDocumentIdOrderByChunkIndex(Long documentId);
+
+    List<DocumentContent> findByDocumentIdInOrderByDocumentIdAscChunkIndexAsc(Collection<Long> documentIds);
+
+    @Modifying
+    @Query("DELETE FROM DocumentContent c WHERE c.document.id = :documentId")
+    int deleteByDocumentId(@Param("documentId") Long documentId);
+}
@@ -1,11 +1,14 @@
 package com.example.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -30,10 +33,13 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
                                    @Param("endDate") LocalDateTime endDate, 
                                    Pageable pageable);
     
+    // contentKeyword is the keyword normalized like searchVector (DocumentContentExtractor.preprocessTextForSearch)
     @Query("SELECT d FROM Document d WHERE LOWER(d.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
            "OR LOWER(d.description) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "OR LOWER(d.contentText) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    Page<Document> searchDocuments(@Param("keyword") String keyword, Pageable pageable);
+           "OR EXISTS (SELECT c.id FROM DocumentContent c WHERE c.document = d " +
+           "AND c.searchVector LIKE CONCAT('%', :contentKeyword, '%'))")
+    Page<Document> searchDocuments(@Param("keyword") String keyword, @Param("contentKeyword") String contentKeyword,
+                                   Pageable pageable);
     
     // More complex search query with multiple parameters
     @Query("SELECT d FROM Document d WHERE " +
@@ -50,5 +56,123 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
             @Param("authorId") Long authorId,
             Pageable pageable);
     
-    List<Document> findByIndexed(boolean indexed);
+    @EntityGraph(Document.WITH_AUTHOR_AND_TAGS)
+    Optional<Document> findWithAuthorAndTagsById(Long id);
+
+    // Fetch joins with DISTINCT, a load graph over the tags collection would repeat documents per tag
+    @Query("SELECT DISTINCT d FROM Document d LEFT JOIN FETCH d.author LEFT JOIN FETCH d.tags " +
+           "WHERE d.indexed = :indexed")
+    List<Document> findByIndexed(@Param("indexed") boolean indexed);
+
+    // Projection queries for list views: metadata columns and the author name only
+    String SUMMARY_SELECT = "SELECT d.id AS id, d.title AS title, d.description AS description, " +
+           "d.fileType AS fileType, d.fileSize AS fileSize, d.createdAt AS createdAt, " +
+           "d.updatedAt AS updatedAt, a.username AS authorUsername FROM Document d LEFT JOIN d.author a ";
+
+    String KEYWORD_FILTER = "WHERE LOWER(d.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           "OR LOWER(d.description) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           "OR EXISTS (SELECT c.id FROM DocumentContent c WHERE c.document = d " +
+           "AND c.searchVector LIKE CONCAT('%', :contentKeyword, '%'))";
+
+    String PARAMETER_FILTER = "WHERE " +
+           "(:title IS NULL OR LOWER(d.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
+           "(:fileType IS NULL OR d.fileType = :fileType) AND " +
+           "(:startDate IS NULL OR d.createdAt >= :startDate) AND " +
+           "(:endDate IS NULL OR d.createdAt <= :endDate) AND " +
+           "(:authorId IS NULL OR d.author.id = :authorId)";
+
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(d) FROM Document d")
+    Page<DocumentSummary> findAllSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE d.author.id = :authorId",
+           countQuery = "SELECT COUNT(d) FROM Document d WHERE d.author.id = :authorId")
+    Page<DocumentSummary> findSummariesByAuthorId(@Param("authorId") Long authorId, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + KEYWORD_FILTER,
+           countQuery = "SELECT COUNT(d) FROM Document d " + KEYWORD_FILTER)
+    Page<DocumentSummary> searchSummaries(@Param("keyword") String keyword,
+                                          @Param("contentKeyword") String contentKeyword, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + PARAMETER_FILTER,
+           countQuery = "SELECT COUNT(d) FROM Document d " + PARAMETER_FILTER)
+    Page<DocumentSummary> findSummariesByMultipleParameters(
+            @Param("title") String title,
+            @Param("fileType") String fileType,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("authorId") Long authorId,
+            Pageable pageable);
+
+    // Native variants for app.search.mode=fulltext, matching words through H2's FT_SEARCH_DATA.
+    // Sort properties must be column names (created_at, file_type, ...) because the SQL is native.
+    String NATIVE_SUMMARY_SELECT = "SELECT d.id AS \"id\", d.title AS \"title\", d.description AS \"description\", " +
+           "d.file_type AS \"fileType\", d.file_size AS \"fileSize\", d.created_at AS \"createdAt\", " +
+           "d.updated_at AS \"updatedAt\", u.username AS \"authorUsername\" " +
+           "FROM documents d LEFT JOIN users u ON u.id = d.author_id ";
+
+    String FULLTEXT_KEYWORD_FILTER = "WHERE d.id IN (" +
+           "SELECT CAST(ft.KEYS[1] AS BIGINT) FROM FT_SEARCH_DATA(:keyword, 0, 0) ft WHERE ft.\"TABLE\" = 'DOCUMENTS' " +
+           "UNION SELECT c.document_id FROM FT_SEARCH_DATA(:keyword, 0, 0) ft " +
+           "JOIN document_contents c ON c.id = CAST(ft.KEYS[1] AS BIGINT) WHERE ft.\"TABLE\" = 'DOCUMENT_CONTENTS')";
+
+    // The index narrows the candidates to documents containing the words, LIKE keeps the title-only semantics
+    String FULLTEXT_PARAMETER_FILTER = "WHERE " +
+           "(:title IS NULL OR (d.id IN (SELECT CAST(ft.KEYS[1] AS BIGINT) FROM FT_SEARCH_DATA(:title, 0, 0) ft " +
+           "WHERE ft.\"TABLE\" = 'DOCUMENTS') AND LOWER(d.title) LIKE LOWER(CONCAT('%', :title, '%')))) AND " +
+           "(:fileType IS NULL OR d.file_type = :fileType) AND " +
+           "(:startDate IS NULL OR d.created_at >= :startDate) AND " +
+           "(:endDate IS NULL OR d.created_at <= :endDate) AND " +
+           "(:authorId IS NULL OR d.author_id = :authorId)";
+
+    @Query(value = NATIVE_SUMMARY_SELECT + FULLTEXT_KEYWORD_FILTER,
+           countQuery = "SELECT COUNT(*) FROM documents d " + FULLTEXT_KEYWORD_FILTER,
+           nativeQuery = true)
+    Page<DocumentSummary> searchSummariesFullText(@Param("keyword") String keyword, Pageable pageable);
+
+    @Query(value = NATIVE_SUMMARY_SELECT + FULLTEXT_PARAMETER_FILTER,
+           countQuery = "SELECT COUNT(*) FROM documents d " + FULLTEXT_PARAMETER_FILTER,
+           nativeQuery = true)
+    Page<DocumentSummary> findSummariesByMultipleParametersFullText(
+            @Param("title") String title,
+            @Param("fileType") String fileType,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("authorId") Long authorId,
+            Pageable pageable);
+
+    // Slice variants without the count query, used when PageTotalEstimator already knows the total
+    @Query(SUMMARY_SELECT)
+    Slice<DocumentSummary> sliceAllSummaries(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE d.author.id = :authorId")
+    Slice<DocumentSummary> sliceSummariesByAuthorId(@Param("authorId") Long authorId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + KEYWORD_FILTER)
+    Slice<DocumentSummary> sliceSearchSummaries(@Param("keyword") String keyword,
+                                                @Param("contentKeyword") String contentKeyword, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + PARAMETER_FILTER)
+    Slice<DocumentSummary> sliceSummariesByMultipleParameters(
+            @Param("title") String title,
+            @Param("fileType") String fileType,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("authorId") Long authorId,
+            Pageable pageable);
+
+    @Query(value = NATIVE_SUMMARY_SELECT + FULLTEXT_KEYWORD_FILTER, nativeQuery = true)
+    Slice<DocumentSummary> sliceSearchSummariesFullText(@Param("keyword") String keyword, Pageable pageable);
+
+    @Query(value = NATIVE_SUMMARY_SELECT + FULLTEXT_PARAMETER_FILTER, nativeQuery = true)
+    Slice<DocumentSummary> sliceSummariesByMultipleParametersFullText(
+            @Param("title") String title,
+            @Param("fileType") String fileType,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("authorId") Long authorId,
+            Pageable pageable);
+
+    @Query("SELECT d.id AS documentId, t.name AS tagName FROM Document d JOIN d.tags t " +
+           "WHERE d.id IN :documentIds ORDER BY t.name")
+    List<DocumentTagName> findTagNamesByDocumentIds(@Param("documentIds") Collection<Long> documentIds);
 }
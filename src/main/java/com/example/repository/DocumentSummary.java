@@ -0,0 +1,25 @@
+package com.example.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Metadata-only view of a document used by listing and search queries, so the
+ * extracted text and search vector columns are never read for list responses.
+ */
+public interface DocumentSummary {
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getFileType();
+
+    Long getFileSize();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    String getAuthorUsername();
+}
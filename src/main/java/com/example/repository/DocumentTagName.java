@@ -0,0 +1,10 @@
+package com.example.repository;
+
+/**
+ * A (document id, tag name) pair, used to load the tags of a whole page of summaries at once.
+ */
+public interface DocumentTagName {
+    Long getDocumentId();
+
+    String getTagName();
+}
@@ -0,0 +1,33 @@
+package com.example.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.entity.RevokedToken;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    List<RevokedToken> findByRevokedAtGreaterThanEqualAndExpiresAtAfter(LocalDateTime revokedSince, LocalDateTime now);
+
+    // Inserts unless the token is already revoked, without the SELECT that save() runs for an assigned id.
+    // A concurrent insert of the same jti still fails on the primary key, callers ignore that.
+    @Modifying
+    @Transactional
+    @Query(value = "MERGE INTO revoked_tokens t USING (VALUES (CAST(:jti AS VARCHAR(36)), " +
+           "CAST(:expiresAt AS TIMESTAMP), CAST(:revokedAt AS TIMESTAMP))) r(jti, expires_at, revoked_at) " +
+           "ON t.jti = r.jti WHEN NOT MATCHED THEN INSERT (jti, expires_at, revoked_at) " +
+           "VALUES (r.jti, r.expires_at, r.revoked_at)", nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String jti, @Param("expiresAt") LocalDateTime expiresAt,
+                       @Param("revokedAt") LocalDateTime revokedAt);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
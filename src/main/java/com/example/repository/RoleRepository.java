@@ -1,8 +1,13 @@
 package com.example.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import java.util.Optional;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.example.entity.Role;
@@ -11,5 +16,7 @@ import com.example.entity.Role.ERole;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    // Served from the query cache, the roles region holds the entities
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Role> findByName(ERole name);
 }
@@ -1,5 +1,7 @@
 package com.example.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,7 +11,10 @@ import com.example.entity.Tag;
 
 @Repository
 public interface TagRepository extends JpaRepository<Tag, Long> {
+    // Not query-cached, TagRegistryService inserts tags with SQL that does not invalidate the query cache
     Optional<Tag> findByName(String name);
+
+    List<Tag> findByNameIn(Collection<String> names);
     
     Boolean existsByName(String name);
 }
@@ -0,0 +1,389 @@
+package com.example.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.config.FileStorageProperties;
+import com.example.dto.BulkUploadItem;
+import com.example.dto.BulkUploadManifest;
+import com.example.dto.BulkUploadResult;
+import com.example.entity.Document;
+import com.example.entity.Tag;
+import com.example.entity.User;
+import com.example.exception.InvalidUploadException;
+import com.example.exception.ResourceNotFoundException;
+import com.example.exception.UploadTooLargeException;
+import com.example.repository.DocumentRepository;
+import com.example.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Ingests many documents per request. Files are stored first, then all tags are
+ * resolved in one registry call and the documents are inserted in batches, one
+ * transaction per batch. Extraction for the created documents is queued as one
+ * background task. Every manifest entry gets its own status in the result.
+ */
+@Service
+public class BulkUploadService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkUploadService.class);
+
+    public static final String MANIFEST_ENTRY = "manifest.json";
+
+    private static final int SKIP_BYTES = 64 * 1024;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private TagRegistryService tagRegistryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PageTotalEstimator pageTotalEstimator;
+
+    @Autowired
+    private FileStorageProperties fileStorageProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public BulkUploadResult uploadFiles(BulkUploadManifest manifest, List<MultipartFile> files, long maxBytes,
+            String username) {
+        User author = findAuthor(username);
+
+        Map<String, MultipartFile> filesByName = new LinkedHashMap<>();
+        for (MultipartFile file : files) {
+            if (filesByName.put(file.getOriginalFilename(), file) != null) {
+                throw new InvalidUploadException("More than one file named " + file.getOriginalFilename()
+                        + " in the upload");
+            }
+        }
+
+        Map<String, StoredUpload> stored = new LinkedHashMap<>();
+        Map<String, String> failures = new HashMap<>();
+        for (BulkUploadItem item : manifest.getItems()) {
+            MultipartFile file = filesByName.remove(item.getFileName());
+            if (file == null) {
+                continue;
+            }
+            if (file.getSize() > maxBytes) {
+                failures.put(item.getFileName(), "File exceeds the allowed size of " + maxBytes + " bytes");
+                continue;
+            }
+            try {
+                String fileName = fileStorageService.storeFile(file);
+                stored.put(item.getFileName(), new StoredUpload(fileName, file.getSize(), null, file.getContentType()));
+            } catch (RuntimeException ex) {
+                failures.put(item.getFileName(), ex.getMessage());
+            }
+        }
+        for (String fileName : filesByName.keySet()) {
+            failures.put(fileName, null);
+        }
+
+        return persist(manifest, stored, failures, author);
+    }
+
+    public BulkUploadResult uploadArchive(InputStream archive, long maxBytes, String username) {
+        User author = findAuthor(username);
+        int maxEntries = fileStorageProperties.getUpload().getBulkMaxEntries();
+        long maxArchiveBytes = fileStorageProperties.getUpload().getBulkMaxArchiveSize().toBytes();
+        long maxManifestBytes = fileStorageProperties.getUpload().getBulkMaxManifestSize().toBytes();
+
+        // The manifest may be anywhere in the archive, so entries are stored as they stream past
+        BulkUploadManifest manifest = null;
+        Map<String, StoredUpload> stored = new LinkedHashMap<>();
+        Map<String, String> failures = new HashMap<>();
+        int entries = 0;
+        long totalBytes = 0;
+        try (ZipInputStream zip = new ZipInputStream(archive)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                // The entry count and sizes in the archive are not trusted, only the bytes actually read
+                if (++entries > maxEntries) {
+                    throw new InvalidUploadException("ZIP archive has more than " + maxEntries + " entries");
+                }
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                long remaining = maxArchiveBytes - totalBytes;
+                if (MANIFEST_ENTRY.equals(entry.getName())) {
+                    // Parsed straight from the archive, never buffered beyond its own small limit
+                    BoundedInputStream manifestStream = new BoundedInputStream(zip, Math.min(maxManifestBytes, remaining));
+                    try {
+                        manifest = objectMapper.readValue(manifestStream, BulkUploadManifest.class);
+                        manifestStream.transferTo(OutputStream.nullOutputStream());
+                    } catch (IOException ex) {
+                        if (!manifestStream.isExceeded()) {
+                            throw ex;
+                        }
+                        throw maxManifestBytes <= remaining
+                                ? new UploadTooLargeException(MANIFEST_ENTRY + " exceeds " + maxManifestBytes + " bytes")
+                                : archiveTooLarge(maxArchiveBytes);
+                    }
+                    totalBytes += manifestStream.getCount();
+                    continue;
+                }
+                if (stored.containsKey(entry.getName()) || failures.containsKey(entry.getName())) {
+                    throw new InvalidUploadException("More than one entry named " + entry.getName()
+                            + " in the ZIP archive");
+                }
+                long limit = Math.min(maxBytes, remaining);
+                try {
+                    StoredUpload upload = fileStorageService.storeStream(zip, entry.getName(), limit);
+                    totalBytes += upload.getSize();
+                    stored.put(entry.getName(), upload);
+                } catch (UploadTooLargeException ex) {
+                    // The rest of a refused entry is inflated to reach the next one, so it counts too
+                    totalBytes += limit + skipEntry(zip, remaining - limit);
+                    if (totalBytes > maxArchiveBytes) {
+                        throw archiveTooLarge(maxArchiveBytes);
+                    }
+                    failures.put(entry.getName(), ex.getMessage());
+                } catch (RuntimeException ex) {
+                    failures.put(entry.getName(), ex.getMessage());
+                }
+            }
+        } catch (IOException ex) {
+            stored.values().forEach(upload -> discard(upload.getFileName()));
+            throw new InvalidUploadException("Could not read ZIP archive: " + ex.getMessage());
+        } catch (InvalidUploadException | UploadTooLargeException ex) {
+            stored.values().forEach(upload -> discard(upload.getFileName()));
+            throw ex;
+        }
+
+        if (manifest == null || manifest.getItems() == null) {
+            stored.values().forEach(upload -> discard(upload.getFileName()));
+            throw new InvalidUploadException("ZIP archive does not contain " + MANIFEST_ENTRY);
+        }
+
+        return persist(manifest, stored, failures, author);
+    }
+
+    private BulkUploadResult persist(BulkUploadManifest manifest, Map<String, StoredUpload> stored,
+            Map<String, String> failures, User author) {
+        List<BulkUploadResult.ItemResult> results = new ArrayList<>();
+        List<BulkUploadItem> readyItems = new ArrayList<>();
+        List<BulkUploadResult.ItemResult> readyResults = new ArrayList<>();
+        Set<String> listed = new HashSet<>();
+        Set<String> ready = new HashSet<>();
+
+        for (BulkUploadItem item : manifest.getItems()) {
+            BulkUploadResult.ItemResult result = new BulkUploadResult.ItemResult(item.getFileName(), null, null, null);
+            results.add(result);
+
+            StoredUpload upload = stored.get(item.getFileName());
+            if (!listed.add(item.getFileName())) {
+                fail(result, "File is listed more than once in the manifest");
+            } else if (upload == null) {
+                String failure = failures.remove(item.getFileName());
+                fail(result, failure != null ? failure : "No file named " + item.getFileName() + " in the upload");
+            } else if (!StringUtils.hasText(item.getTitle())) {
+                fail(result, "Title is required");
+            } else {
+                ready.add(item.getFileName());
+                readyItems.add(item);
+                readyResults.add(result);
+            }
+        }
+
+        // Files that will not become documents are not kept
+        stored.forEach((fileName, upload) -> {
+            if (!ready.contains(fileName)) {
+                discard(upload.getFileName());
+            }
+            if (!listed.contains(fileName)) {
+                results.add(new BulkUploadResult.ItemResult(fileName, BulkUploadResult.Status.SKIPPED, null,
+                        "Not listed in the manifest"));
+            }
+        });
+        failures.keySet().forEach(fileName -> results.add(new BulkUploadResult.ItemResult(fileName,
+                BulkUploadResult.Status.SKIPPED, null, "Not listed in the manifest")));
+
+        Map<String, Tag> tags = resolveTags(readyItems);
+
+        List<Long> createdIds = new ArrayList<>();
+        int batchSize = Math.max(1, fileStorageProperties.getUpload().getBulkBatchSize());
+        for (int start = 0; start < readyItems.size(); start += batchSize) {
+            int end = Math.min(start + batchSize, readyItems.size());
+            List<Document> documents = new ArrayList<>(end - start);
+            for (BulkUploadItem item : readyItems.subList(start, end)) {
+                documents.add(buildDocument(item, stored.get(item.getFileName()), tags, author));
+            }
+
+            List<BulkUploadResult.ItemResult> batchResults = readyResults.subList(start, end);
+            try {
+                List<Document> saved = transactionTemplate.execute(status -> documentRepository.saveAll(documents));
+                for (int i = 0; i < saved.size(); i++) {
+                    batchResults.get(i).setStatus(BulkUploadResult.Status.CREATED);
+                    batchResults.get(i).setDocumentId(saved.get(i).getId());
+                    createdIds.add(saved.get(i).getId());
+                }
+            } catch (RuntimeException ex) {
+                logger.error("Failed to save bulk upload batch of {} documents", documents.size(), ex);
+                for (int i = 0; i < documents.size(); i++) {
+                    discard(documents.get(i).getFilePath());
+                    fail(batchResults.get(i), "Could not save document: " + ex.getMessage());
+                }
+            }
+        }
+
+        if (!createdIds.isEmpty()) {
+            pageTotalEstimator.invalidate();
+            documentService.processDocumentContentBatch(createdIds);
+        }
+
+        int failed = (int) results.stream().filter(result -> result.getStatus() == BulkUploadResult.Status.FAILED).count();
+        logger.info("Bulk upload by {}: {} created, {} failed", author.getUsername(), createdIds.size(), failed);
+        return new BulkUploadResult(manifest.getItems().size(), createdIds.size(), failed, results);
+    }
+
+    private Map<String, Tag> resolveTags(List<BulkUploadItem> items) {
+        Set<String> names = new HashSet<>();
+        for (BulkUploadItem item : items) {
+            if (item.getTags() != null) {
+                names.addAll(item.getTags());
+            }
+        }
+        return tagRegistryService.resolve(names);
+    }
+
+    private Document buildDocument(BulkUploadItem item, StoredUpload upload, Map<String, Tag> tags, User author) {
+        Set<Tag> documentTags = item.getTags() == null ? new HashSet<>()
+                : item.getTags().stream().map(tags::get).filter(Objects::nonNull).collect(Collectors.toSet());
+
+        return Document.builder()
+                .title(item.getTitle())
+                .description(item.getDescription())
+                .filePath(upload.getFileName())
+                .fileType(upload.getContentType())
+                .fileSize(upload.getSize())
+                .checksum(upload.getChecksum())
+                .author(author)
+                .tags(documentTags)
+                .build();
+    }
+
+    // Skips to the end of the current entry, stopping once more than budget bytes were skipped
+    private static long skipEntry(ZipInputStream zip, long budget) throws IOException {
+        long skipped = 0;
+        long count;
+        while (skipped <= budget && (count = zip.skip(Math.min(budget - skipped + 1, SKIP_BYTES))) > 0) {
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    // Counts the bytes read from the current entry and fails once it is longer than the limit.
+    // Closing it (Jackson closes its source) leaves the archive open for the following entries
+    private static final class BoundedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+        private boolean exceeded;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                advance(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            // One byte past the limit is enough to tell that the entry is too long
+            int read = super.read(bytes, offset, (int) Math.min(length, limit - count + 1));
+            if (read > 0) {
+                advance(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Through read() so skipped bytes are counted too
+            return Math.max(0, read(new byte[(int) Math.max(0, Math.min(n, SKIP_BYTES))]));
+        }
+
+        @Override
+        public void close() {
+            // The archive stays open
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        boolean isExceeded() {
+            return exceeded;
+        }
+
+        private void advance(int bytes) throws IOException {
+            count += bytes;
+            if (count > limit) {
+                exceeded = true;
+                throw new IOException("Entry is longer than " + limit + " bytes");
+            }
+        }
+    }
+
+    private static UploadTooLargeException archiveTooLarge(long maxArchiveBytes) {
+        return new UploadTooLargeException("ZIP archive expands to more than " + maxArchiveBytes + " bytes");
+    }
+
+    private User findAuthor(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+    }
+
+    private void fail(BulkUploadResult.ItemResult result, String message) {
+        result.setStatus(BulkUploadResult.Status.FAILED);
+        result.setMessage(message);
+    }
+
+    private void discard(String fileName) {
+        try {
+            fileStorageService.deleteFile(fileName);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not remove stored file {}: {}", fileName, ex.getMessage());
+        }
+    }
+}
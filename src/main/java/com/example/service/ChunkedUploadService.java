@@ -0,0 +1,167 @@
+package com.example.service;
+
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.config.FileStorageProperties;
+import com.example.dto.ChunkedUploadRequest;
+import com.example.dto.DocumentUploadRequest;
+import com.example.entity.Document;
+import com.example.exception.InvalidUploadException;
+import com.example.exception.ResourceNotFoundException;
+import com.example.exception.UploadTooLargeException;
+
+/**
+ * Resumable uploads: a session is opened with the total size, chunks are PUT
+ * independently (in parallel and retried as needed), and completing the session
+ * concatenates them into a stored file that goes through the regular document
+ * registration. Sessions live in memory; chunk directories left behind by a
+ * restart are removed by the periodic cleanup.
+ */
+@Service
+public class ChunkedUploadService {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private FileStorageProperties fileStorageProperties;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public UploadSession createSession(ChunkedUploadRequest request, long maxBytes, String username) {
+        if (request.getFileSize() > maxBytes) {
+            throw new UploadTooLargeException("Upload exceeds the allowed size of " + maxBytes + " bytes");
+        }
+
+        FileStorageProperties.Upload settings = fileStorageProperties.getUpload();
+        long maxChunkSize = settings.getMaxChunkSize().toBytes();
+        long chunkSize = request.getChunkSize() != null ? Math.min(request.getChunkSize(), maxChunkSize) : maxChunkSize;
+        long minChunkSize = settings.getMinChunkSize().toBytes();
+        if (chunkSize < minChunkSize && chunkSize < request.getFileSize()) {
+            throw new InvalidUploadException("Chunk size must be at least " + minChunkSize + " bytes");
+        }
+        long chunkCount = (request.getFileSize() + chunkSize - 1) / chunkSize;
+        if (chunkCount > settings.getMaxChunkCount()) {
+            throw new InvalidUploadException("Upload would need " + chunkCount + " chunks, at most "
+                    + settings.getMaxChunkCount() + " are allowed");
+        }
+
+        DocumentUploadRequest metadata = new DocumentUploadRequest();
+        metadata.setTitle(request.getTitle());
+        metadata.setDescription(request.getDescription());
+        if (request.getTags() != null) {
+            metadata.setTags(request.getTags());
+        }
+
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), username, metadata,
+                request.getFileName(), request.getFileSize(), chunkSize);
+        sessions.put(session.getId(), session);
+        logger.info("Opened upload session {} for {} ({} chunks)", session.getId(), username, session.getChunkCount());
+        return session;
+    }
+
+    public UploadSession getSession(String sessionId, String username) {
+        UploadSession session = sessions.get(sessionId);
+        // Other users' sessions are reported as missing rather than forbidden
+        if (session == null || !session.getUsername().equals(username)) {
+            throw new ResourceNotFoundException("Upload session not found: " + sessionId);
+        }
+        return session;
+    }
+
+    public StoredUpload storeChunk(String sessionId, int index, InputStream content, String checksum, String username) {
+        UploadSession session = getSession(sessionId, username);
+        if (index < 0 || index >= session.getChunkCount()) {
+            throw new InvalidUploadException("Chunk index " + index + " is outside 0.." + (session.getChunkCount() - 1));
+        }
+
+        // Completion waits for writes holding the read lock, and writes arriving after it started are refused
+        Lock chunkWrite = session.getChunkLock().readLock();
+        chunkWrite.lock();
+        try {
+            if (session.getCompleting().get()) {
+                throw new InvalidUploadException("Upload session " + sessionId + " is already being completed");
+            }
+
+            session.touch();
+            StoredUpload chunk = fileStorageService.storeChunk(sessionId, index, content,
+                    session.expectedChunkSize(index), checksum);
+            session.getReceivedChunks().add(index);
+            session.touch();
+            return chunk;
+        } finally {
+            chunkWrite.unlock();
+        }
+    }
+
+    public Document completeSession(String sessionId, String username) {
+        UploadSession session = getSession(sessionId, username);
+        if (!session.getCompleting().compareAndSet(false, true)) {
+            throw new InvalidUploadException("Upload session " + sessionId + " is already being completed");
+        }
+
+        StoredUpload upload;
+        Lock assembly = session.getChunkLock().writeLock();
+        assembly.lock();
+        try {
+            // Checked once chunk writes in flight have finished
+            if (!session.isComplete()) {
+                session.getCompleting().set(false);
+                throw new InvalidUploadException("Upload session " + sessionId + " has received "
+                        + session.getReceivedChunks().size() + " of " + session.getChunkCount() + " chunks");
+            }
+            try {
+                upload = fileStorageService.assembleChunks(sessionId, session.getChunkCount(), session.getFileName());
+            } catch (RuntimeException ex) {
+                session.getCompleting().set(false);
+                throw ex;
+            }
+            sessions.remove(sessionId);
+        } finally {
+            assembly.unlock();
+        }
+
+        return documentService.completeUpload(session.getMetadata(), upload, username);
+    }
+
+    public void abortSession(String sessionId, String username) {
+        UploadSession session = getSession(sessionId, username);
+        sessions.remove(session.getId());
+        fileStorageService.deleteChunks(session.getId());
+    }
+
+    @Scheduled(fixedDelayString = "${app.file.upload.session-cleanup-interval-ms:3600000}")
+    public void purgeExpiredSessions() {
+        Instant cutoff = Instant.now().minus(fileStorageProperties.getUpload().getSessionTtl());
+        sessions.values().removeIf(session -> {
+            if (session.getLastActivity().isBefore(cutoff) && !session.getCompleting().get()) {
+                logger.info("Discarding expired upload session {}", session.getId());
+                fileStorageService.deleteChunks(session.getId());
+                return true;
+            }
+            return false;
+        });
+
+        // Chunks of sessions lost in a restart can never be completed
+        for (String sessionId : fileStorageService.listChunkSessions()) {
+            if (!sessions.containsKey(sessionId)) {
+                fileStorageService.deleteChunks(sessionId);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * At-rest compression formats. Stored files carry the codec as a file name suffix
+ * and persisted text as a prefix, so data written before compression was enabled
+ * (or with another codec) stays readable.
+ */
+public enum CompressionCodec {
+    NONE("", ""),
+    DEFLATE(".deflate", "{deflate}"),
+    GZIP(".gz", "{gzip}");
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String fileSuffix;
+    private final String textPrefix;
+
+    CompressionCodec(String fileSuffix, String textPrefix) {
+        this.fileSuffix = fileSuffix;
+        this.textPrefix = textPrefix;
+    }
+
+    public String getFileSuffix() {
+        return fileSuffix;
+    }
+
+    public String getTextPrefix() {
+        return textPrefix;
+    }
+
+    public OutputStream compress(OutputStream out, int level) throws IOException {
+        switch (this) {
+            case DEFLATE:
+                return new DeflaterOutputStream(out, new Deflater(level), BUFFER_SIZE) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            // A caller-supplied Deflater is not released by DeflaterOutputStream itself
+                            def.end();
+                        }
+                    }
+                };
+            case GZIP:
+                return new GZIPOutputStream(out, BUFFER_SIZE) {
+                    {
+                        def.setLevel(level);
+                    }
+                };
+            default:
+                return out;
+        }
+    }
+
+    public InputStream decompress(InputStream in) throws IOException {
+        switch (this) {
+            case DEFLATE:
+                return new InflaterInputStream(in);
+            case GZIP:
+                return new GZIPInputStream(in, BUFFER_SIZE);
+            default:
+                return in;
+        }
+    }
+
+    public static CompressionCodec fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return NONE;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unsupported compression codec: " + name, ex);
+        }
+    }
+
+    public static CompressionCodec forStoredName(String fileName) {
+        for (CompressionCodec codec : values()) {
+            if (codec != NONE && fileName != null && fileName.endsWith(codec.fileSuffix)) {
+                return codec;
+            }
+        }
+        return NONE;
+    }
+
+    public static CompressionCodec forText(String text) {
+        for (CompressionCodec codec : values()) {
+            if (codec != NONE && text != null && text.startsWith(codec.textPrefix)) {
+                return codec;
+            }
+        }
+        return NONE;
+    }
+}
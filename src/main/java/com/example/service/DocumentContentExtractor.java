@@ -4,6 +4,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.metadata.Metadata;
@@ -82,4 +85,37 @@ public class DocumentContentExtractor {
         
         return content.substring(0, endPos).trim() + "...";
     }
+
+    // Splits text into pieces of at most chunkSize characters, breaking at whitespace where possible
+    // so keyword matches are not cut in half. A chunkSize of 0 or less returns the text as one piece.
+    public List<String> splitText(String text, int chunkSize) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (chunkSize <= 0 || text.length() <= chunkSize) {
+            return Collections.singletonList(text);
+        }
+
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(start + chunkSize, text.length());
+            if (end < text.length()) {
+                // Look back over the last tenth of the chunk for a word boundary
+                int boundary = end;
+                int limit = end - Math.max(1, chunkSize / 10);
+                while (boundary > limit && boundary > start && !Character.isWhitespace(text.charAt(boundary - 1))) {
+                    boundary--;
+                }
+                if (boundary > start && boundary > limit) {
+                    end = boundary;
+                } else if (Character.isHighSurrogate(text.charAt(end - 1)) && end - 1 > start) {
+                    end--;
+                }
+            }
+            chunks.add(text.substring(start, end));
+            start = end;
+        }
+        return chunks;
+    }
 }
@@ -0,0 +1,71 @@
+package com.example.service;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.dto.DocumentDetails;
+import com.example.entity.Document;
+import com.example.entity.Tag;
+import com.example.repository.DocumentRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+
+/**
+ * Loads the DocumentDetails snapshots held in documentCache, for a miss in
+ * DocumentService.getDocumentById as well as for Caffeine's background refresh of
+ * entries that are still being read (refresh-ahead). Returns null for a missing
+ * document, which drops the entry on refresh.
+ * <p>
+ * Loads run in a read-write transaction so they are routed to the primary: a lagging
+ * replica could otherwise put a stale row back into the cache right after an update
+ * evicted it, where it would stay until it expires.
+ */
+@Component
+public class DocumentDetailsLoader implements CacheLoader<Object, Object> {
+    private final DocumentRepository documentRepository;
+    private final TransactionTemplate transaction;
+
+    public DocumentDetailsLoader(DocumentRepository documentRepository, PlatformTransactionManager transactionManager) {
+        this.documentRepository = documentRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public Object load(Object key) {
+        return loadDetails((Long) key);
+    }
+
+    public DocumentDetails loadDetails(Long id) {
+        // Author and tags are read inside the transaction, only the immutable snapshot leaves it
+        return transaction.execute(status -> documentRepository.findWithAuthorAndTagsById(id)
+                .map(this::toDetails)
+                .orElse(null));
+    }
+
+    DocumentDetails toDetails(Document document) {
+        Set<String> tagNames = new LinkedHashSet<>();
+        if (document.getTags() != null) {
+            for (Tag tag : document.getTags()) {
+                tagNames.add(tag.getName());
+            }
+        }
+        return DocumentDetails.builder()
+                .id(document.getId())
+                .title(document.getTitle())
+                .description(document.getDescription())
+                .filePath(document.getFilePath())
+                .fileType(document.getFileType())
+                .fileSize(document.getFileSize())
+                .checksum(document.getChecksum())
+                .authorUsername(document.getAuthor() != null ? document.getAuthor().getUsername() : null)
+                .tags(Collections.unmodifiableSet(tagNames))
+                .indexed(document.isIndexed())
+                .createdAt(document.getCreatedAt())
+                .updatedAt(document.getUpdatedAt())
+                .build();
+    }
+}
@@ -1,33 +1,54 @@
 package com.example.service;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.config.CacheConfig;
+import com.example.config.FileStorageProperties;
+import com.example.config.SearchProperties;
+import com.example.dto.DocumentDetails;
 import com.example.dto.DocumentDto;
 import com.example.dto.DocumentUploadRequest;
 import com.example.dto.SearchRequest;
 import com.example.entity.Document;
+import com.example.entity.DocumentContent;
 import com.example.entity.Tag;
 import com.example.entity.User;
+import com.example.exception.InvalidSortException;
 import com.example.exception.ResourceNotFoundException;
+import com.example.repository.DocumentContentRepository;
 import com.example.repository.DocumentRepository;
-import com.example.repository.TagRepository;
+import com.example.repository.DocumentSummary;
+import com.example.repository.DocumentTagName;
 import com.example.repository.UserRepository;
 
 
@@ -35,6 +56,17 @@ import com.example.repository.UserRepository;
 public class DocumentService {
     private static final Logger logger = LoggerFactory.getLogger(DocumentService.class);
 
+    // First element of the keyword search filter key in PageTotalEstimator
+    private static final String KEYWORD_FILTER = "keyword";
+
+    private static final Map<String, String> NATIVE_SORT_COLUMNS = Map.of(
+            "id", "id",
+            "title", "title",
+            "fileType", "file_type",
+            "fileSize", "file_size",
+            "createdAt", "created_at",
+            "updatedAt", "updated_at");
+
     @Autowired
     private DocumentRepository documentRepository;
 
@@ -42,7 +74,7 @@ public class DocumentService {
     private UserRepository userRepository;
 
     @Autowired
-    private TagRepository tagRepository;
+    private TagRegistryService tagRegistryService;
 
     @Autowired
     private FileStorageService fileStorageService;
@@ -50,6 +82,27 @@ public class DocumentService {
     @Autowired
     private DocumentContentExtractor contentExtractor;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DocumentContentRepository documentContentRepository;
+
+    @Autowired
+    private FileStorageProperties fileStorageProperties;
+
+    @Autowired
+    private SearchProperties searchProperties;
+
+    @Autowired
+    private PageTotalEstimator pageTotalEstimator;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private DocumentDetailsLoader documentDetailsLoader;
+
     @Transactional
     public Document uploadDocument(DocumentUploadRequest request, MultipartFile file, String username) {
         User author = userRepository.findByUsername(username)
@@ -57,21 +110,57 @@ public class DocumentService {
 
         // Store file and get path
         String fileName = fileStorageService.storeFile(file);
-        String filePath = fileName;
-        String fileType = file.getContentType();
-        long fileSize = file.getSize();
 
+        Document savedDocument = createDocument(request, fileName, file.getContentType(), file.getSize(), null, author);
+        
+        // Asynchronously extract and index content
+        processDocumentContent(savedDocument.getId());
+        
+        return savedDocument;
+    }
+
+    public Document uploadDocumentStream(DocumentUploadRequest request, InputStream content, String originalFileName,
+            long maxBytes, String username) {
+        User author = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+
+        // Streaming a large body can take minutes, so no transaction is held while the bytes arrive
+        StoredUpload upload = fileStorageService.storeStream(content, originalFileName, maxBytes);
+
+        return completeUpload(request, upload, author.getUsername());
+    }
+
+    /**
+     * Registers a file that is already in storage, removing it again if the document
+     * cannot be saved so no unreferenced files are left behind.
+     */
+    public Document completeUpload(DocumentUploadRequest request, StoredUpload upload, String username) {
+        Document savedDocument;
+        try {
+            savedDocument = transactionTemplate.execute(status -> {
+                User author = userRepository.findByUsername(username)
+                        .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+                return createDocument(request, upload.getFileName(), upload.getContentType(), upload.getSize(),
+                        upload.getChecksum(), author);
+            });
+        } catch (RuntimeException ex) {
+            fileStorageService.deleteFile(upload.getFileName());
+            throw ex;
+        }
+
+        processDocumentContent(savedDocument.getId());
+
+        return savedDocument;
+    }
+
+    public long resolveUploadQuota(Collection<? extends GrantedAuthority> authorities) {
+        return fileStorageService.resolveUploadQuota(authorities);
+    }
+
+    private Document createDocument(DocumentUploadRequest request, String filePath, String fileType, long fileSize,
+            String checksum, User author) {
         // Process document tags
-        Set<Tag> documentTags = request.getTags().stream()
-                .map(tagName -> {
-                    Optional<Tag> existingTag = tagRepository.findByName(tagName);
-                    return existingTag.orElseGet(() -> {
-                        Tag newTag = new Tag();
-                        newTag.setName(tagName);
-                        return tagRepository.save(newTag);
-                    });
-                })
-                .collect(Collectors.toSet());
+        Set<Tag> documentTags = tagRegistryService.resolveTags(request.getTags());
 
         // Create document entity
         Document document = Document.builder()
@@ -80,16 +169,14 @@ public class DocumentService {
                 .filePath(filePath)
                 .fileType(fileType)
                 .fileSize(fileSize)
+                .checksum(checksum)
                 .author(author)
                 .tags(documentTags)
                 .build();
 
-        Document savedDocument = documentRepository.save(document);
-        
-        // Asynchronously extract and index content
-        processDocumentContent(savedDocument.getId());
-        
-        return savedDocument;
+        Document saved = documentRepository.save(document);
+        pageTotalEstimator.invalidate();
+        return saved;
     }
 
     @Async
@@ -98,63 +185,181 @@ public class DocumentService {
             Document document = documentRepository.findById(documentId)
                     .orElseThrow(() -> new ResourceNotFoundException("Document not found with id: " + documentId));
             
-            // Extract text from document
-            String extractedText = contentExtractor.extractText(
-                    fileStorageService.getFilePath(document.getFilePath()));
-            
-            // Save extracted text
-            document.setContentText(extractedText);
+            // Extract text from document, packed blobs have no file of their own
+            String extractedText;
+            try (InputStream stream = fileStorageService.loadFileAsResource(document.getFilePath())) {
+                extractedText = contentExtractor.extractText(stream);
+            }
             
-            // Prepare text for search indexing
-            String searchVector = contentExtractor.preprocessTextForSearch(
-                    document.getTitle() + " " + document.getDescription() + " " + extractedText);
-            document.setSearchVector(searchVector);
+            // Split the text over content rows, the search column of the first row holds the whole
+            // text so a phrase across a chunk boundary still matches
+            List<DocumentContent> contents = new ArrayList<>();
+            List<String> chunks = contentExtractor.splitText(extractedText,
+                    fileStorageProperties.getContent().getChunkSize());
+            for (int i = 0; i < chunks.size(); i++) {
+                contents.add(DocumentContent.builder()
+                        .document(document)
+                        .chunkIndex(i)
+                        .contentText(chunks.get(i))
+                        .searchVector(i == 0 ? contentExtractor.preprocessTextForSearch(extractedText) : null)
+                        .build());
+            }
             
-            // Mark as indexed
+            // Replace earlier extractions and mark as indexed in one transaction
             document.setIndexed(true);
-            
-            documentRepository.save(document);
-            logger.info("Document processed successfully: {}", documentId);
+            transactionTemplate.execute(status -> {
+                documentContentRepository.deleteByDocumentId(documentId);
+                documentContentRepository.saveAll(contents);
+                evictCachedDocument(documentId);
+                // Keyword search also matches the extracted text
+                pageTotalEstimator.invalidate(KEYWORD_FILTER);
+                return documentRepository.save(document);
+            });
+            logger.info("Document processed successfully: {} ({} content rows)", documentId, contents.size());
         } catch (IOException e) {
             logger.error("Failed to process document content: {}", documentId, e);
         }
     }
 
-    @Cacheable(value = "documentCache", key = "#id")
-    public Document getDocumentById(Long id) {
-        return documentRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Document not found with id: " + id));
+    @Async
+    public void processDocumentContentBatch(List<Long> documentIds) {
+        // One background task per bulk upload instead of one per document
+        for (Long documentId : documentIds) {
+            try {
+                processDocumentContent(documentId);
+            } catch (RuntimeException e) {
+                logger.error("Failed to process document content: {}", documentId, e);
+            }
+        }
+    }
+
+    // sync: concurrent misses for the same id wait for a single load instead of each querying
+    @Cacheable(value = CacheConfig.DOCUMENT_CACHE, key = "#id", sync = true)
+    public DocumentDetails getDocumentById(Long id) {
+        DocumentDetails details = documentDetailsLoader.loadDetails(id);
+        if (details == null) {
+            throw new ResourceNotFoundException("Document not found with id: " + id);
+        }
+        return details;
+    }
+
+    // Read-only transactions are served by the replica when app.datasource.replica.enabled=true
+    @Transactional(readOnly = true)
+    public Page<DocumentDto> getAllDocuments(Pageable pageable) {
+        return getAllDocuments(pageable, true);
     }
 
-    public Page<Document> getAllDocuments(Pageable pageable) {
-        return documentRepository.findAll(pageable);
+    // exact=false reuses the total of an earlier request for the same filter and skips COUNT(*)
+    @Transactional(readOnly = true)
+    public Page<DocumentDto> getAllDocuments(Pageable pageable, boolean exact) {
+        return toSummaryPage(pageTotalEstimator.page(exact, Arrays.asList("all"), pageable,
+                () -> documentRepository.findAllSummaries(pageable),
+                () -> documentRepository.sliceAllSummaries(pageable)));
     }
 
-    public Page<Document> getDocumentsByAuthor(String username, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<DocumentDto> getDocumentsByAuthor(String username, Pageable pageable) {
+        return getDocumentsByAuthor(username, pageable, true);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<DocumentDto> getDocumentsByAuthor(String username, Pageable pageable, boolean exact) {
         User author = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
-        return documentRepository.findByAuthor(author, pageable);
+        return toSummaryPage(pageTotalEstimator.page(exact, Arrays.asList("author", author.getId()), pageable,
+                () -> documentRepository.findSummariesByAuthorId(author.getId(), pageable),
+                () -> documentRepository.sliceSummariesByAuthorId(author.getId(), pageable)));
     }
 
-    public Page<Document> searchDocuments(SearchRequest searchRequest, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<DocumentDto> searchDocuments(SearchRequest searchRequest, Pageable pageable) {
+        return searchDocuments(searchRequest, pageable, true);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<DocumentDto> searchDocuments(SearchRequest searchRequest, Pageable pageable, boolean exact) {
         String title = searchRequest.getTitle();
         String fileType = searchRequest.getFileType();
         LocalDateTime startDate = searchRequest.getStartDate();
         LocalDateTime endDate = searchRequest.getEndDate();
         Long authorId = searchRequest.getAuthorId();
+        SearchProperties.Mode mode = searchProperties.getMode();
+        List<Object> filter = Arrays.asList("criteria", mode, title, fileType, startDate, endDate, authorId);
+
+        if (mode == SearchProperties.Mode.FULLTEXT) {
+            Pageable nativePageable = toNativeSort(pageable);
+            return toSummaryPage(pageTotalEstimator.page(exact, filter, nativePageable,
+                    () -> documentRepository.findSummariesByMultipleParametersFullText(
+                            title, fileType, startDate, endDate, authorId, nativePageable),
+                    () -> documentRepository.sliceSummariesByMultipleParametersFullText(
+                            title, fileType, startDate, endDate, authorId, nativePageable)));
+        }
+        return toSummaryPage(pageTotalEstimator.page(exact, filter, pageable,
+                () -> documentRepository.findSummariesByMultipleParameters(
+                        title, fileType, startDate, endDate, authorId, pageable),
+                () -> documentRepository.sliceSummariesByMultipleParameters(
+                        title, fileType, startDate, endDate, authorId, pageable)));
+    }
 
-        return documentRepository.findByMultipleParameters(
-                title, fileType, startDate, endDate, authorId, pageable);
+    @Transactional(readOnly = true)
+    public Page<DocumentDto> searchByKeyword(String keyword, Pageable pageable) {
+        return searchByKeyword(keyword, pageable, true);
     }
 
-    public Page<Document> searchByKeyword(String keyword, Pageable pageable) {
-        return documentRepository.searchDocuments(keyword, pageable);
+    @Transactional(readOnly = true)
+    public Page<DocumentDto> searchByKeyword(String keyword, Pageable pageable, boolean exact) {
+        SearchProperties.Mode mode = searchProperties.getMode();
+        List<Object> filter = Arrays.asList(KEYWORD_FILTER, mode, keyword);
+
+        if (mode == SearchProperties.Mode.FULLTEXT) {
+            Pageable nativePageable = toNativeSort(pageable);
+            return toSummaryPage(pageTotalEstimator.page(exact, filter, nativePageable,
+                    () -> documentRepository.searchSummariesFullText(keyword, nativePageable),
+                    () -> documentRepository.sliceSearchSummariesFullText(keyword, nativePageable)));
+        }
+        String contentKeyword = toContentKeyword(keyword);
+        return toSummaryPage(pageTotalEstimator.page(exact, filter, pageable,
+                () -> documentRepository.searchSummaries(keyword, contentKeyword, pageable),
+                () -> documentRepository.sliceSearchSummaries(keyword, contentKeyword, pageable)));
     }
 
-    @CacheEvict(value = "documentCache", key = "#id")
+    // Content rows are matched on their search vector, so the keyword is normalized the same way
+    private String toContentKeyword(String keyword) {
+        String normalized = contentExtractor.preprocessTextForSearch(keyword);
+        // Only punctuation would match every vector, the raw keyword matches none of them
+        return normalized.isEmpty() ? keyword : normalized;
+    }
+
+    @Transactional(readOnly = true)
+    public String getDocumentContent(Long id) {
+        if (!documentRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Document not found with id: " + id);
+        }
+        StringBuilder text = new StringBuilder();
+        for (DocumentContent content : documentContentRepository.findByDocumentIdOrderByChunkIndex(id)) {
+            text.append(content.getContentText());
+        }
+        return text.toString();
+    }
+
+    // Extracted text of several documents keyed by document id, documents without text are left out
+    @Transactional(readOnly = true)
+    public Map<Long, String> getDocumentContents(Collection<Long> documentIds) {
+        Map<Long, String> texts = new LinkedHashMap<>();
+        if (documentIds.isEmpty()) {
+            return texts;
+        }
+        for (DocumentContent content : documentContentRepository
+                .findByDocumentIdInOrderByDocumentIdAscChunkIndexAsc(documentIds)) {
+            texts.merge(content.getDocument().getId(), content.getContentText(), String::concat);
+        }
+        return texts;
+    }
+
+    @CacheEvict(value = CacheConfig.DOCUMENT_CACHE, key = "#id")
     @Transactional
     public Document updateDocument(Long id, DocumentDto documentDto) {
-        Document document = documentRepository.findById(id)
+        Document document = documentRepository.findWithAuthorAndTagsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Document not found with id: " + id));
 
         document.setTitle(documentDto.getTitle());
@@ -162,23 +367,15 @@ public class DocumentService {
 
         // Update tags if provided
         if (documentDto.getTags() != null && !documentDto.getTags().isEmpty()) {
-            Set<Tag> updatedTags = documentDto.getTags().stream()
-                    .map(tagName -> {
-                        Optional<Tag> existingTag = tagRepository.findByName(tagName);
-                        return existingTag.orElseGet(() -> {
-                            Tag newTag = new Tag();
-                            newTag.setName(tagName);
-                            return tagRepository.save(newTag);
-                        });
-                    })
-                    .collect(Collectors.toSet());
+            Set<Tag> updatedTags = tagRegistryService.resolveTags(documentDto.getTags());
             document.setTags(updatedTags);
         }
 
+        pageTotalEstimator.invalidate();
         return documentRepository.save(document);
     }
 
-    @CacheEvict(value = "documentCache", key = "#id")
+    @CacheEvict(value = CacheConfig.DOCUMENT_CACHE, key = "#id")
     @Transactional
     public void deleteDocument(Long id) {
         Document document = documentRepository.findById(id)
@@ -187,11 +384,72 @@ public class DocumentService {
         // Delete the file from storage
         fileStorageService.deleteFile(document.getFilePath());
         
-        // Delete the document from database
+        // Delete the extracted text and the document from database
+        documentContentRepository.deleteByDocumentId(id);
         documentRepository.delete(document);
+        pageTotalEstimator.invalidate();
     }
 
     public List<Document> getUnprocessedDocuments() {
         return documentRepository.findByIndexed(false);
     }
+
+    // Deferred until commit when called inside a transaction (TransactionAwareCacheManagerProxy)
+    private void evictCachedDocument(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.DOCUMENT_CACHE);
+        if (cache != null) {
+            cache.evict(id);
+        }
+    }
+
+    private Page<DocumentDto> toSummaryPage(Page<DocumentSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return summaries.map(this::toDto);
+        }
+
+        // One query for the tags of the whole page instead of one per document
+        List<Long> ids = summaries.getContent().stream().map(DocumentSummary::getId).collect(Collectors.toList());
+        Map<Long, Set<String>> tagsByDocument = new HashMap<>();
+        for (DocumentTagName tagName : documentRepository.findTagNamesByDocumentIds(ids)) {
+            tagsByDocument.computeIfAbsent(tagName.getDocumentId(), id -> new LinkedHashSet<>())
+                    .add(tagName.getTagName());
+        }
+
+        return summaries.map(summary -> {
+            DocumentDto dto = toDto(summary);
+            dto.setTags(tagsByDocument.getOrDefault(summary.getId(), new LinkedHashSet<>()));
+            return dto;
+        });
+    }
+
+    // Native queries sort by column, translate the entity property names the endpoints accept
+    private Pageable toNativeSort(Pageable pageable) {
+        if (pageable.getSort().isUnsorted()) {
+            return pageable;
+        }
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            String column = NATIVE_SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new InvalidSortException("Unsupported sort property: " + order.getProperty()
+                        + ", use one of " + NATIVE_SORT_COLUMNS.keySet());
+            }
+            orders.add(order.withProperty(column));
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(orders));
+    }
+
+    private DocumentDto toDto(DocumentSummary summary) {
+        return DocumentDto.builder()
+                .id(summary.getId())
+                .title(summary.getTitle())
+                .description(summary.getDescription())
+                .authorUsername(summary.getAuthorUsername())
+                .fileType(summary.getFileType())
+                .fileSize(summary.getFileSize())
+                .createdAt(summary.getCreatedAt() != null ? summary.getCreatedAt().toString() : null)
+                .updatedAt(summary.getUpdatedAt() != null ? summary.getUpdatedAt().toString() : null)
+                .tags(new LinkedHashSet<>())
+                .build();
+    }
 }
@@ -0,0 +1,204 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+import com.example.exception.FileStorageException;
+
+/**
+ * Streams stored files to HTTP clients without buffering them on the heap.
+ * Uses Tomcat's sendfile support when the connector offers it and falls back
+ * to {@link FileChannel#transferTo} otherwise. Single byte ranges, ETag and
+ * If-None-Match/If-Range are supported. Packed blobs are served as a region of
+ * their segment file through {@link FileChannel#transferTo} only, compressed files
+ * are inflated on the fly.
+ */
+@Service
+public class FileDownloadService {
+    private static final Logger logger = LoggerFactory.getLogger(FileDownloadService.class);
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    public void sendFile(String fileName, String contentType, long fileSize, String title,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Compressed files have no byte region matching the content, their size comes from the metadata
+        boolean compressed = fileStorageService.isCompressed(fileName);
+        StoredFileLocation location = compressed ? null : fileStorageService.locateFile(fileName);
+        long length = compressed ? fileSize : location.getLength();
+        String etag = buildETag(fileName, length);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // Stored files never change, so a matching ETag always means the client copy is current
+        if (matchesETag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+
+        if (StringUtils.hasText(rangeHeader) && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = null;
+            }
+
+            // Multi-part ranges are rarely used by download clients, serve the full entity instead
+            if (ranges != null && ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                try {
+                    start = range.getRangeStart(length);
+                    end = range.getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                }
+                if (length == 0 || start >= length) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = length == 0 ? 0 : end - start + 1;
+        response.setContentType(StringUtils.hasText(contentType) ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(count);
+        if (StringUtils.hasText(title)) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(buildDownloadName(fileName, title), StandardCharsets.UTF_8).build().toString());
+        }
+
+        if (HttpMethod.HEAD.matches(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (compressed) {
+            try (InputStream stream = fileStorageService.loadFileAsResource(fileName)) {
+                StreamUtils.copyRange(stream, response.getOutputStream(), start, end);
+                response.flushBuffer();
+            } catch (IOException ex) {
+                logger.debug("File transfer interrupted for {}: {}", fileName, ex.getMessage());
+            }
+            return;
+        }
+
+        // Let the connector push the bytes straight from the page cache to the socket. Packed blobs
+        // are excluded: the connector opens the file after this returns, when compaction may have
+        // removed the segment, while an open channel keeps reading it
+        if (!fileStorageService.isPacked(fileName)
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, location.getPath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, location.getOffset() + start);
+            request.setAttribute(SENDFILE_END_ATTR, location.getOffset() + end + 1);
+            return;
+        }
+
+        transfer(fileName, location, start, count, response);
+    }
+
+    private void transfer(String fileName, StoredFileLocation location, long start, long count,
+            HttpServletResponse response) throws IOException {
+        StoredFileLocation region = location;
+        FileChannel channel;
+        try {
+            try {
+                channel = FileChannel.open(region.getPath(), StandardOpenOption.READ);
+            } catch (NoSuchFileException ex) {
+                if (!fileStorageService.isPacked(fileName)) {
+                    throw ex;
+                }
+                // Compaction moved the blob after it was located and has since removed the old segment
+                region = fileStorageService.locateFile(fileName);
+                channel = FileChannel.open(region.getPath(), StandardOpenOption.READ);
+            }
+        } catch (IOException ex) {
+            logger.debug("File transfer interrupted for {}: {}", region.getPath().getFileName(), ex.getMessage());
+            return;
+        }
+
+        Path filePath = region.getPath();
+        try (FileChannel source = channel) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = region.getOffset() + start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = source.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    throw new FileStorageException("Unexpected end of file while sending " + filePath.getFileName());
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+            response.flushBuffer();
+        } catch (IOException ex) {
+            // Clients aborting a download is routine, don't treat it as a server failure
+            logger.debug("File transfer interrupted for {}: {}", filePath.getFileName(), ex.getMessage());
+        }
+    }
+
+    private String buildDownloadName(String fileName, String title) {
+        // Offer the document title with the extension of the originally uploaded file
+        String baseName = fileName.substring(0,
+                fileName.length() - CompressionCodec.forStoredName(fileName).getFileSuffix().length());
+        int extensionStart = baseName.lastIndexOf('.');
+        return extensionStart >= 0 ? title + baseName.substring(extensionStart) : title;
+    }
+
+    private String buildETag(String fileName, long length) {
+        return "\"" + DigestUtils.md5DigestAsHex((fileName + ":" + length).getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private boolean matchesETag(String ifNoneMatch, String etag) {
+        if (!StringUtils.hasText(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,27 +1,68 @@
 package com.example.service;
 
 import java.io.IOException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.apache.tika.Tika;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.example.config.FileStorageProperties;
 import com.example.exception.FileNotFoundException;
 import com.example.exception.FileStorageException;
+import com.example.exception.InvalidUploadException;
+import com.example.exception.UploadTooLargeException;
 
 @Service
 public class FileStorageService {
+    // Stored names with this prefix live in the packed blob store instead of a file of their own
+    public static final String PACKED_PREFIX = "packed:";
+
+    // Enough leading bytes for Tika's magic-number detection
+    private static final int DETECTION_BYTES = 8 * 1024;
+
     private final Path fileStorageLocation;
+    private final PackedBlobStore packedBlobStore;
+    private final CompressionCodec compressionCodec;
+    private final int compressionLevel;
+    private final List<String> uncompressedMediaTypes;
+    private final FileStorageProperties.Upload uploadSettings;
+    private final Tika tika = new Tika();
 
-    public FileStorageService(FileStorageProperties fileStorageProperties) {
+    public FileStorageService(FileStorageProperties fileStorageProperties, PackedBlobStore packedBlobStore) {
         this.fileStorageLocation = Paths.get(fileStorageProperties.getStorageLocation())
                 .toAbsolutePath().normalize();
+        this.packedBlobStore = packedBlobStore;
+        this.compressionCodec = CompressionCodec.fromName(fileStorageProperties.getCompression().getCodec());
+        this.compressionLevel = fileStorageProperties.getCompression().getLevel();
+        this.uncompressedMediaTypes = fileStorageProperties.getCompression().getSkipMediaTypes();
+        this.uploadSettings = fileStorageProperties.getUpload();
 
         try {
             Files.createDirectories(this.fileStorageLocation);
@@ -39,8 +80,9 @@ public class FileStorageService {
             fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
         }
         
-        // Generate unique filename
-        String fileName = UUID.randomUUID().toString() + fileExtension;
+        // Generate unique filename, the suffix records how the bytes are compressed on disk
+        CompressionCodec codec = selectCodec(file.getContentType());
+        String fileName = UUID.randomUUID().toString() + fileExtension + codec.getFileSuffix();
 
         try {
             // Check if the file's name contains invalid characters
@@ -48,9 +90,26 @@ public class FileStorageService {
                 throw new FileStorageException("Filename contains invalid path sequence: " + fileName);
             }
 
+            // Small files are appended to a shared segment instead of costing an inode each
+            if (packedBlobStore.accepts(file.getSize())) {
+                ByteArrayOutputStream packedBytes = new ByteArrayOutputStream((int) file.getSize());
+                writeCompressed(file.getInputStream(), packedBytes, codec);
+                if (packedBlobStore.accepts(packedBytes.size())) {
+                    packedBlobStore.put(fileName, new ByteArrayInputStream(packedBytes.toByteArray()));
+                    return PACKED_PREFIX + fileName;
+                }
+                // Incompressible data can grow slightly past the packing limit
+                Files.write(this.fileStorageLocation.resolve(fileName), packedBytes.toByteArray());
+                return fileName;
+            }
+
             // Copy file to the target location (Replacing existing file with the same name)
             Path targetLocation = this.fileStorageLocation.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            if (codec == CompressionCodec.NONE) {
+                Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                writeCompressed(file.getInputStream(), Files.newOutputStream(targetLocation), codec);
+            }
 
             return fileName;
         } catch (IOException ex) {
@@ -58,19 +117,211 @@ public class FileStorageService {
         }
     }
 
-    public InputStream loadFileAsResource(String fileName) {
+    /**
+     * Writes a raw upload straight to its final location. The digest, media type and
+     * size limit are all handled on the same pass over the bytes, so nothing beyond
+     * one buffer is held in memory regardless of the upload size.
+     */
+    public StoredUpload storeStream(InputStream inputStream, String originalFileName, long maxBytes) {
+        String fileExtension = safeExtension(originalFileName);
+
+        Path tempFile = null;
         try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            if (!Files.exists(filePath)) {
-                throw new FileNotFoundException("File not found: " + fileName);
+            // Stage under the storage root so the final move is a rename on the same file system
+            tempFile = Files.createTempFile(this.fileStorageLocation, ".upload-", ".part");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ReadableByteChannel source = Channels.newChannel(inputStream);
+            ByteBuffer buffer = ByteBuffer.allocate(Math.max(uploadSettings.getBufferSize(), DETECTION_BYTES));
+
+            // Read the head first, the detected type decides whether the file gets compressed
+            buffer.limit(DETECTION_BYTES);
+            while (buffer.hasRemaining() && source.read(buffer) >= 0) {
+                // keep filling
             }
-            return Files.newInputStream(filePath);
+            buffer.flip();
+            long size = checkQuota(buffer.remaining(), maxBytes);
+            String contentType = tika.detect(Arrays.copyOf(buffer.array(), buffer.remaining()), originalFileName);
+            CompressionCodec codec = selectCodec(contentType);
+            String fileName = UUID.randomUUID().toString() + fileExtension + codec.getFileSuffix();
+
+            FileChannel fileChannel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+            try (WritableByteChannel target = codec == CompressionCodec.NONE ? fileChannel
+                    : Channels.newChannel(codec.compress(Channels.newOutputStream(fileChannel), compressionLevel))) {
+                size = copyWithDigest(source, target, buffer, digest, size, maxBytes);
+            }
+
+            Files.move(tempFile, this.fileStorageLocation.resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+            tempFile = null;
+            return new StoredUpload(fileName, size, toHex(digest), contentType);
         } catch (IOException ex) {
-            throw new FileNotFoundException("File not found: " + fileName, ex);
+            throw new FileStorageException("Could not store uploaded file " + originalFileName + ". Please try again!", ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new FileStorageException("SHA-256 is not available", ex);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * Stores one chunk of a chunked upload session. Chunks are kept uncompressed in a
+     * per-session directory, so chunks of the same session can be written in parallel
+     * and a retried chunk simply replaces the earlier attempt.
+     */
+    public StoredUpload storeChunk(String sessionId, int index, InputStream inputStream, long expectedSize,
+            String expectedChecksum) {
+        Path sessionDirectory = chunkDirectory(sessionId);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(sessionDirectory);
+            tempFile = Files.createTempFile(sessionDirectory, ".chunk-", ".part");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ReadableByteChannel source = Channels.newChannel(inputStream);
+            ByteBuffer buffer = ByteBuffer.allocate(uploadSettings.getBufferSize());
+
+            readBlock(source, buffer);
+            long size;
+            try (FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                size = copyWithDigest(source, target, buffer, digest,
+                        checkQuota(buffer.remaining(), expectedSize), expectedSize);
+            }
+
+            // Only a complete, verified chunk becomes visible under its final name
+            String checksum = toHex(digest);
+            if (size != expectedSize) {
+                throw new InvalidUploadException("Chunk " + index + " has " + size + " bytes, expected " + expectedSize);
+            }
+            if (expectedChecksum != null && !expectedChecksum.equalsIgnoreCase(checksum)) {
+                throw new InvalidUploadException("Checksum mismatch for chunk " + index);
+            }
+
+            String chunkName = chunkName(index);
+            Files.move(tempFile, sessionDirectory.resolve(chunkName), StandardCopyOption.ATOMIC_MOVE);
+            tempFile = null;
+            return new StoredUpload(chunkName, size, checksum, null);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not store chunk " + index + " of upload " + sessionId, ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new FileStorageException("SHA-256 is not available", ex);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * Concatenates the chunks of a session into a regular stored file, with the same
+     * compression rules and SHA-256 digest as {@link #storeStream}. The media type is
+     * detected from the head of the first chunk before anything is written, and the
+     * chunks pass through one buffer. The chunk directory is removed afterwards.
+     */
+    public StoredUpload assembleChunks(String sessionId, int chunkCount, String originalFileName) {
+        String fileExtension = safeExtension(originalFileName);
+        Path sessionDirectory = chunkDirectory(sessionId);
+        Path tempFile = null;
+        try {
+            String contentType;
+            try (InputStream head = Files.newInputStream(sessionDirectory.resolve(chunkName(0)))) {
+                contentType = tika.detect(head.readNBytes(DETECTION_BYTES), originalFileName);
+            }
+            CompressionCodec codec = selectCodec(contentType);
+            String fileName = UUID.randomUUID().toString() + fileExtension + codec.getFileSuffix();
+
+            tempFile = Files.createTempFile(this.fileStorageLocation, ".upload-", ".part");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocate(uploadSettings.getBufferSize());
+            long size = 0;
+            FileChannel fileChannel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+            try (WritableByteChannel target = codec == CompressionCodec.NONE ? fileChannel
+                    : Channels.newChannel(codec.compress(Channels.newOutputStream(fileChannel), compressionLevel))) {
+                for (int index = 0; index < chunkCount; index++) {
+                    try (FileChannel chunk = FileChannel.open(sessionDirectory.resolve(chunkName(index)),
+                            StandardOpenOption.READ)) {
+                        readBlock(chunk, buffer);
+                        // Chunk sizes were checked when they were stored
+                        size = copyWithDigest(chunk, target, buffer, digest, size + buffer.remaining(), Long.MAX_VALUE);
+                    }
+                }
+            }
+
+            Files.move(tempFile, this.fileStorageLocation.resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+            tempFile = null;
+            deleteChunks(sessionId);
+            return new StoredUpload(fileName, size, toHex(digest), contentType);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not assemble upload " + sessionId, ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new FileStorageException("SHA-256 is not available", ex);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    public List<String> listChunkSessions() {
+        Path chunkRoot = this.fileStorageLocation.resolve("chunks");
+        if (!Files.isDirectory(chunkRoot)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> directories = Files.list(chunkRoot)) {
+            return directories.map(directory -> directory.getFileName().toString()).collect(Collectors.toList());
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not list upload sessions", ex);
+        }
+    }
+
+    public void deleteChunks(String sessionId) {
+        Path sessionDirectory = chunkDirectory(sessionId);
+        if (!Files.isDirectory(sessionDirectory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(sessionDirectory)) {
+            files.forEach(this::deleteQuietly);
+            Files.deleteIfExists(sessionDirectory);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not delete chunks of upload " + sessionId, ex);
+        }
+    }
+
+    public long resolveUploadQuota(Collection<? extends GrantedAuthority> authorities) {
+        long quota = -1;
+        for (GrantedAuthority authority : authorities) {
+            String role = authority.getAuthority().replaceFirst("^ROLE_", "").toLowerCase(Locale.ROOT);
+            DataSize roleQuota = uploadSettings.getRoleQuotas().get(role);
+            if (roleQuota != null) {
+                quota = Math.max(quota, roleQuota.toBytes());
+            }
+        }
+        return quota >= 0 ? quota : uploadSettings.getDefaultQuota().toBytes();
+    }
+
+    public InputStream loadFileAsResource(String fileName) {
+        InputStream rawStream;
+        if (isPacked(fileName)) {
+            rawStream = packedBlobStore.openStream(packedKey(fileName));
+        } else {
+            try {
+                Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
+                if (!Files.exists(filePath)) {
+                    throw new FileNotFoundException("File not found: " + fileName);
+                }
+                rawStream = Files.newInputStream(filePath);
+            } catch (IOException ex) {
+                throw new FileNotFoundException("File not found: " + fileName, ex);
+            }
+        }
+
+        try {
+            return CompressionCodec.forStoredName(fileName).decompress(rawStream);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not read compressed file " + fileName, ex);
         }
     }
     
     public boolean deleteFile(String fileName) {
+        if (isPacked(fileName)) {
+            if (!packedBlobStore.delete(packedKey(fileName))) {
+                throw new FileNotFoundException("File not found: " + fileName);
+            }
+            return true;
+        }
         try {
             Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
             if (!Files.exists(filePath)) {
@@ -85,4 +336,128 @@ public class FileStorageService {
     public Path getFilePath(String fileName) {
         return this.fileStorageLocation.resolve(fileName).normalize();
     }
+
+    public Path resolveExistingFile(String fileName) {
+        Path filePath = getFilePath(fileName);
+        if (!filePath.startsWith(this.fileStorageLocation) || !Files.isRegularFile(filePath)) {
+            throw new FileNotFoundException("File not found: " + fileName);
+        }
+        return filePath;
+    }
+
+    public StoredFileLocation locateFile(String fileName) {
+        if (isPacked(fileName)) {
+            return packedBlobStore.locate(packedKey(fileName));
+        }
+        Path filePath = resolveExistingFile(fileName);
+        try {
+            return new StoredFileLocation(filePath, 0, Files.size(filePath));
+        } catch (IOException ex) {
+            throw new FileNotFoundException("File not found: " + fileName, ex);
+        }
+    }
+
+    public boolean isPacked(String fileName) {
+        return fileName != null && fileName.startsWith(PACKED_PREFIX);
+    }
+
+    public boolean isCompressed(String fileName) {
+        return CompressionCodec.forStoredName(fileName) != CompressionCodec.NONE;
+    }
+
+    public CompressionCodec selectCodec(String mediaType) {
+        if (compressionCodec == CompressionCodec.NONE || mediaType == null) {
+            return compressionCodec;
+        }
+        String baseType = mediaType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        for (String pattern : uncompressedMediaTypes) {
+            String normalized = pattern.trim().toLowerCase(Locale.ROOT);
+            boolean matches = normalized.endsWith("*")
+                    ? baseType.startsWith(normalized.substring(0, normalized.length() - 1))
+                    : baseType.equals(normalized);
+            if (matches) {
+                return CompressionCodec.NONE;
+            }
+        }
+        return compressionCodec;
+    }
+
+    private void writeCompressed(InputStream inputStream, OutputStream target, CompressionCodec codec) throws IOException {
+        try (InputStream in = inputStream; OutputStream out = codec.compress(target, compressionLevel)) {
+            in.transferTo(out);
+        }
+    }
+
+    private long copyWithDigest(ReadableByteChannel source, WritableByteChannel target, ByteBuffer buffer,
+            MessageDigest digest, long size, long maxBytes) throws IOException {
+        // Expects the first block already read into the buffer, returns the total byte count
+        while (buffer.hasRemaining()) {
+            digest.update(buffer.array(), buffer.position(), buffer.remaining());
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            readBlock(source, buffer);
+            size = checkQuota(size + buffer.remaining(), maxBytes);
+        }
+        return size;
+    }
+
+    private void readBlock(ReadableByteChannel source, ByteBuffer buffer) throws IOException {
+        // Leaves the buffer empty at end of stream
+        buffer.clear();
+        while (source.read(buffer) == 0) {
+            // blocking channel, only returns 0 for a full buffer
+        }
+        buffer.flip();
+    }
+
+    private long checkQuota(long size, long maxBytes) {
+        if (size > maxBytes) {
+            throw new UploadTooLargeException("Upload exceeds the allowed size of " + maxBytes + " bytes");
+        }
+        return size;
+    }
+
+    private Path chunkDirectory(String sessionId) {
+        Path chunkRoot = this.fileStorageLocation.resolve("chunks");
+        Path sessionDirectory = chunkRoot.resolve(sessionId).normalize();
+        if (!chunkRoot.equals(sessionDirectory.getParent())) {
+            throw new FileStorageException("Invalid upload session id: " + sessionId);
+        }
+        return sessionDirectory;
+    }
+
+    private String chunkName(int index) {
+        return String.format("chunk-%06d", index);
+    }
+
+    private String safeExtension(String originalFileName) {
+        String fileExtension = "";
+        if (originalFileName != null && originalFileName.contains(".")) {
+            fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
+        }
+        if (fileExtension.contains("/") || fileExtension.contains("\\") || fileExtension.contains("..")) {
+            throw new FileStorageException("Filename contains invalid path sequence: " + originalFileName);
+        }
+        return fileExtension;
+    }
+
+    private String toHex(MessageDigest digest) {
+        return String.format("%064x", new BigInteger(1, digest.digest()));
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // A leftover .part file is harmless and never referenced by a document
+        }
+    }
+
+    private String packedKey(String fileName) {
+        return fileName.substring(PACKED_PREFIX.length());
+    }
 }
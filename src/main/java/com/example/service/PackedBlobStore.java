@@ -0,0 +1,505 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.config.FileStorageProperties;
+import com.example.exception.FileNotFoundException;
+import com.example.exception.FileStorageException;
+
+/**
+ * Append-only store that packs small blobs into large segment files.
+ * <p>
+ * Each record is {@code magic | type | keyLength | dataLength | key | data}. Deletes
+ * append a tombstone, the in-memory index is rebuilt by replaying the segments on
+ * startup, reads are served from memory-mapped segments and a scheduled compactor
+ * rewrites segments whose share of dead records exceeds the configured threshold.
+ */
+@Component
+public class PackedBlobStore {
+    private static final Logger logger = LoggerFactory.getLogger(PackedBlobStore.class);
+
+    private static final int RECORD_MAGIC = 0x50424C42;
+    private static final byte TYPE_BLOB = 1;
+    private static final byte TYPE_TOMBSTONE = 2;
+    private static final int HEADER_SIZE = 11; // magic + type + key length + data length
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".pack";
+    private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+    private final boolean enabled;
+    private final long maxBlobSize;
+    private final long segmentSize;
+    private final double compactionThreshold;
+    private final Path segmentDirectory;
+
+    private final Map<String, BlobLocation> index = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+
+    // Appends, deletes and compaction moves are serialized so replay order always matches index order
+    private final Object appendLock = new Object();
+    private final List<Segment> retiredSegments = new ArrayList<>();
+    private Segment activeSegment;
+
+    public PackedBlobStore(FileStorageProperties fileStorageProperties) {
+        FileStorageProperties.Packed packed = fileStorageProperties.getPacked();
+        this.enabled = packed.isEnabled();
+        this.maxBlobSize = packed.getMaxBlobSize();
+        this.segmentSize = Math.min(packed.getSegmentSize(), MAX_SEGMENT_SIZE);
+        this.compactionThreshold = packed.getCompactionThreshold();
+        this.segmentDirectory = Paths.get(fileStorageProperties.getStorageLocation(), "packed")
+                .toAbsolutePath().normalize();
+
+        if (enabled) {
+            try {
+                Files.createDirectories(segmentDirectory);
+                loadSegments();
+            } catch (IOException ex) {
+                throw new FileStorageException("Could not open the packed blob store.", ex);
+            }
+        }
+    }
+
+    public boolean accepts(long size) {
+        return enabled && size >= 0 && size <= maxBlobSize;
+    }
+
+    public boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    public void put(String key, InputStream inputStream) throws IOException {
+        byte[] data = inputStream.readAllBytes();
+        if (data.length > maxBlobSize) {
+            throw new FileStorageException("Blob " + key + " exceeds the packed store limit of " + maxBlobSize + " bytes");
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + keyBytes.length + data.length);
+        record.putInt(RECORD_MAGIC).put(TYPE_BLOB).putShort((short) keyBytes.length).putInt(data.length)
+                .put(keyBytes).put(data);
+        record.flip();
+
+        synchronized (appendLock) {
+            appendBlob(key, record, keyBytes.length, data.length);
+        }
+    }
+
+    public InputStream openStream(String key) {
+        BlobLocation location = locateBlob(key);
+        try {
+            return new ByteBufferInputStream(location.segment.slice(location.dataOffset, location.length));
+        } catch (IOException ex) {
+            // Compaction may have moved the blob and removed its segment after the lookup
+            BlobLocation moved = locateBlob(key);
+            if (moved.segment != location.segment) {
+                try {
+                    return new ByteBufferInputStream(moved.segment.slice(moved.dataOffset, moved.length));
+                } catch (IOException retryEx) {
+                    ex.addSuppressed(retryEx);
+                }
+            }
+            throw new FileNotFoundException("Could not read packed blob " + key, ex);
+        }
+    }
+
+    // The segment file can disappear once compaction retired it, callers that open the path
+    // later must look the blob up again when it is gone (see FileDownloadService)
+    public StoredFileLocation locate(String key) {
+        BlobLocation location = locateBlob(key);
+        return new StoredFileLocation(location.segment.path, location.dataOffset, location.length);
+    }
+
+    public boolean delete(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        synchronized (appendLock) {
+            BlobLocation location = index.remove(key);
+            if (location == null) {
+                return false;
+            }
+            location.segment.garbageBytes.addAndGet(location.recordSize);
+
+            ByteBuffer tombstone = ByteBuffer.allocate(HEADER_SIZE + keyBytes.length);
+            tombstone.putInt(RECORD_MAGIC).put(TYPE_TOMBSTONE).putShort((short) keyBytes.length).putInt(0)
+                    .put(keyBytes);
+            tombstone.flip();
+            try {
+                appendTombstone(tombstone);
+            } catch (IOException ex) {
+                index.put(key, location);
+                throw new FileStorageException("Could not delete packed blob " + key, ex);
+            }
+            return true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.file.packed.compaction-interval-ms:600000}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+
+        // Segments retired by the previous run may still have had readers in flight, drop them now.
+        // Segments created after the snapshot are not in the list, the others are never appended to again
+        List<Segment> retired;
+        List<Segment> candidates;
+        Segment active;
+        synchronized (appendLock) {
+            retired = new ArrayList<>(retiredSegments);
+            retiredSegments.clear();
+            candidates = new ArrayList<>(segments.values());
+            active = activeSegment;
+        }
+        for (Segment segment : retired) {
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException ex) {
+                logger.warn("Could not delete retired segment {}", segment.path, ex);
+            }
+        }
+
+        for (Segment segment : candidates) {
+            if (segment == active || segment.size == 0) {
+                continue;
+            }
+            double garbageRatio = (double) segment.garbageBytes.get() / segment.size;
+            if (garbageRatio >= compactionThreshold) {
+                try {
+                    compactSegment(segment);
+                } catch (IOException ex) {
+                    logger.error("Failed to compact segment {}", segment.path, ex);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (appendLock) {
+            if (activeSegment != null) {
+                activeSegment.closeWriter();
+            }
+        }
+    }
+
+    private BlobLocation locateBlob(String key) {
+        BlobLocation location = index.get(key);
+        if (location == null) {
+            throw new FileNotFoundException("File not found: " + key);
+        }
+        return location;
+    }
+
+    private void compactSegment(Segment segment) throws IOException {
+        ByteBuffer contents = segment.slice(0, (int) segment.size);
+        int position = 0;
+        int moved = 0;
+
+        while (position + HEADER_SIZE <= contents.limit()) {
+            int recordStart = position;
+            if (contents.getInt(recordStart) != RECORD_MAGIC) {
+                break;
+            }
+            byte type = contents.get(recordStart + 4);
+            int keyLength = Short.toUnsignedInt(contents.getShort(recordStart + 5));
+            int dataLength = contents.getInt(recordStart + 7);
+            int recordSize = HEADER_SIZE + keyLength + dataLength;
+            if (dataLength < 0 || recordStart + recordSize > contents.limit()) {
+                break;
+            }
+            String key = readKey(contents, recordStart + HEADER_SIZE, keyLength);
+            position += recordSize;
+
+            ByteBuffer record = contents.duplicate();
+            record.position(recordStart);
+            record.limit(recordStart + recordSize);
+
+            synchronized (appendLock) {
+                if (type == TYPE_BLOB) {
+                    BlobLocation current = index.get(key);
+                    if (current != null && current.segment == segment && current.recordOffset == recordStart) {
+                        appendBlob(key, record.slice(), keyLength, dataLength);
+                        moved++;
+                    }
+                } else if (segments.firstKey() < segment.id) {
+                    // The deleted blob may still sit in an older segment, keep its tombstone
+                    appendTombstone(record.slice());
+                }
+            }
+        }
+
+        synchronized (appendLock) {
+            segments.remove(segment.id);
+            retiredSegments.add(segment);
+        }
+        logger.info("Compacted segment {}: moved {} live blobs, reclaimed {} bytes",
+                segment.path.getFileName(), moved, segment.garbageBytes.get());
+    }
+
+    // Caller must hold appendLock
+    private void appendBlob(String key, ByteBuffer record, int keyLength, int dataLength) throws IOException {
+        Segment segment = segmentFor(record.remaining());
+        long recordOffset = segment.append(record);
+        long recordSize = HEADER_SIZE + keyLength + (long) dataLength;
+
+        BlobLocation location = new BlobLocation(segment, recordOffset,
+                recordOffset + HEADER_SIZE + keyLength, dataLength, recordSize);
+        BlobLocation previous = index.put(key, location);
+        if (previous != null) {
+            previous.segment.garbageBytes.addAndGet(previous.recordSize);
+        }
+    }
+
+    // Caller must hold appendLock
+    private void appendTombstone(ByteBuffer record) throws IOException {
+        int recordSize = record.remaining();
+        Segment segment = segmentFor(recordSize);
+        segment.append(record);
+        segment.garbageBytes.addAndGet(recordSize);
+    }
+
+    // Caller must hold appendLock
+    private Segment segmentFor(int recordSize) throws IOException {
+        if (activeSegment == null || (activeSegment.size > 0 && activeSegment.size + recordSize > segmentSize)) {
+            if (activeSegment != null) {
+                activeSegment.closeWriter();
+            }
+            int nextId = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+            for (Segment retired : retiredSegments) {
+                nextId = Math.max(nextId, retired.id + 1);
+            }
+            activeSegment = new Segment(nextId, segmentDirectory.resolve(segmentFileName(nextId)), 0);
+            activeSegment.openWriter();
+            segments.put(nextId, activeSegment);
+        }
+        return activeSegment;
+    }
+
+    private void loadSegments() throws IOException {
+        List<Segment> found = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(segmentDirectory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                int id = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                found.add(new Segment(id, path, Files.size(path)));
+            }
+        }
+        found.sort((a, b) -> Integer.compare(a.id, b.id));
+
+        for (Segment segment : found) {
+            long validEnd = replay(segment);
+            if (validEnd < segment.size) {
+                // A crash in the middle of an append leaves a torn record at the tail
+                logger.warn("Truncating torn tail of segment {} at offset {}", segment.path.getFileName(), validEnd);
+                try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.WRITE)) {
+                    channel.truncate(validEnd);
+                }
+                segment.size = validEnd;
+                segment.resetMapping();
+            }
+            segments.put(segment.id, segment);
+        }
+
+        if (!found.isEmpty()) {
+            Segment last = found.get(found.size() - 1);
+            if (last.size < segmentSize) {
+                last.openWriter();
+                activeSegment = last;
+            }
+        }
+        logger.info("Packed blob store opened with {} segments and {} blobs", segments.size(), index.size());
+    }
+
+    private long replay(Segment segment) throws IOException {
+        if (segment.size == 0) {
+            return 0;
+        }
+        ByteBuffer contents = segment.slice(0, (int) segment.size);
+        int position = 0;
+
+        while (position + HEADER_SIZE <= contents.limit()) {
+            if (contents.getInt(position) != RECORD_MAGIC) {
+                break;
+            }
+            byte type = contents.get(position + 4);
+            int keyLength = Short.toUnsignedInt(contents.getShort(position + 5));
+            int dataLength = contents.getInt(position + 7);
+            long recordSize = HEADER_SIZE + keyLength + (long) dataLength;
+            if (dataLength < 0 || position + recordSize > contents.limit()) {
+                break;
+            }
+            String key = readKey(contents, position + HEADER_SIZE, keyLength);
+
+            BlobLocation previous;
+            if (type == TYPE_BLOB) {
+                previous = index.put(key, new BlobLocation(segment, position,
+                        position + HEADER_SIZE + keyLength, dataLength, recordSize));
+            } else {
+                previous = index.remove(key);
+                segment.garbageBytes.addAndGet(recordSize);
+            }
+            if (previous != null) {
+                previous.segment.garbageBytes.addAndGet(previous.recordSize);
+            }
+            position += recordSize;
+        }
+        return position;
+    }
+
+    private static String readKey(ByteBuffer buffer, int offset, int length) {
+        byte[] keyBytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.get(keyBytes);
+        return new String(keyBytes, StandardCharsets.UTF_8);
+    }
+
+    private static String segmentFileName(int id) {
+        return String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX);
+    }
+
+    private static final class BlobLocation {
+        final Segment segment;
+        final long recordOffset;
+        final long dataOffset;
+        final int length;
+        final long recordSize;
+
+        BlobLocation(Segment segment, long recordOffset, long dataOffset, int length, long recordSize) {
+            this.segment = segment;
+            this.recordOffset = recordOffset;
+            this.dataOffset = dataOffset;
+            this.length = length;
+            this.recordSize = recordSize;
+        }
+    }
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final AtomicLong garbageBytes = new AtomicLong();
+        volatile long size;
+
+        private FileChannel writer;
+        private volatile MappedByteBuffer mapping;
+
+        Segment(int id, Path path, long size) {
+            this.id = id;
+            this.path = path;
+            this.size = size;
+        }
+
+        void openWriter() throws IOException {
+            writer = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+
+        void closeWriter() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.force(false);
+                writer.close();
+            } catch (IOException ex) {
+                logger.warn("Could not close segment {}", path, ex);
+            }
+            writer = null;
+        }
+
+        long append(ByteBuffer record) throws IOException {
+            long offset = size;
+            long position = offset;
+            while (record.hasRemaining()) {
+                position += writer.write(record, position);
+            }
+            size = position;
+            return offset;
+        }
+
+        ByteBuffer slice(long offset, int length) throws IOException {
+            MappedByteBuffer current = mapping;
+            if (current == null || offset + length > current.capacity()) {
+                current = remap(offset + length);
+            }
+            ByteBuffer view = current.duplicate();
+            view.position((int) offset);
+            view.limit((int) offset + length);
+            return view.slice();
+        }
+
+        void resetMapping() {
+            mapping = null;
+        }
+
+        // Appends grow the active segment, so the mapping is widened lazily when a read runs past it
+        private synchronized MappedByteBuffer remap(long required) throws IOException {
+            MappedByteBuffer current = mapping;
+            if (current != null && required <= current.capacity()) {
+                return current;
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                current = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            mapping = current;
+            return current;
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.config.SearchProperties;
+import com.example.dto.EstimatedPage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Keeps the totals of recently counted listings per query and filter values. The first
+ * request for a filter runs the query with its COUNT(*), following pages of the same
+ * filter fetch one row more than the page size instead and derive the total from the
+ * remembered count. The estimate is corrected by what the page itself shows (a last page
+ * gives the exact total) and expires after app.search.count-ttl. Writes to documents
+ * drop the affected totals once their transaction commits, including counts that were
+ * still running at that moment.
+ */
+@Component
+public class PageTotalEstimator {
+    private final Cache<List<Object>, Total> totals;
+
+    // Bumped by invalidate() and invalidate(kind). A total is stored with the generations seen
+    // before its query ran and ignored once they moved, so a count that overlapped a commit
+    // never outlives the invalidation
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Object, AtomicLong> kindGenerations = new ConcurrentHashMap<>();
+
+    public PageTotalEstimator(SearchProperties searchProperties) {
+        this.totals = Caffeine.newBuilder()
+                .maximumSize(searchProperties.getCountCacheSize())
+                .expireAfterWrite(searchProperties.getCountTtl())
+                .build();
+    }
+
+    public <T> Page<T> page(boolean exact, List<Object> filter, Pageable pageable,
+            Supplier<Page<T>> countedQuery, Supplier<Slice<T>> slicedQuery) {
+        long stamp = stamp(filter);
+        Total remembered = exact ? null : totals.getIfPresent(filter);
+        if (remembered == null || remembered.stamp != stamp) {
+            Page<T> page = countedQuery.get();
+            totals.put(filter, new Total(page.getTotalElements(), stamp));
+            return page;
+        }
+
+        long known = remembered.count;
+        Slice<T> slice = slicedQuery.get();
+        long seen = pageable.getOffset() + slice.getNumberOfElements();
+        if (slice.hasContent() && !slice.hasNext()) {
+            // Last page, the total is known exactly
+            totals.put(filter, new Total(seen, stamp));
+            return new EstimatedPage<>(slice.getContent(), pageable, seen, false);
+        }
+        long total = slice.hasContent() ? Math.max(known, seen + 1) : Math.min(known, pageable.getOffset());
+        return new EstimatedPage<>(slice.getContent(), pageable, total, true);
+    }
+
+    // Creating, changing or deleting documents can change every listing
+    public void invalidate() {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            totals.invalidateAll();
+        });
+    }
+
+    // Only the totals whose filter starts with this kind, e.g. "keyword" when extracted text changes
+    public void invalidate(String filterKind) {
+        afterCommit(() -> {
+            kindGeneration(filterKind).incrementAndGet();
+            totals.asMap().keySet().removeIf(filter -> filterKind.equals(filter.get(0)));
+        });
+    }
+
+    // Dropped before the commit, a listing in between would count the old rows and remember them again
+    private void afterCommit(Runnable invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidation.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidation.run();
+            }
+        });
+    }
+
+    // Both generations only grow, so their sum changes whenever either does
+    private long stamp(List<Object> filter) {
+        return generation.get() + kindGeneration(filter.get(0)).get();
+    }
+
+    private AtomicLong kindGeneration(Object filterKind) {
+        return kindGenerations.computeIfAbsent(filterKind, kind -> new AtomicLong());
+    }
+
+    private static final class Total {
+        final long count;
+        final long stamp;
+
+        Total(long count, long stamp) {
+            this.count = count;
+            this.stamp = stamp;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.service;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+/**
+ * Authenticated principals keyed by username and token issue time, so requests carrying
+ * the same token skip the user and roles lookup. A new login issues a new token and
+ * therefore loads the user again; changes made through the user endpoints drop all
+ * entries of that user right away, anything else is picked up after the TTL.
+ * <p>
+ * The same changes are remembered per user for as long as a self-contained token
+ * lives, so tokens issued before the change stop being trusted for their embedded roles.
+ * At most max-changes users are remembered; when a change is pushed out early, every
+ * token issued before it loads its user from the database instead. Both caches are
+ * local to this instance, changes made through another node are not seen here.
+ */
+@Component
+public class PrincipalCache {
+    private final Cache<Key, UserDetails> principals;
+
+    // Username to time of the last role change or delete
+    private final Cache<String, Long> changes;
+
+    // Latest change evicted for size before it expired, tokens issued until then are not trusted
+    private final AtomicLong evictedChangesUntil = new AtomicLong();
+
+    public PrincipalCache(@Value("${app.security.principal-cache.max-size:10000}") long maximumSize,
+            @Value("${app.security.principal-cache.ttl-ms:300000}") long ttlMs,
+            @Value("${app.security.principal-cache.max-changes:10000}") long maximumChanges,
+            @Value("${app.jwt.self-contained-expiration-ms:900000}") long changeRetentionMs) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+        this.changes = Caffeine.newBuilder()
+                .maximumSize(maximumChanges)
+                .expireAfterWrite(Duration.ofMillis(changeRetentionMs))
+                // Run on the writing thread, so the watermark is raised before the change is gone
+                .executor(Runnable::run)
+                .removalListener((String username, Long changedAt, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE && changedAt != null) {
+                        evictedChangesUntil.accumulateAndGet(changedAt, Math::max);
+                    }
+                })
+                .build();
+    }
+
+    public UserDetails get(String username, Date issuedAt, Function<String, UserDetails> loader) {
+        Key key = new Key(username, issuedAt != null ? issuedAt.getTime() : 0L);
+        return principals.get(key, k -> loader.apply(k.username));
+    }
+
+    public void invalidate(String username) {
+        changes.put(username, System.currentTimeMillis());
+        principals.asMap().keySet().removeIf(key -> key.username.equals(username));
+    }
+
+    // Token issue times have second precision, so a token from the same second counts as stale
+    public boolean isChangedSince(String username, Date issuedAt) {
+        Long changedAt = changes.getIfPresent(username);
+        if (changedAt != null && (issuedAt == null || issuedAt.getTime() <= changedAt)) {
+            return true;
+        }
+        long evicted = evictedChangesUntil.get();
+        return evicted > 0 && (issuedAt == null || issuedAt.getTime() <= evicted);
+    }
+
+    private static final class Key {
+        private final String username;
+        private final long issuedAt;
+
+        Key(String username, long issuedAt) {
+            this.username = username;
+            this.issuedAt = issuedAt;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return issuedAt == other.issuedAt && username.equals(other.username);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(username, issuedAt);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.service;
+
+import java.nio.file.Path;
+
+import lombok.Value;
+
+/**
+ * Byte region of a file on disk that holds the content of a stored file.
+ * Loose files span their whole file, packed blobs a slice of a segment.
+ */
+@Value
+public class StoredFileLocation {
+    Path path;
+    long offset;
+    long length;
+}
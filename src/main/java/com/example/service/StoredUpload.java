@@ -0,0 +1,15 @@
+package com.example.service;
+
+import lombok.Value;
+
+/**
+ * Result of a streamed upload: the stored name plus what was learned while
+ * the bytes passed through (uncompressed size, SHA-256 and detected media type).
+ */
+@Value
+public class StoredUpload {
+    String fileName;
+    long size;
+    String checksum;
+    String contentType;
+}
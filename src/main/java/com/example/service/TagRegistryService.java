@@ -0,0 +1,116 @@
+package com.example.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.example.entity.Tag;
+import com.example.repository.TagRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Resolves tag names to {@link Tag} entities. The ids of known tags are served from a
+ * bounded cache, unknown names are looked up with one IN query and the rest are created
+ * with one MERGE in the caller's transaction, which skips names that exist already.
+ * When a concurrent request inserts the same name first the MERGE fails on the unique
+ * constraint once that request commits; only that statement fails, so the missing
+ * names are read again and the remainder is retried.
+ */
+@Service
+public class TagRegistryService {
+    private static final Logger logger = LoggerFactory.getLogger(TagRegistryService.class);
+
+    private static final int MAX_CREATE_ATTEMPTS = 3;
+
+    // Tags are never renamed or deleted, so a cached id stays valid
+    private final Cache<String, Long> idsByName;
+    private final TagRepository tagRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public TagRegistryService(TagRepository tagRepository, JdbcTemplate jdbcTemplate,
+            @Value("${app.tags.cache-size:10000}") long cacheSize) {
+        this.tagRepository = tagRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.idsByName = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    public Map<String, Tag> resolve(Collection<String> names) {
+        Map<String, Tag> resolved = new HashMap<>();
+        if (names == null || names.isEmpty()) {
+            return resolved;
+        }
+
+        Set<String> unknown = new LinkedHashSet<>();
+        for (String name : names) {
+            if (!StringUtils.hasText(name)) {
+                continue;
+            }
+            Long id = idsByName.getIfPresent(name);
+            if (id != null) {
+                resolved.put(name, Tag.builder().id(id).name(name).build());
+            } else {
+                unknown.add(name);
+            }
+        }
+
+        if (!unknown.isEmpty()) {
+            loadExisting(unknown, resolved);
+        }
+        if (!unknown.isEmpty()) {
+            create(unknown, resolved);
+        }
+        return resolved;
+    }
+
+    public Set<Tag> resolveTags(Collection<String> names) {
+        return new LinkedHashSet<>(resolve(names).values());
+    }
+
+    private void loadExisting(Set<String> unknown, Map<String, Tag> resolved) {
+        for (Tag tag : tagRepository.findByNameIn(unknown)) {
+            idsByName.put(tag.getName(), tag.getId());
+            resolved.put(tag.getName(), tag);
+            unknown.remove(tag.getName());
+        }
+    }
+
+    private void create(Set<String> missing, Map<String, Tag> resolved) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                jdbcTemplate.update(insertMissing(missing.size()), missing.toArray());
+            } catch (DuplicateKeyException ex) {
+                // Another request created some of these tags first, pick up its rows and retry the rest
+                if (attempt >= MAX_CREATE_ATTEMPTS) {
+                    throw ex;
+                }
+                logger.debug("Retrying creation of tags {} after concurrent insert", missing);
+            }
+            loadExisting(missing, resolved);
+            if (missing.isEmpty()) {
+                return;
+            }
+            if (attempt >= MAX_CREATE_ATTEMPTS) {
+                throw new IllegalStateException("Could not create tags " + missing);
+            }
+        }
+    }
+
+    private static String insertMissing(int count) {
+        return "MERGE INTO tags t USING (VALUES "
+                + String.join(", ", Collections.nCopies(count, "(CAST(? AS VARCHAR(50)))"))
+                + ") n(name) ON t.name = n.name "
+                + "WHEN NOT MATCHED THEN INSERT (id, name) VALUES (NEXT VALUE FOR tags_seq, n.name)";
+    }
+}
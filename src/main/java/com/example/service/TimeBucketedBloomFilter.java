@@ -0,0 +1,129 @@
+package com.example.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter split into buckets by expiry time. A key is added to the bucket of the
+ * window its expiry falls into, and a bucket is cleared and reused once its window has
+ * passed, so memory is fixed by the bucket count and size no matter how many keys are
+ * added. Lookups only read the bucket array and never allocate.
+ */
+public class TimeBucketedBloomFilter {
+    private final long bucketWidthMs;
+    private final Bucket[] buckets;
+    private final int bitMask;
+    private final int hashCount;
+
+    public TimeBucketedBloomFilter(Duration bucketWidth, Duration horizon, int expectedPerBucket,
+            double falsePositiveRate) {
+        this.bucketWidthMs = bucketWidth.toMillis();
+        // Every window that can still hold unexpired keys, plus one being reused
+        int bucketCount = (int) (horizon.toMillis() / bucketWidthMs) + 2;
+
+        double optimalBits = -expectedPerBucket * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        int bits = Math.max(64, Integer.highestOneBit((int) Math.min(1 << 30, Math.ceil(optimalBits)) - 1) << 1);
+        this.bitMask = bits - 1;
+        this.hashCount = Math.max(1, (int) Math.round((double) bits / expectedPerBucket * Math.log(2)));
+
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket(bits / 64);
+        }
+    }
+
+    public void put(String key, long expiresAtMillis) {
+        long window = expiresAtMillis / bucketWidthMs;
+        Bucket bucket = buckets[(int) Math.floorMod(window, (long) buckets.length)];
+        if (bucket.window != window) {
+            synchronized (bucket) {
+                if (bucket.window > window) {
+                    // The slot already serves a later window, keys of this one have long expired
+                    return;
+                }
+                if (bucket.window < window) {
+                    bucket.clear();
+                    bucket.window = window;
+                }
+            }
+        }
+
+        int h1 = mix(key.hashCode());
+        int h2 = secondHash(key);
+        for (int i = 0; i < hashCount; i++) {
+            bucket.set((h1 + i * h2) & bitMask);
+        }
+    }
+
+    public boolean mightContain(String key, long expiresAtMillis) {
+        long window = expiresAtMillis / bucketWidthMs;
+        Bucket bucket = buckets[(int) Math.floorMod(window, (long) buckets.length)];
+        if (bucket.window != window) {
+            return false;
+        }
+
+        int h1 = mix(key.hashCode());
+        int h2 = secondHash(key);
+        for (int i = 0; i < hashCount; i++) {
+            if (!bucket.get((h1 + i * h2) & bitMask)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long memoryBytes() {
+        return (long) buckets.length * (bitMask + 1) / 8;
+    }
+
+    // FNV-1a over the characters, odd so the probe sequence visits distinct bits
+    private static int secondHash(String key) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x01000193;
+        }
+        return mix(hash) | 1;
+    }
+
+    // Murmur3 finalizer, spreads String.hashCode over all bits
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static final class Bucket {
+        private final AtomicLongArray words;
+        private volatile long window = Long.MIN_VALUE;
+
+        Bucket(int wordCount) {
+            this.words = new AtomicLongArray(wordCount);
+        }
+
+        void set(int bit) {
+            int index = bit >>> 6;
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(index);
+                if ((current & mask) != 0) {
+                    return;
+                }
+            } while (!words.compareAndSet(index, current, current | mask));
+        }
+
+        boolean get(int bit) {
+            return (words.get(bit >>> 6) & (1L << bit)) != 0;
+        }
+
+        void clear() {
+            for (int i = 0; i < words.length(); i++) {
+                words.set(i, 0L);
+            }
+        }
+    }
+}
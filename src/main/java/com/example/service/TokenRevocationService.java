@@ -0,0 +1,121 @@
+package com.example.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.entity.RevokedToken;
+import com.example.repository.RevokedTokenRepository;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Tokens revoked by logout. The revoked_tokens table is the exact set, a
+ * {@link TimeBucketedBloomFilter} in front of it answers the per-request check from
+ * memory: a miss means not revoked, and only the rare hit (a revoked token or a false
+ * positive) is confirmed with a primary-key lookup. Rows and filter buckets both go
+ * away once the tokens they hold have expired. Revocations made on other instances are
+ * picked up by the periodic sync.
+ */
+@Service
+public class TokenRevocationService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TimeBucketedBloomFilter filter;
+    private final long syncIntervalMs;
+    private volatile LocalDateTime lastSync = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+            @Value("${app.jwt.expiration-ms}") long jwtExpirationMs,
+            @Value("${app.jwt.self-contained-expiration-ms:900000}") long selfContainedExpirationMs,
+            @Value("${app.jwt.revocation.bucket-width-ms:3600000}") long bucketWidthMs,
+            @Value("${app.jwt.revocation.expected-per-bucket:100000}") int expectedPerBucket,
+            @Value("${app.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${app.jwt.revocation.sync-interval-ms:5000}") long syncIntervalMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.syncIntervalMs = syncIntervalMs;
+        Duration horizon = Duration.ofMillis(Math.max(jwtExpirationMs, selfContainedExpirationMs));
+        this.filter = new TimeBucketedBloomFilter(Duration.ofMillis(bucketWidthMs), horizon, expectedPerBucket,
+                falsePositiveRate);
+        logger.info("Token revocation filter uses {} KB", filter.memoryBytes() / 1024);
+    }
+
+    public void revoke(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {
+            // Issued before tokens carried an id, it stays valid until it expires
+            logger.warn("Token of {} has no id and cannot be revoked", claims.getSubject());
+            return;
+        }
+
+        long expiresAt = expiresAtMillis(claims);
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        try {
+            revokedTokenRepository.insertIfAbsent(jti, toLocalDateTime(expiresAt), LocalDateTime.now());
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent logout with the same token inserted the row first
+            logger.debug("Token {} was revoked concurrently", jti);
+        }
+        filter.put(jti, expiresAt);
+    }
+
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null || !filter.mightContain(jti, expiresAtMillis(claims))) {
+            return false;
+        }
+        return revokedTokenRepository.existsById(jti);
+    }
+
+    // Loads all unexpired revocations on the first run, then the ones added since the last run
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval-ms:5000}")
+    public void syncRevocations() {
+        LocalDateTime now = LocalDateTime.now();
+        // Overlap the previous run so rows committed while it was reading are not missed
+        LocalDateTime since = lastSync.minus(Duration.ofMillis(syncIntervalMs));
+        List<RevokedToken> revoked = revokedTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(since, now);
+        for (RevokedToken token : revoked) {
+            filter.put(token.getJti(), token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        lastSync = now;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.cleanup-interval-ms:3600000}",
+            initialDelayString = "${app.jwt.revocation.cleanup-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            logger.info("Purged {} expired token revocations", purged);
+        }
+    }
+
+    // Reads the raw exp claim (seconds) so the check does not create a Date per request
+    private static long expiresAtMillis(Claims claims) {
+        Object expiration = claims.get(Claims.EXPIRATION);
+        if (expiration instanceof Number) {
+            return ((Number) expiration).longValue() * 1000;
+        }
+        // All issued tokens have an expiration, one without is treated as not revocable
+        Date date = claims.getExpiration();
+        return date != null ? date.getTime() : 0L;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
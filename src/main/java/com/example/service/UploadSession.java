@@ -0,0 +1,56 @@
+package com.example.service;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.example.dto.DocumentUploadRequest;
+
+import lombok.Getter;
+
+/**
+ * State of one chunked upload. Chunks may arrive concurrently and in any order,
+ * so the set of received indexes is concurrent and completion is claimed once.
+ * Chunk writes share the read side of {@code chunkLock}, assembly takes the write
+ * side, so no chunk file is replaced while it is being concatenated.
+ */
+@Getter
+public class UploadSession {
+    private final String id;
+    private final String username;
+    private final DocumentUploadRequest metadata;
+    private final String fileName;
+    private final long fileSize;
+    private final long chunkSize;
+    private final int chunkCount;
+    private final Set<Integer> receivedChunks = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean completing = new AtomicBoolean();
+    private final ReadWriteLock chunkLock = new ReentrantReadWriteLock();
+    private volatile Instant lastActivity = Instant.now();
+
+    public UploadSession(String id, String username, DocumentUploadRequest metadata, String fileName,
+            long fileSize, long chunkSize) {
+        this.id = id;
+        this.username = username;
+        this.metadata = metadata;
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.chunkSize = chunkSize;
+        this.chunkCount = (int) ((fileSize + chunkSize - 1) / chunkSize);
+    }
+
+    public long expectedChunkSize(int index) {
+        return index == chunkCount - 1 ? fileSize - (long) index * chunkSize : chunkSize;
+    }
+
+    public boolean isComplete() {
+        return receivedChunks.size() == chunkCount;
+    }
+
+    public void touch() {
+        lastActivity = Instant.now();
+    }
+}
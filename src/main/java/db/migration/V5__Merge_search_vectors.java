@@ -0,0 +1,62 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Moves the search text of documents whose extracted text was split over several
+ * document_contents rows onto their first row, where keyword search now expects the
+ * whole text. Each row used to carry the search text of its own chunk only, so a
+ * phrase across a chunk boundary did not match.
+ * <p>
+ * content_text is left as it is: the chunks stay valid, and rows written before
+ * compression was enabled are read back unchanged by CompressedTextConverter and
+ * compressed the next time the document is processed.
+ */
+public class V5__Merge_search_vectors extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+
+        List<Long> documentIds = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "SELECT document_id FROM document_contents GROUP BY document_id HAVING COUNT(*) > 1")) {
+            while (rows.next()) {
+                documentIds.add(rows.getLong(1));
+            }
+        }
+
+        try (PreparedStatement select = connection.prepareStatement(
+                     "SELECT search_vector FROM document_contents WHERE document_id = ? ORDER BY chunk_index");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE document_contents SET search_vector = CASE WHEN chunk_index = 0 THEN ? END " +
+                     "WHERE document_id = ?")) {
+            for (Long documentId : documentIds) {
+                // Chunks were cut at whitespace, which normalization had trimmed from each of them
+                StringJoiner merged = new StringJoiner(" ");
+                select.setLong(1, documentId);
+                try (ResultSet chunks = select.executeQuery()) {
+                    while (chunks.next()) {
+                        String searchVector = chunks.getString(1);
+                        if (searchVector != null && !searchVector.isEmpty()) {
+                            merged.add(searchVector);
+                        }
+                    }
+                }
+                update.setString(1, merged.toString());
+                update.setLong(2, documentId);
+                update.executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+-- Baseline schema matching the entities, previously generated by Hibernate (ddl-auto=update)
+
+CREATE TABLE roles (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(20)
+);
+
+CREATE TABLE users (
+    id BIGINT PRIMARY KEY,
+    username VARCHAR(20) NOT NULL,
+    email VARCHAR(50) NOT NULL,
+    password VARCHAR(120) NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role_id INT NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+);
+
+CREATE TABLE tags (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL,
+    description VARCHAR(255),
+    CONSTRAINT uk_tags_name UNIQUE (name)
+);
+
+CREATE TABLE documents (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    file_path VARCHAR(255),
+    file_type VARCHAR(255),
+    file_size BIGINT,
+    checksum VARCHAR(64),
+    author_id BIGINT,
+    indexed BOOLEAN DEFAULT FALSE NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    CONSTRAINT fk_documents_author FOREIGN KEY (author_id) REFERENCES users (id)
+);
+
+CREATE TABLE document_tags (
+    document_id BIGINT NOT NULL,
+    tag_id BIGINT NOT NULL,
+    PRIMARY KEY (document_id, tag_id),
+    CONSTRAINT fk_document_tags_document FOREIGN KEY (document_id) REFERENCES documents (id) ON DELETE CASCADE,
+    CONSTRAINT fk_document_tags_tag FOREIGN KEY (tag_id) REFERENCES tags (id) ON DELETE CASCADE
+);
+
+CREATE TABLE document_contents (
+    id BIGINT PRIMARY KEY,
+    document_id BIGINT NOT NULL,
+    chunk_index INT NOT NULL,
+    content_text TEXT,
+    search_vector TEXT,
+    CONSTRAINT uk_document_contents_chunk UNIQUE (document_id, chunk_index),
+    CONSTRAINT fk_document_contents_document FOREIGN KEY (document_id) REFERENCES documents (id) ON DELETE CASCADE
+);
+
+-- Hibernate takes blocks of 50 ids at a time (pooled-lo)
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE tags_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE documents_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE document_contents_seq START WITH 1 INCREMENT BY 50;
+
+-- Signup assigns these roles, they must exist before the first user registers
+INSERT INTO roles (name) VALUES ('ROLE_ADMIN'), ('ROLE_EDITOR'), ('ROLE_VIEWER');
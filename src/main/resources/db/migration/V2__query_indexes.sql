@@ -0,0 +1,23 @@
+-- Secondary indexes matching the repository queries, the trailing created_at column lets
+-- the default createdAt sort read rows in index order instead of sorting them
+
+-- DocumentRepository.findByAuthor, findSummariesByAuthorId, criteria search by author
+CREATE INDEX idx_documents_author_created ON documents (author_id, created_at);
+
+-- DocumentRepository.findByFileType, criteria search by file type
+CREATE INDEX idx_documents_type_created ON documents (file_type, created_at);
+
+-- DocumentRepository.findByDateRange, criteria search by date, createdAt sorting of all listings
+CREATE INDEX idx_documents_created ON documents (created_at);
+
+-- DocumentRepository.findByIndexed, only the unprocessed documents are ever requested
+CREATE INDEX idx_documents_indexed_created ON documents (indexed, created_at);
+
+-- DocumentRepository.findByTitle
+CREATE INDEX idx_documents_title ON documents (title);
+
+-- Documents by tag, the primary key only covers the document_id -> tag_id direction
+CREATE INDEX idx_document_tags_tag ON document_tags (tag_id, document_id);
+
+-- Role lookups by name during signup
+CREATE INDEX idx_roles_name ON roles (name);
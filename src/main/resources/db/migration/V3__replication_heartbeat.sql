@@ -0,0 +1,7 @@
+-- Written on the primary and read on the replica to measure replication lag (ReplicaLagMonitor)
+CREATE TABLE replication_heartbeat (
+    id INT PRIMARY KEY,
+    beat_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, CURRENT_TIMESTAMP);
@@ -0,0 +1,12 @@
+-- Tokens revoked by logout, kept until they expire (TokenRevocationService)
+CREATE TABLE revoked_tokens (
+    jti VARCHAR(36) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL
+);
+
+-- Periodic sync of revocations made on other instances
+CREATE INDEX idx_revoked_tokens_revoked ON revoked_tokens (revoked_at);
+
+-- Purge of expired revocations
+CREATE INDEX idx_revoked_tokens_expires ON revoked_tokens (expires_at);
@@ -0,0 +1,125 @@
+package com.example.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.entity.Document;
+import com.example.repository.DocumentRepository;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares inserting documents with IDENTITY ids (one round-trip per row, batching
+ * disabled by Hibernate) against the sequence ids used by the entities (JDBC batches).
+ * Run with {@code mvn test -Dtest=BulkInsertBenchmark -Dbenchmark=true}.
+ */
+@DataJpaTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+		// Lets Hibernate add the benchmark table next to the migrated schema
+		"spring.jpa.hibernate.ddl-auto=update",
+		"spring.jpa.show-sql=false",
+		"logging.level.org.hibernate.SQL=WARN",
+		"logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+public class BulkInsertBenchmark {
+
+	private static final int ROWS = 20_000;
+	private static final int BATCH = 500;
+	private static final int ROUNDS = 3;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private DocumentRepository documentRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	public void benchmarkBulkInsert() {
+		// Warm up both paths before measuring
+		insertIdentityRows(BATCH);
+		insertDocuments(BATCH);
+
+		long identityNanos = Long.MAX_VALUE;
+		long sequenceNanos = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			insertIdentityRows(ROWS);
+			identityNanos = Math.min(identityNanos, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			insertDocuments(ROWS);
+			sequenceNanos = Math.min(sequenceNanos, System.nanoTime() - start);
+		}
+
+		System.out.printf("IDENTITY ids: %,.0f rows/s%n", ROWS / (identityNanos / 1e9));
+		System.out.printf("SEQUENCE ids: %,.0f rows/s (%.1fx)%n", ROWS / (sequenceNanos / 1e9),
+				(double) identityNanos / sequenceNanos);
+		assertEquals((long) BATCH + ROUNDS * ROWS, documentRepository.count());
+	}
+
+	private void insertDocuments(int rows) {
+		for (int start = 0; start < rows; start += BATCH) {
+			List<Document> documents = new ArrayList<>(BATCH);
+			for (int i = start; i < Math.min(start + BATCH, rows); i++) {
+				documents.add(Document.builder().title("Document " + i).filePath("file-" + i + ".txt")
+						.fileType("text/plain").fileSize(1024L).build());
+			}
+			transactionTemplate.executeWithoutResult(status -> {
+				documentRepository.saveAll(documents);
+				entityManager.flush();
+				entityManager.clear();
+			});
+		}
+	}
+
+	private void insertIdentityRows(int rows) {
+		for (int start = 0; start < rows; start += BATCH) {
+			int first = start;
+			transactionTemplate.executeWithoutResult(status -> {
+				for (int i = first; i < Math.min(first + BATCH, rows); i++) {
+					IdentityDocument document = new IdentityDocument();
+					document.title = "Document " + i;
+					document.filePath = "file-" + i + ".txt";
+					document.fileType = "text/plain";
+					document.fileSize = 1024L;
+					entityManager.persist(document);
+				}
+				entityManager.flush();
+				entityManager.clear();
+			});
+		}
+	}
+
+	// Same columns as documents but with the id strategy the entities used before
+	@Entity
+	@Table(name = "benchmark_identity_documents")
+	public static class IdentityDocument {
+		@Id
+		@GeneratedValue(strategy = GenerationType.IDENTITY)
+		Long id;
+		String title;
+		String filePath;
+		String fileType;
+		Long fileSize;
+	}
+}
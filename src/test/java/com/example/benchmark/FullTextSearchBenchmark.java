@@ -0,0 +1,136 @@
+package com.example.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.config.FullTextIndexInitializer;
+import com.example.repository.DocumentRepository;
+import com.example.repository.DocumentSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares keyword search through LIKE against H2's full-text index at growing table
+ * sizes. One document in a thousand contains the searched word.
+ * Run with {@code mvn test -Dtest=FullTextSearchBenchmark -Dbenchmark=true}, the sizes
+ * can be changed with {@code -Dbenchmark.sizes=10000,100000}.
+ */
+@DataJpaTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(FullTextIndexInitializer.class)
+@TestPropertySource(properties = {
+		"app.search.mode=fulltext",
+		"spring.jpa.show-sql=false",
+		"logging.level.org.hibernate.SQL=WARN",
+		"logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+public class FullTextSearchBenchmark {
+
+	private static final int BATCH = 1000;
+	private static final int WORDS_PER_DOCUMENT = 80;
+	private static final int VOCABULARY = 20_000;
+	private static final int WARMUP = 3;
+	private static final int ROUNDS = 10;
+	private static final String KEYWORD = "needle";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DocumentRepository documentRepository;
+
+	@Autowired
+	private FullTextIndexInitializer fullTextIndexInitializer;
+
+	@Test
+	public void benchmarkKeywordSearch() {
+		String sizes = System.getProperty("benchmark.sizes", "10000,100000,1000000");
+		for (String size : sizes.split(",")) {
+			int documents = Integer.parseInt(size.trim());
+			loadDocuments(documents);
+
+			long indexStart = System.nanoTime();
+			fullTextIndexInitializer.initialize();
+			long indexMillis = (System.nanoTime() - indexStart) / 1_000_000;
+
+			PageRequest likePage = PageRequest.of(0, 20, Sort.by("createdAt").descending());
+			PageRequest nativePage = PageRequest.of(0, 20, Sort.by("created_at").descending());
+			Page<DocumentSummary> likeResult = documentRepository.searchSummaries(KEYWORD, KEYWORD, likePage);
+			Page<DocumentSummary> fullTextResult = documentRepository.searchSummariesFullText(KEYWORD, nativePage);
+			assertEquals(likeResult.getTotalElements(), fullTextResult.getTotalElements());
+
+			double likeMillis = measure(() -> documentRepository.searchSummaries(KEYWORD, KEYWORD, likePage));
+			double fullTextMillis = measure(() -> documentRepository.searchSummariesFullText(KEYWORD, nativePage));
+
+			System.out.printf("%,d documents (%,d matches, index built in %,d ms): LIKE %.1f ms, FULLTEXT %.1f ms (%.1fx)%n",
+					documents, fullTextResult.getTotalElements(), indexMillis, likeMillis, fullTextMillis,
+					likeMillis / fullTextMillis);
+		}
+	}
+
+	// Median of the measured rounds in milliseconds
+	private double measure(Supplier<Page<DocumentSummary>> search) {
+		for (int i = 0; i < WARMUP; i++) {
+			search.get();
+		}
+		long[] nanos = new long[ROUNDS];
+		for (int i = 0; i < ROUNDS; i++) {
+			long start = System.nanoTime();
+			search.get();
+			nanos[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(nanos);
+		return nanos[ROUNDS / 2] / 1e6;
+	}
+
+	private void loadDocuments(int documents) {
+		// Drop the indexes first so the rows are indexed in one pass instead of through the triggers
+		jdbcTemplate.execute("CALL FT_DROP_ALL()");
+		jdbcTemplate.execute("DELETE FROM document_contents");
+		jdbcTemplate.execute("DELETE FROM documents");
+
+		Random random = new Random(42);
+		for (int start = 0; start < documents; start += BATCH) {
+			List<Object[]> documentRows = new ArrayList<>(BATCH);
+			List<Object[]> contentRows = new ArrayList<>(BATCH);
+			for (long id = start + 1; id <= Math.min(start + BATCH, documents); id++) {
+				String text = randomText(random, id % 1000 == 0);
+				documentRows.add(new Object[] { id, "Document " + id, "Generated document " + id });
+				contentRows.add(new Object[] { id, id, text, text });
+			}
+			jdbcTemplate.batchUpdate("INSERT INTO documents (id, title, description, file_type, file_size, indexed, "
+					+ "created_at, updated_at) VALUES (?, ?, ?, 'text/plain', 1024, TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+					documentRows);
+			jdbcTemplate.batchUpdate("INSERT INTO document_contents (id, document_id, chunk_index, content_text, "
+					+ "search_vector) VALUES (?, ?, 0, ?, ?)", contentRows);
+		}
+	}
+
+	private String randomText(Random random, boolean withKeyword) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < WORDS_PER_DOCUMENT; i++) {
+			text.append("term").append(random.nextInt(VOCABULARY)).append(' ');
+		}
+		if (withKeyword) {
+			text.append(KEYWORD);
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,167 @@
+package com.example.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.DocumentManagementApplication;
+import com.example.config.VirtualThreads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Load test of authenticated document listings, once on platform threads (Tomcat's pool
+ * and the bulkhead pools) and once in virtual thread mode, each against a freshly
+ * started application. Prints throughput and p99 latency of both runs.
+ * Run on JDK 21 with {@code mvn test -Dtest=VirtualThreadLoadBenchmark -Dbenchmark=true},
+ * load can be changed with {@code -Dbenchmark.concurrency=500 -Dbenchmark.requests=20000}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class VirtualThreadLoadBenchmark {
+
+	private static final int DOCUMENTS = 2000;
+	private static final int WARMUP = 2000;
+	private static final String SECRET = Base64.getEncoder().encodeToString(
+			"load-test-secret-that-is-long-enough-for-hs512-signatures-0123456789".getBytes(StandardCharsets.UTF_8));
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	public void benchmarkRequestHandling() throws Exception {
+		assumeTrue(VirtualThreads.isSupported(), "virtual threads need JDK 21");
+		int concurrency = Integer.getInteger("benchmark.concurrency", 500);
+		int requests = Integer.getInteger("benchmark.requests", 20_000);
+
+		Result platform = run(false, concurrency, requests);
+		Result virtual = run(true, concurrency, requests);
+
+		for (Result result : Arrays.asList(platform, virtual)) {
+			System.out.printf("%s threads, %d concurrent: %.0f req/s, p50 %.1f ms, p99 %.1f ms, %d failed%n",
+					result.mode, concurrency, result.throughput, result.p50Millis, result.p99Millis, result.failed);
+		}
+	}
+
+	private Result run(boolean virtualThreads, int concurrency, int requests) throws Exception {
+		String mode = virtualThreads ? "virtual" : "platform";
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DocumentManagementApplication.class)
+				.properties(
+						"server.port=0",
+						"spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+						"app.threads.virtual.enabled=" + virtualThreads,
+						"app.jwt.secret=" + SECRET,
+						// Wide enough that the runs compare threading, not bulkhead rejections
+						"app.bulkhead.reads.threads=200",
+						"app.bulkhead.reads.queue-capacity=" + (concurrency * 2),
+						"app.rate-limit.enabled=false",
+						"spring.jpa.show-sql=false",
+						"logging.level.root=WARN")
+				.run()) {
+			int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+			loadDocuments(context.getBean(JdbcTemplate.class));
+
+			HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+			String baseUrl = "http://localhost:" + port;
+			String token = login(client, baseUrl);
+			HttpRequest listing = HttpRequest.newBuilder(URI.create(baseUrl + "/api/documents?page=0&size=20"))
+					.header("Authorization", "Bearer " + token).GET().build();
+
+			fire(client, listing, concurrency, WARMUP);
+			return fire(client, listing, concurrency, requests).named(mode);
+		}
+	}
+
+	private Result fire(HttpClient client, HttpRequest request, int concurrency, int requests) throws Exception {
+		Semaphore inFlight = new Semaphore(concurrency);
+		long[] nanos = new long[requests];
+		AtomicInteger failed = new AtomicInteger();
+		List<CompletableFuture<?>> futures = new ArrayList<>(requests);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < requests; i++) {
+			int index = i;
+			inFlight.acquire();
+			long sent = System.nanoTime();
+			futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+				nanos[index] = System.nanoTime() - sent;
+				if (e != null || response.statusCode() != 200) {
+					failed.incrementAndGet();
+				}
+				inFlight.release();
+			}));
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		Arrays.sort(nanos);
+		return new Result(requests / seconds, nanos[requests / 2] / 1e6, nanos[requests * 99 / 100] / 1e6,
+				failed.get());
+	}
+
+	private String login(HttpClient client, String baseUrl) throws Exception {
+		String signup = "{\"username\":\"loadtest\",\"email\":\"loadtest@example.com\",\"password\":\"password123\","
+				+ "\"roles\":[\"viewer\"]}";
+		HttpResponse<String> registered = client.send(post(baseUrl + "/api/auth/register", signup),
+				HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, registered.statusCode(), registered.body());
+
+		HttpResponse<String> response = client.send(
+				post(baseUrl + "/api/auth/login", "{\"username\":\"loadtest\",\"password\":\"password123\"}"),
+				HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, response.statusCode(), response.body());
+		return (String) objectMapper.readValue(response.body(), Map.class).get("token");
+	}
+
+	private HttpRequest post(String url, String json) {
+		return HttpRequest.newBuilder(URI.create(url)).header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json)).build();
+	}
+
+	private void loadDocuments(JdbcTemplate jdbcTemplate) {
+		List<Object[]> rows = new ArrayList<>(DOCUMENTS);
+		for (long id = 1; id <= DOCUMENTS; id++) {
+			rows.add(new Object[] { id, "Document " + id, "Generated document " + id });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO documents (id, title, description, file_type, file_size, indexed, "
+				+ "created_at, updated_at) VALUES (?, ?, ?, 'text/plain', 1024, TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+				rows);
+	}
+
+	private static final class Result {
+		private final double throughput;
+		private final double p50Millis;
+		private final double p99Millis;
+		private final int failed;
+		private String mode;
+
+		Result(double throughput, double p50Millis, double p99Millis, int failed) {
+			this.throughput = throughput;
+			this.p50Millis = p50Millis;
+			this.p99Millis = p99Millis;
+			this.failed = failed;
+		}
+
+		Result named(String mode) {
+			this.mode = mode;
+			return this;
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package com.example.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.config.AdmissionControlFilter.EndpointClass;
+
+import java.util.Collections;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControlFilterTest {
+
+	private RateLimitProperties properties;
+
+	@BeforeEach
+	public void setup() {
+		// Small buckets that do not noticeably refill during a test
+		properties = new RateLimitProperties();
+		properties.setUser(new RateLimitProperties.Bucket(20, 0.001));
+		properties.setRead(new RateLimitProperties.Endpoint(1, 1000, 0.001));
+		properties.setQa(new RateLimitProperties.Endpoint(10, 1000, 0.001));
+		properties.setSearch(new RateLimitProperties.Endpoint(5, 5, 0.001));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void testCallerLimit_Returns429WithRetryAfter() throws Exception {
+		// Setup
+		AdmissionControlFilter filter = new AdmissionControlFilter(properties);
+		authenticate("testuser");
+		for (int i = 0; i < 20; i++) {
+			assertEquals(200, send(filter, "GET", "/api/documents").getStatus());
+		}
+
+		// Execute
+		MockHttpServletResponse response = send(filter, "GET", "/api/documents");
+
+		// Verify
+		assertEquals(429, response.getStatus());
+		assertTrue(Long.parseLong(response.getHeader("Retry-After")) >= 1);
+		assertTrue(response.getContentAsString().contains("Too Many Requests"));
+		assertEquals(1, filter.getRejectedCount(EndpointClass.READ));
+	}
+
+	@Test
+	public void testWeights_QaCostsMoreThanRead() throws Exception {
+		// Setup
+		AdmissionControlFilter filter = new AdmissionControlFilter(properties);
+		authenticate("testuser");
+
+		// Execute - the 20 token bucket holds two questions
+		int first = send(filter, "POST", "/api/qa/question").getStatus();
+		int second = send(filter, "POST", "/api/qa/question").getStatus();
+		int third = send(filter, "POST", "/api/qa/question").getStatus();
+
+		// Verify
+		assertEquals(200, first);
+		assertEquals(200, second);
+		assertEquals(429, third);
+		assertEquals(1, filter.getRejectedCount(EndpointClass.QA));
+	}
+
+	@Test
+	public void testCallers_HaveSeparateBuckets() throws Exception {
+		// Setup
+		AdmissionControlFilter filter = new AdmissionControlFilter(properties);
+		authenticate("user1");
+		send(filter, "POST", "/api/qa/question");
+		send(filter, "POST", "/api/qa/question");
+		assertEquals(429, send(filter, "POST", "/api/qa/question").getStatus());
+
+		// Execute
+		authenticate("user2");
+		MockHttpServletResponse response = send(filter, "POST", "/api/qa/question");
+
+		// Verify
+		assertEquals(200, response.getStatus());
+	}
+
+	@Test
+	public void testEndpointLimit_SharedByCallersAndRefundsCaller() throws Exception {
+		// Setup - the search class holds a single search for everyone
+		AdmissionControlFilter filter = new AdmissionControlFilter(properties);
+		authenticate("user1");
+		assertEquals(200, send(filter, "GET", "/api/documents/search").getStatus());
+
+		// Execute
+		authenticate("user2");
+		MockHttpServletResponse rejected = send(filter, "GET", "/api/documents/search");
+
+		// Verify - user2 got its tokens back and can still read 20 times
+		assertEquals(429, rejected.getStatus());
+		for (int i = 0; i < 20; i++) {
+			assertEquals(200, send(filter, "GET", "/api/documents").getStatus());
+		}
+	}
+
+	@Test
+	public void testStatistics_PublishedOverJmx() throws Exception {
+		// Setup - the search class holds a single search for everyone
+		AdmissionControlFilter filter = new AdmissionControlFilter(properties);
+		MBeanServer server = MBeanServerFactory.newMBeanServer();
+		ObjectName search = new ObjectName("com.example:type=AdmissionControl,name=search");
+		server.registerMBean(filter.statistics(EndpointClass.SEARCH), search);
+		authenticate("user1");
+
+		// Execute
+		send(filter, "GET", "/api/documents/search");
+		send(filter, "GET", "/api/documents/search");
+
+		// Verify
+		assertEquals(1L, server.getAttribute(search, "AdmittedCount"));
+		assertEquals(0L, server.getAttribute(search, "CallerRejectedCount"));
+		assertEquals(1L, server.getAttribute(search, "EndpointRejectedCount"));
+	}
+
+	@Test
+	public void testNonApiAndDisabled_NotLimited() throws Exception {
+		// Setup
+		properties.setUser(new RateLimitProperties.Bucket(1, 0.001));
+		AdmissionControlFilter filter = new AdmissionControlFilter(properties);
+
+		// Execute & Verify
+		for (int i = 0; i < 5; i++) {
+			assertEquals(200, send(filter, "GET", "/swagger-ui.html").getStatus());
+		}
+
+		properties.setEnabled(false);
+		for (int i = 0; i < 5; i++) {
+			assertEquals(200, send(filter, "GET", "/api/documents").getStatus());
+		}
+	}
+
+	@Test
+	public void testClassify() {
+		assertEquals(EndpointClass.QA, AdmissionControlFilter.classify(request("POST", "/api/qa/question")));
+		assertEquals(EndpointClass.SEARCH, AdmissionControlFilter.classify(request("GET", "/api/documents/search")));
+		assertEquals(EndpointClass.UPLOAD, AdmissionControlFilter.classify(request("POST", "/api/documents/upload")));
+		assertEquals(EndpointClass.UPLOAD, AdmissionControlFilter.classify(request("POST", "/api/documents/bulk")));
+		assertEquals(EndpointClass.UPLOAD, AdmissionControlFilter.classify(request("POST", "/api/documents/uploads")));
+		assertEquals(EndpointClass.WRITE,
+				AdmissionControlFilter.classify(request("PUT", "/api/documents/uploads/abc/chunks/0")));
+		assertEquals(EndpointClass.READ, AdmissionControlFilter.classify(request("GET", "/api/documents/1")));
+		assertEquals(EndpointClass.WRITE, AdmissionControlFilter.classify(request("DELETE", "/api/documents/1")));
+	}
+
+	private void authenticate(String username) {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(username, null, Collections.emptyList()));
+	}
+
+	private MockHttpServletResponse send(AdmissionControlFilter filter, String method, String path) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request(method, path), response, new MockFilterChain());
+		return response;
+	}
+
+	private MockHttpServletRequest request(String method, String path) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		request.setServletPath(path);
+		return request;
+	}
+}
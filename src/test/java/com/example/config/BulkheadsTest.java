@@ -0,0 +1,143 @@
+package com.example.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jmx.export.MBeanExporter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.exception.BulkheadFullException;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class BulkheadsTest {
+
+	private Bulkheads bulkheads;
+	private CountDownLatch release;
+
+	@BeforeEach
+	public void setup() {
+		BulkheadProperties properties = new BulkheadProperties();
+		properties.setSearch(new BulkheadProperties.Pool(1, 1));
+		bulkheads = new Bulkheads(properties);
+		release = new CountDownLatch(1);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		release.countDown();
+		SecurityContextHolder.clearContext();
+		bulkheads.shutdown();
+	}
+
+	@Test
+	public void testSecurityContext_Propagated() throws Exception {
+		// Setup
+		Authentication authentication = new UsernamePasswordAuthenticationToken("testuser", null,
+				Collections.emptyList());
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+
+		// Execute
+		String name = CompletableFuture
+				.supplyAsync(() -> SecurityContextHolder.getContext().getAuthentication().getName(), bulkheads.reads())
+				.get(5, TimeUnit.SECONDS);
+
+		// Verify
+		assertEquals("testuser", name);
+	}
+
+	@Test
+	public void testFullBulkhead_RejectsAndCounts() {
+		// Setup - one running and one queued search fill the pool
+		CompletableFuture.runAsync(this::awaitRelease, bulkheads.search());
+		CompletableFuture.runAsync(this::awaitRelease, bulkheads.search());
+
+		// Execute and Verify
+		assertThrows(BulkheadFullException.class, () -> CompletableFuture.runAsync(this::awaitRelease, bulkheads.search()));
+		assertEquals(1, bulkheads.getRejectedCount(Bulkheads.Workload.SEARCH));
+	}
+
+	@Test
+	public void testStatistics_PublishedOverJmx() throws Exception {
+		// Setup
+		MBeanServer server = MBeanServerFactory.newMBeanServer();
+		MBeanExporter exporter = new BulkheadConfig(new BulkheadProperties()).bulkheadMBeanExporter(bulkheads);
+		exporter.setServer(server);
+		exporter.afterPropertiesSet();
+		exporter.afterSingletonsInstantiated();
+		CompletableFuture.runAsync(this::awaitRelease, bulkheads.search());
+		CompletableFuture.runAsync(this::awaitRelease, bulkheads.search());
+		assertThrows(BulkheadFullException.class, () -> CompletableFuture.runAsync(this::awaitRelease, bulkheads.search()));
+
+		try {
+			// Execute
+			ObjectName search = new ObjectName("com.example:type=Bulkhead,name=search");
+
+			// Verify
+			assertEquals(1L, server.getAttribute(search, "RejectedCount"));
+			assertEquals(1, server.getAttribute(search, "ConcurrencyLimit"));
+			assertTrue(server.isRegistered(new ObjectName("com.example:type=Bulkhead,name=reads")));
+		} finally {
+			exporter.destroy();
+		}
+	}
+
+	@Test
+	public void testFullSearch_ReadsStillServed() throws Exception {
+		// Setup
+		CompletableFuture.runAsync(this::awaitRelease, bulkheads.search());
+		CompletableFuture.runAsync(this::awaitRelease, bulkheads.search());
+
+		// Execute
+		String result = CompletableFuture.supplyAsync(() -> "read", bulkheads.reads()).get(5, TimeUnit.SECONDS);
+
+		// Verify
+		assertEquals("read", result);
+		assertEquals(0, bulkheads.getRejectedCount(Bulkheads.Workload.READS));
+	}
+
+	@Test
+	public void testVirtualThreads_SameLimitsAndContext() throws Exception {
+		assumeTrue(VirtualThreads.isSupported(), "needs JDK 21");
+
+		// Setup
+		bulkheads.shutdown();
+		BulkheadProperties properties = new BulkheadProperties();
+		properties.setSearch(new BulkheadProperties.Pool(1, 1));
+		bulkheads = new Bulkheads(properties, true);
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken("testuser", null, Collections.emptyList()));
+
+		// Execute
+		String name = CompletableFuture
+				.supplyAsync(() -> SecurityContextHolder.getContext().getAuthentication().getName(), bulkheads.reads())
+				.get(5, TimeUnit.SECONDS);
+		CompletableFuture.runAsync(this::awaitRelease, bulkheads.search());
+		CompletableFuture.runAsync(this::awaitRelease, bulkheads.search());
+
+		// Verify
+		assertEquals("testuser", name);
+		assertThrows(BulkheadFullException.class, () -> CompletableFuture.runAsync(this::awaitRelease, bulkheads.search()));
+		assertEquals(1, bulkheads.getRejectedCount(Bulkheads.Workload.SEARCH));
+	}
+
+	private void awaitRelease() {
+		try {
+			release.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
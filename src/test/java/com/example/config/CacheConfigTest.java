@@ -0,0 +1,160 @@
+package com.example.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import com.example.dto.DocumentDetails;
+import com.example.service.DocumentDetailsLoader;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheConfigTest {
+
+	private Cache documentCache;
+	private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache;
+	private AtomicInteger loads;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	public void setup() {
+		DocumentCacheProperties properties = new DocumentCacheProperties();
+		properties.setMaximumWeight(DataSize.ofKilobytes(8));
+		properties.setRefreshAfterWrite(Duration.ofMillis(50));
+		loads = new AtomicInteger();
+		DocumentDetailsLoader loader = new DocumentDetailsLoader(null, null) {
+			@Override
+			public DocumentDetails loadDetails(Long id) {
+				loads.incrementAndGet();
+				return details(id);
+			}
+		};
+		CacheManager cacheManager = new CacheConfig().cacheManager(properties, loader);
+
+		documentCache = cacheManager.getCache(CacheConfig.DOCUMENT_CACHE);
+		nativeCache = (com.github.benmanes.caffeine.cache.Cache<Object, Object>)
+				((TransactionAwareCacheDecorator) documentCache).getTargetCache().getNativeCache();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	public void testDocumentCache_BoundedByWeight() {
+		// Execute
+		for (long id = 1; id <= 100; id++) {
+			documentCache.put(id, details(id));
+		}
+		nativeCache.cleanUp();
+
+		// Verify - each snapshot weighs several hundred bytes, 8 KB holds far fewer than 100
+		assertTrue(nativeCache.estimatedSize() < 100);
+		assertTrue(nativeCache.stats().evictionCount() > 0);
+	}
+
+	@Test
+	public void testDocumentCache_RecordsStatistics() {
+		// Setup
+		documentCache.put(1L, details(1L));
+
+		// Execute - the miss is loaded through DocumentDetailsLoader
+		documentCache.get(1L);
+		documentCache.get(2L);
+
+		// Verify
+		assertEquals(1, nativeCache.stats().hitCount());
+		assertEquals(1, nativeCache.stats().missCount());
+	}
+
+	@Test
+	public void testEvict_DeferredUntilCommit() {
+		// Setup
+		documentCache.put(1L, details(1L));
+		TransactionSynchronizationManager.initSynchronization();
+
+		// Execute
+		documentCache.evict(1L);
+
+		// Verify - still visible until the transaction commits
+		assertNotNull(nativeCache.getIfPresent(1L));
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCommit();
+		}
+		assertNull(nativeCache.getIfPresent(1L));
+	}
+
+	@Test
+	public void testConcurrentMisses_LoadOnce() throws Exception {
+		// Setup
+		int threads = 16;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger valueLoads = new AtomicInteger();
+		List<Future<DocumentDetails>> results = new ArrayList<>();
+
+		// Execute - the same path @Cacheable(sync = true) takes on a miss
+		for (int i = 0; i < threads; i++) {
+			results.add(executor.submit(() -> {
+				start.await();
+				return documentCache.get(1L, () -> {
+					valueLoads.incrementAndGet();
+					Thread.sleep(100);
+					return details(1L);
+				});
+			}));
+		}
+		start.countDown();
+		for (Future<DocumentDetails> result : results) {
+			assertEquals(1L, result.get(5, TimeUnit.SECONDS).getId());
+		}
+		executor.shutdown();
+
+		// Verify
+		assertEquals(1, valueLoads.get());
+	}
+
+	@Test
+	public void testHotEntry_RefreshedInBackground() throws Exception {
+		// Setup
+		documentCache.put(1L, details(1L));
+		Thread.sleep(100);
+
+		// Execute - a read after refreshAfterWrite still returns the cached value and triggers a reload
+		assertNotNull(documentCache.get(1L));
+		long deadline = System.currentTimeMillis() + 5000;
+		while (loads.get() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+
+		// Verify
+		assertEquals(1, loads.get());
+		assertNotNull(documentCache.get(1L));
+	}
+
+	private DocumentDetails details(long id) {
+		return DocumentDetails.builder().id(id).title("Document " + id).description("Description of document " + id)
+				.filePath("file-" + id + ".txt").fileType("text/plain").fileSize(10L).authorUsername("author")
+				.tags(Collections.singleton("report")).build();
+	}
+}
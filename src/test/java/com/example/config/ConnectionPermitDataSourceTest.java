@@ -0,0 +1,55 @@
+package com.example.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPermitDataSourceTest {
+
+	private ConnectionPermitDataSource dataSource;
+
+	@BeforeEach
+	public void setup() {
+		JdbcDataSource target = new JdbcDataSource();
+		target.setURL("jdbc:h2:mem:permits;DB_CLOSE_DELAY=-1");
+		target.setUser("sa");
+		dataSource = new ConnectionPermitDataSource(target, 2, 100);
+	}
+
+	@Test
+	public void testPermitsExhausted_WaitsThenFails() throws Exception {
+		// Setup
+		Connection first = dataSource.getConnection();
+		Connection second = dataSource.getConnection();
+
+		// Execute and Verify
+		assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+		assertEquals(0, dataSource.getAvailablePermits());
+
+		first.close();
+		second.close();
+	}
+
+	@Test
+	public void testClose_ReleasesPermitOnce() throws Exception {
+		// Setup
+		Connection connection = dataSource.getConnection();
+		assertEquals(1, dataSource.getAvailablePermits());
+
+		// Execute
+		connection.close();
+		connection.close();
+
+		// Verify
+		assertEquals(2, dataSource.getAvailablePermits());
+		assertTrue(connection.isClosed());
+		try (Connection next = dataSource.getConnection()) {
+			assertTrue(next.isValid(1));
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.example.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import com.example.entity.Role;
+import com.example.entity.User;
+import com.example.service.UserDetailsImpl;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.io.Encoders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilsTest {
+
+	private static final String SECRET = Encoders.BASE64
+			.encode("a-test-secret-that-is-long-enough-for-hs512-signatures-0123456789".getBytes(StandardCharsets.UTF_8));
+
+	private JwtUtils jwtUtils;
+	private Authentication authentication;
+
+	@BeforeEach
+	public void setup() {
+		jwtUtils = new JwtUtils(SECRET, 60_000, false, 60_000, 100, 60_000);
+		Role editor = Role.builder().id(2).name(Role.ERole.ROLE_EDITOR).build();
+		User user = User.builder().id(1L).username("testuser").email("testuser@example.com").password("secret")
+				.roles(Collections.singleton(editor)).build();
+		authentication = new UsernamePasswordAuthenticationToken(UserDetailsImpl.build(user), null);
+	}
+
+	@Test
+	public void testValidToken_VerifiedOnceThenCached() {
+		// Setup
+		String token = jwtUtils.generateJwtToken(authentication);
+
+		// Execute
+		Claims first = jwtUtils.getValidClaims(token);
+		Claims second = jwtUtils.getValidClaims(token);
+
+		// Verify - the repeat lookup returns the claims of the first parse
+		assertEquals("testuser", first.getSubject());
+		assertSame(first, second);
+		assertEquals("testuser", jwtUtils.getUserNameFromJwtToken(token));
+	}
+
+	@Test
+	public void testTamperedToken_Rejected() {
+		// Setup
+		String token = jwtUtils.generateJwtToken(authentication);
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+		// Execute and Verify
+		assertNotNull(jwtUtils.getValidClaims(token));
+		assertNull(jwtUtils.getValidClaims(tampered));
+	}
+
+	@Test
+	public void testTokenFromOtherKey_Rejected() {
+		// Setup
+		String otherSecret = Encoders.BASE64.encode(
+				"another-secret-that-is-long-enough-for-hs512-signatures-9876543210".getBytes(StandardCharsets.UTF_8));
+		String token = new JwtUtils(otherSecret, 60_000, false, 60_000, 100, 60_000).generateJwtToken(authentication);
+
+		// Execute and Verify
+		assertNull(jwtUtils.getValidClaims(token));
+	}
+
+	@Test
+	public void testExpiredToken_Rejected() {
+		// Setup
+		String token = new JwtUtils(SECRET, -1000, false, 60_000, 100, 60_000).generateJwtToken(authentication);
+
+		// Execute and Verify
+		assertNull(jwtUtils.getValidClaims(token));
+		assertFalse(jwtUtils.validateJwtToken(null));
+	}
+
+	@Test
+	public void testDefaultToken_NoEmbeddedPrincipal() {
+		// Execute
+		Claims claims = jwtUtils.getValidClaims(jwtUtils.generateJwtToken(authentication));
+
+		// Verify
+		assertFalse(jwtUtils.hasEmbeddedPrincipal(claims));
+	}
+
+	@Test
+	public void testSelfContainedToken_PrincipalFromClaims() {
+		// Setup
+		JwtUtils selfContained = new JwtUtils(SECRET, 86_400_000, true, 60_000, 100, 60_000);
+		long before = System.currentTimeMillis();
+
+		// Execute
+		Claims claims = selfContained.getValidClaims(selfContained.generateJwtToken(authentication));
+		UserDetailsImpl principal = selfContained.getPrincipalFromClaims(claims);
+
+		// Verify - id and roles come from the token, with the short lifetime
+		assertTrue(selfContained.hasEmbeddedPrincipal(claims));
+		assertEquals(1L, principal.getId());
+		assertEquals("testuser", principal.getUsername());
+		assertEquals("ROLE_EDITOR", principal.getAuthorities().iterator().next().getAuthority());
+		assertTrue(claims.getExpiration().before(new Date(before + 61_000)));
+	}
+}
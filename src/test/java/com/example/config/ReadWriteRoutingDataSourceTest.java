@@ -0,0 +1,156 @@
+package com.example.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two H2 file databases stand in for the primary and the replica. Nothing replicates
+ * between them, the tests set the replica's heartbeat to simulate its lag.
+ */
+public class ReadWriteRoutingDataSourceTest {
+
+	private static final String WHO_AM_I = "SELECT name FROM server_role";
+
+	@TempDir
+	Path databaseDir;
+
+	private HikariDataSource primary;
+	private HikariDataSource replica;
+	private ReplicaLagMonitor lagMonitor;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate readOnlyTransaction;
+	private TransactionTemplate readWriteTransaction;
+
+	@BeforeEach
+	public void setup() {
+		primary = createDatabase("primary");
+		replica = createDatabase("replica");
+		lagMonitor = new ReplicaLagMonitor(primary, replica, Duration.ofSeconds(5));
+
+		LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(
+				new ReadWriteRoutingDataSource(primary, replica, lagMonitor));
+		jdbcTemplate = new JdbcTemplate(routing);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+		readOnlyTransaction = new TransactionTemplate(transactionManager);
+		readOnlyTransaction.setReadOnly(true);
+		readWriteTransaction = new TransactionTemplate(transactionManager);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		primary.close();
+		replica.close();
+	}
+
+	@Test
+	public void testReadOnlyTransaction_UsesReplicaWhenInSync() {
+		// Setup
+		setReplicaHeartbeat(Instant.now());
+		lagMonitor.checkLag();
+
+		// Execute
+		String readOnly = readOnlyTransaction.execute(status -> whoAmI());
+		String readWrite = readWriteTransaction.execute(status -> whoAmI());
+		String noTransaction = whoAmI();
+
+		// Verify
+		assertTrue(lagMonitor.isReplicaUsable());
+		assertEquals("replica", readOnly);
+		assertEquals("primary", readWrite);
+		assertEquals("primary", noTransaction);
+	}
+
+	@Test
+	public void testReadOnlyTransaction_FallsBackToPrimaryWhenLagging() {
+		// Setup
+		setReplicaHeartbeat(Instant.now().minus(Duration.ofMinutes(1)));
+		lagMonitor.checkLag();
+
+		// Execute
+		String readOnly = readOnlyTransaction.execute(status -> whoAmI());
+
+		// Verify
+		assertFalse(lagMonitor.isReplicaUsable());
+		assertTrue(lagMonitor.getLastLag().compareTo(Duration.ofMinutes(1)) >= 0);
+		assertEquals("primary", readOnly);
+	}
+
+	@Test
+	public void testReadOnlyTransaction_FallsBackToPrimaryWhenReplicaDown() {
+		// Setup
+		setReplicaHeartbeat(Instant.now());
+		lagMonitor.checkLag();
+		assertTrue(lagMonitor.isReplicaUsable());
+		replica.close();
+
+		// Execute
+		lagMonitor.checkLag();
+		String readOnly = readOnlyTransaction.execute(status -> whoAmI());
+
+		// Verify
+		assertFalse(lagMonitor.isReplicaUsable());
+		assertEquals("primary", readOnly);
+	}
+
+	@Test
+	public void testReadOnlyTransaction_UsesPrimaryBeforeFirstCheck() {
+		// Execute
+		String readOnly = readOnlyTransaction.execute(status -> whoAmI());
+
+		// Verify
+		assertEquals("primary", readOnly);
+	}
+
+	@Test
+	public void testCheckLag_WritesHeartbeatOnPrimary() {
+		// Setup
+		Instant before = Instant.now().minusMillis(1);
+
+		// Execute
+		lagMonitor.checkLag();
+
+		// Verify
+		Timestamp beat = new JdbcTemplate(primary).queryForObject(
+				"SELECT beat_at FROM replication_heartbeat WHERE id = 1", Timestamp.class);
+		assertFalse(beat.toInstant().isBefore(before));
+	}
+
+	private String whoAmI() {
+		return jdbcTemplate.queryForObject(WHO_AM_I, String.class);
+	}
+
+	private void setReplicaHeartbeat(Instant beatAt) {
+		new JdbcTemplate(replica).update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1",
+				Timestamp.from(beatAt));
+	}
+
+	private HikariDataSource createDatabase(String name) {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setPoolName(name + "-pool");
+		dataSource.setJdbcUrl("jdbc:h2:file:" + databaseDir.resolve(name).toAbsolutePath());
+		dataSource.setUsername("sa");
+		dataSource.setMaximumPoolSize(2);
+
+		JdbcTemplate template = new JdbcTemplate(dataSource);
+		template.execute("CREATE TABLE replication_heartbeat (id INT PRIMARY KEY, beat_at TIMESTAMP NOT NULL)");
+		template.execute("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, CURRENT_TIMESTAMP)");
+		template.execute("CREATE TABLE server_role (name VARCHAR(20))");
+		template.update("INSERT INTO server_role (name) VALUES (?)", name);
+		return dataSource;
+	}
+}
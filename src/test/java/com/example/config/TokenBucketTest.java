@@ -0,0 +1,87 @@
+package com.example.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	public void testBurst_ThenRejectsWithWait() {
+		// Setup
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+		// Execute
+		for (int i = 0; i < 10; i++) {
+			assertEquals(0, bucket.tryAcquire(1, 0));
+		}
+		long wait = bucket.tryAcquire(1, 0);
+
+		// Verify - one token refills in 200 ms
+		assertEquals(SECOND / 5, wait);
+	}
+
+	@Test
+	public void testRefill_AdmitsAgainAfterWait() {
+		// Setup
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+		assertEquals(0, bucket.tryAcquire(10, 0));
+
+		// Execute & Verify
+		assertTrue(bucket.tryAcquire(2, SECOND / 5) > 0);
+		assertEquals(0, bucket.tryAcquire(2, 2 * SECOND / 5));
+	}
+
+	@Test
+	public void testRefund_ReturnsTokens() {
+		// Setup
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+		assertEquals(0, bucket.tryAcquire(10, 0));
+
+		// Execute
+		bucket.refund(4);
+
+		// Verify
+		assertEquals(0, bucket.tryAcquire(4, 0));
+		assertTrue(bucket.tryAcquire(1, 0) > 0);
+	}
+
+	@Test
+	public void testConcurrentAcquire_AdmitsExactlyCapacity() throws Exception {
+		// Setup - no refill while the threads run
+		TokenBucket bucket = new TokenBucket(1000, 0.001, 0);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger admitted = new AtomicInteger();
+
+		// Execute
+		for (int t = 0; t < 8; t++) {
+			executor.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				for (int i = 0; i < 500; i++) {
+					if (bucket.tryAcquire(1, 0) == 0) {
+						admitted.incrementAndGet();
+					}
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		// Verify
+		assertEquals(1000, admitted.get());
+	}
+}
@@ -0,0 +1,76 @@
+package com.example.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadConfigTest {
+
+	private final BeanPostProcessor postProcessor = VirtualThreadConfig.connectionPermitPostProcessor();
+
+	@Test
+	public void testPostProcess_SizesPermitsPerPool() {
+		// Setup
+		HikariDataSource primary = pool(10);
+		HikariDataSource replica = pool(20);
+
+		// Execute
+		Object wrappedPrimary = postProcessor.postProcessAfterInitialization(primary, "primaryDataSource");
+		Object wrappedReplica = postProcessor.postProcessAfterInitialization(replica, "replicaDataSource");
+
+		// Verify
+		assertEquals(10, ((ConnectionPermitDataSource) wrappedPrimary).getAvailablePermits());
+		assertEquals(20, ((ConnectionPermitDataSource) wrappedReplica).getAvailablePermits());
+	}
+
+	@Test
+	public void testPostProcess_WaitsThePoolConnectionTimeout() throws Exception {
+		// Setup - one connection, taken
+		HikariDataSource pool = pool(1);
+		pool.setConnectionTimeout(250);
+		ConnectionPermitDataSource wrapped = (ConnectionPermitDataSource) postProcessor
+				.postProcessAfterInitialization(pool, "dataSource");
+
+		try (Connection held = wrapped.getConnection()) {
+			// Execute
+			long start = System.nanoTime();
+			SQLTransientConnectionException ex = assertThrows(SQLTransientConnectionException.class,
+					wrapped::getConnection);
+
+			// Verify - one wait of the pool's timeout, reported like the pool reports it
+			long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			assertTrue(waitedMs >= 250 && waitedMs < 2000, "waited " + waitedMs + " ms");
+			assertTrue(ex.getMessage().contains("request timed out after 250ms"));
+		} finally {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void testPostProcess_LeavesRoutingDataSourceUnwrapped() {
+		// Setup - the routing proxy hands out connections of pools that already hold their own permits
+		LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(pool(10));
+
+		// Execute
+		Object processed = postProcessor.postProcessAfterInitialization(routing, "dataSource");
+
+		// Verify
+		assertSame(routing, processed);
+	}
+
+	// Never started, the permits only read the configured size
+	private HikariDataSource pool(int maximumPoolSize) {
+		HikariDataSource pool = new HikariDataSource();
+		pool.setJdbcUrl("jdbc:h2:mem:virtual-threads");
+		pool.setMaximumPoolSize(maximumPoolSize);
+		return pool;
+	}
+}
@@ -1,5 +1,8 @@
 package com.example.controller;
 
+import com.example.config.AuthEntryPointJwt;
+import com.example.service.PrincipalCache;
+import com.example.service.UserDetailsServiceImpl;
 import com.example.config.JwtUtils;
 import com.example.dto.LoginRequest;
 import com.example.dto.SignupRequest;
@@ -8,8 +11,10 @@ import com.example.entity.Role.ERole;
 import com.example.entity.User;
 import com.example.repository.RoleRepository;
 import com.example.repository.UserRepository;
+import com.example.service.TokenRevocationService;
 import com.example.service.UserDetailsImpl;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -23,12 +28,16 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.*;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -56,6 +65,18 @@ public class AuthControllerTest {
 	@MockBean
 	private JwtUtils jwtUtils;
 
+	@MockBean
+	private TokenRevocationService tokenRevocationService;
+
+	@MockBean
+	private UserDetailsServiceImpl userDetailsService;
+
+	@MockBean
+	private PrincipalCache principalCache;
+
+	@MockBean
+	private AuthEntryPointJwt authEntryPointJwt;
+
 	private LoginRequest validLoginRequest;
 	private SignupRequest validSignupRequest;
 	private User validUser;
@@ -120,7 +141,7 @@ public class AuthControllerTest {
 		when(authentication.getPrincipal()).thenReturn(userDetails);
 
 		// Execute and Verify
-		mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+		perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
 				.content(objectMapper.writeValueAsString(validLoginRequest))).andExpect(status().isOk())
 				.andExpect(jsonPath("$.token", is("mocked.jwt.token")))
 				.andExpect(jsonPath("$.username", is("testuser")))
@@ -141,7 +162,7 @@ public class AuthControllerTest {
 		when(userRepository.save(any(User.class))).thenReturn(validUser);
 
 		// Execute and Verify
-		mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+		perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
 				.content(objectMapper.writeValueAsString(validSignupRequest))).andExpect(status().isOk())
 				.andExpect(jsonPath("$.message", is("User registered successfully!")));
 
@@ -158,7 +179,7 @@ public class AuthControllerTest {
 		when(userRepository.existsByUsername(anyString())).thenReturn(true);
 
 		// Execute and Verify
-		mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+		perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
 				.content(objectMapper.writeValueAsString(validSignupRequest))).andExpect(status().isBadRequest())
 				.andExpect(jsonPath("$.message", is("Error: Username is already taken!")));
 
@@ -173,7 +194,7 @@ public class AuthControllerTest {
 		when(userRepository.existsByEmail(anyString())).thenReturn(true);
 
 		// Execute and Verify
-		mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+		perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
 				.content(objectMapper.writeValueAsString(validSignupRequest))).andExpect(status().isBadRequest())
 				.andExpect(jsonPath("$.message", is("Error: Email is already in use!")));
 
@@ -196,7 +217,7 @@ public class AuthControllerTest {
 		when(userRepository.save(any(User.class))).thenReturn(validUser);
 
 		// Execute and Verify
-		mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+		perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
 				.content(objectMapper.writeValueAsString(validSignupRequest))).andExpect(status().isOk())
 				.andExpect(jsonPath("$.message", is("User registered successfully!")));
 
@@ -207,7 +228,30 @@ public class AuthControllerTest {
 	@Test
 	public void testLogoutUser() throws Exception {
 		// Execute and Verify
-		mockMvc.perform(post("/api/auth/logout")).andExpect(status().isOk())
+		perform(post("/api/auth/logout")).andExpect(status().isOk())
 				.andExpect(jsonPath("$.message", is("User logged out successfully!")));
+
+		verify(tokenRevocationService, never()).revoke(any(Claims.class));
+	}
+
+	@Test
+	public void testLogoutUser_RevokesToken() throws Exception {
+		// Setup
+		Claims claims = mock(Claims.class);
+		when(jwtUtils.getValidClaims("mocked.jwt.token")).thenReturn(claims);
+
+		// Execute and Verify
+		perform(post("/api/auth/logout").header("Authorization", "Bearer mocked.jwt.token"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.message", is("User logged out successfully!")));
+
+		verify(tokenRevocationService).revoke(claims);
+	}
+
+	// Controller methods returning CompletableFuture complete in an async dispatch
+	private ResultActions perform(RequestBuilder request) throws Exception {
+		ResultActions actions = mockMvc.perform(request);
+		MvcResult result = actions.andReturn();
+		return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
 	}
 }
@@ -0,0 +1,135 @@
+package com.example.controller;
+
+import com.example.config.AuthEntryPointJwt;
+import com.example.service.TokenRevocationService;
+import com.example.service.PrincipalCache;
+import com.example.config.JwtUtils;
+import com.example.service.UserDetailsServiceImpl;
+import com.example.dto.ChunkedUploadRequest;
+import com.example.dto.DocumentUploadRequest;
+import com.example.entity.Document;
+import com.example.service.ChunkedUploadService;
+import com.example.service.DocumentService;
+import com.example.service.StoredUpload;
+import com.example.service.UploadSession;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ChunkedUploadController.class)
+public class ChunkedUploadControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@MockBean
+	private ChunkedUploadService chunkedUploadService;
+
+	@MockBean
+	private DocumentService documentService;
+
+	@MockBean
+	private UserDetailsServiceImpl userDetailsService;
+
+	@MockBean
+	private JwtUtils jwtUtils;
+
+	@MockBean
+	private PrincipalCache principalCache;
+
+	@MockBean
+	private TokenRevocationService tokenRevocationService;
+
+	@MockBean
+	private AuthEntryPointJwt authEntryPointJwt;
+
+	private ChunkedUploadRequest uploadRequest;
+	private UploadSession session;
+
+	@BeforeEach
+	public void setup() {
+		uploadRequest = new ChunkedUploadRequest();
+		uploadRequest.setTitle("Large Video");
+		uploadRequest.setFileName("video.mp4");
+		uploadRequest.setFileSize(250L);
+		uploadRequest.setChunkSize(100L);
+
+		session = new UploadSession("session-1", "user", new DocumentUploadRequest(), "video.mp4", 250L, 100L);
+		session.getReceivedChunks().add(1);
+	}
+
+	@Test
+	@WithMockUser(roles = "EDITOR")
+	public void testCreateSession() throws Exception {
+		// Setup
+		when(documentService.resolveUploadQuota(any())).thenReturn(1000L);
+		when(chunkedUploadService.createSession(any(ChunkedUploadRequest.class), eq(1000L), anyString()))
+				.thenReturn(session);
+
+		// Execute and Verify
+		perform(post("/api/documents/uploads").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(uploadRequest))).andExpect(status().isCreated())
+				.andExpect(jsonPath("$.sessionId", is("session-1"))).andExpect(jsonPath("$.chunkCount", is(3)))
+				.andExpect(jsonPath("$.receivedChunks", contains(1)));
+	}
+
+	@Test
+	@WithMockUser(roles = "EDITOR")
+	public void testUploadChunk() throws Exception {
+		// Setup
+		when(chunkedUploadService.storeChunk(eq("session-1"), eq(0), any(), eq("abc"), anyString()))
+				.thenReturn(new StoredUpload("chunk-000000", 100L, "abc", null));
+
+		// Execute and Verify
+		perform(put("/api/documents/uploads/session-1/chunks/0").header("X-Chunk-Checksum", "abc")
+				.contentType(MediaType.APPLICATION_OCTET_STREAM).content(new byte[100])).andExpect(status().isOk())
+				.andExpect(jsonPath("$.index", is(0))).andExpect(jsonPath("$.size", is(100)));
+	}
+
+	@Test
+	@WithMockUser(roles = "EDITOR")
+	public void testCompleteSession() throws Exception {
+		// Setup
+		Document document = Document.builder().id(7L).title("Large Video").build();
+		when(chunkedUploadService.completeSession(eq("session-1"), anyString())).thenReturn(document);
+
+		// Execute and Verify
+		perform(post("/api/documents/uploads/session-1/complete")).andExpect(status().isCreated())
+				.andExpect(jsonPath("$.id", is(7)));
+	}
+
+	@Test
+	@WithMockUser(roles = "EDITOR")
+	public void testAbortSession() throws Exception {
+		// Execute and Verify
+		perform(delete("/api/documents/uploads/session-1")).andExpect(status().isOk());
+		verify(chunkedUploadService).abortSession(eq("session-1"), anyString());
+	}
+
+	// Controller methods returning CompletableFuture complete in an async dispatch
+	private ResultActions perform(RequestBuilder request) throws Exception {
+		ResultActions actions = mockMvc.perform(request);
+		MvcResult result = actions.andReturn();
+		return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+	}
+}
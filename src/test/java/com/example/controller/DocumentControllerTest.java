@@ -1,11 +1,23 @@
 package com.example.controller;
 
+import com.example.config.AuthEntryPointJwt;
+import com.example.service.TokenRevocationService;
+import com.example.service.PrincipalCache;
+import com.example.config.JwtUtils;
+import com.example.service.UserDetailsServiceImpl;
+import com.example.dto.BulkUploadItem;
+import com.example.dto.BulkUploadManifest;
+import com.example.dto.BulkUploadResult;
+import com.example.dto.DocumentDetails;
 import com.example.dto.DocumentDto;
 import com.example.dto.DocumentUploadRequest;
 import com.example.dto.SearchRequest;
 import com.example.entity.Document;
 import com.example.entity.User;
+import com.example.exception.InvalidSortException;
+import com.example.service.BulkUploadService;
 import com.example.service.DocumentService;
+import com.example.service.FileDownloadService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,6 +33,9 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -28,7 +43,9 @@ import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -45,12 +62,35 @@ public class DocumentControllerTest {
 	@MockBean
 	private DocumentService documentService;
 
+	@MockBean
+	private FileDownloadService fileDownloadService;
+
+	@MockBean
+	private BulkUploadService bulkUploadService;
+
+	@MockBean
+	private UserDetailsServiceImpl userDetailsService;
+
+	@MockBean
+	private JwtUtils jwtUtils;
+
+	@MockBean
+	private PrincipalCache principalCache;
+
+	@MockBean
+	private TokenRevocationService tokenRevocationService;
+
+	@MockBean
+	private AuthEntryPointJwt authEntryPointJwt;
+
 	private Document testDocument;
+	private DocumentDetails testDetails;
 	private User testUser;
 	private DocumentUploadRequest uploadRequest;
 	private DocumentDto documentDto;
 	private List<Document> documentList;
 	private Page<Document> documentPage;
+	private Page<DocumentDto> summaryPage;
 	private SearchRequest searchRequest;
 
 	@BeforeEach
@@ -64,12 +104,20 @@ public class DocumentControllerTest {
 		// Initialize test document
 		testDocument = Document.builder().id(1L).title("Test Document").description("This is a test document")
 				.filePath("test/path/document.pdf").fileType("application/pdf").fileSize(1024L)
-				.contentText("Test document content text for searching").author(testUser).createdAt(LocalDateTime.now())
+				.author(testUser).createdAt(LocalDateTime.now())
 				.indexed(true).build();
 
+		testDetails = DocumentDetails.builder().id(1L).title("Test Document").description("This is a test document")
+				.filePath("test/path/document.pdf").fileType("application/pdf").fileSize(1024L)
+				.authorUsername("testuser").tags(Collections.singleton("test")).indexed(true)
+				.createdAt(testDocument.getCreatedAt()).build();
+
 		// Initialize document list and page
 		documentList = Arrays.asList(testDocument);
 		documentPage = new PageImpl<>(documentList, PageRequest.of(0, 10), 1);
+		summaryPage = new PageImpl<>(Arrays.asList(DocumentDto.builder().id(1L).title("Test Document")
+				.authorUsername("testuser").fileType("application/pdf").fileSize(1024L)
+				.tags(Collections.singleton("test")).build()), PageRequest.of(0, 10), 1);
 
 		// Initialize upload request
 		uploadRequest = new DocumentUploadRequest();
@@ -99,36 +147,86 @@ public class DocumentControllerTest {
 	@WithMockUser(roles = "ADMIN")
 	public void testGetDocumentById_Success() throws Exception {
 		// Setup
-		when(documentService.getDocumentById(1L)).thenReturn(testDocument);
+		when(documentService.getDocumentById(1L)).thenReturn(testDetails);
 
 		// Execute and Verify
-		mockMvc.perform(get("/api/documents/1")).andExpect(status().isOk()).andExpect(jsonPath("$.id", is(1)))
+		perform(get("/api/documents/1")).andExpect(status().isOk()).andExpect(jsonPath("$.id", is(1)))
 				.andExpect(jsonPath("$.title", is("Test Document")))
 				.andExpect(jsonPath("$.description", is("This is a test document")))
-				.andExpect(jsonPath("$.fileType", is("application/pdf")));
+				.andExpect(jsonPath("$.fileType", is("application/pdf")))
+				.andExpect(jsonPath("$.authorUsername", is("testuser")))
+				.andExpect(jsonPath("$.tags[0]", is("test")));
+	}
+
+	@Test
+	@WithMockUser(roles = "VIEWER")
+	public void testGetDocumentContent() throws Exception {
+		// Setup
+		when(documentService.getDocumentContent(1L)).thenReturn("Test document content text for searching");
+
+		// Execute and Verify
+		perform(get("/api/documents/1/content")).andExpect(status().isOk())
+				.andExpect(content().string("Test document content text for searching"));
+	}
+
+	@Test
+	@WithMockUser(roles = "VIEWER")
+	public void testGetDocumentContent_NotExtracted() throws Exception {
+		// Setup
+		when(documentService.getDocumentContent(1L)).thenReturn("");
+
+		// Execute and Verify
+		perform(get("/api/documents/1/content")).andExpect(status().isNoContent());
+	}
+
+	@Test
+	@WithMockUser(roles = "VIEWER")
+	public void testDownloadDocumentFile() throws Exception {
+		// Setup
+		when(documentService.getDocumentById(1L)).thenReturn(testDetails);
+
+		// Execute and Verify
+		perform(get("/api/documents/1/file")).andExpect(status().isOk());
+
+		verify(fileDownloadService).sendFile(eq("test/path/document.pdf"), eq("application/pdf"), eq(1024L),
+				eq("Test Document"), any(), any());
 	}
 
 	@Test
 	@WithMockUser(roles = "ADMIN")
 	public void testGetAllDocuments() throws Exception {
 		// Setup
-		when(documentService.getAllDocuments(any(Pageable.class))).thenReturn(documentPage);
+		when(documentService.getAllDocuments(any(Pageable.class), eq(false))).thenReturn(summaryPage);
 
 		// Execute and Verify
-		mockMvc.perform(get("/api/documents").param("page", "0").param("size", "10").param("sortBy", "createdAt")
+		perform(get("/api/documents").param("page", "0").param("size", "10").param("sortBy", "createdAt")
 				.param("sortDir", "desc")).andExpect(status().isOk()).andExpect(jsonPath("$.content", hasSize(1)))
 				.andExpect(jsonPath("$.content[0].title", is("Test Document")))
+				.andExpect(jsonPath("$.content[0].authorUsername", is("testuser")))
+				.andExpect(jsonPath("$.content[0].contentText").doesNotExist())
 				.andExpect(jsonPath("$.totalElements", is(1)));
 	}
 
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	public void testGetAllDocuments_ExactCount() throws Exception {
+		// Setup
+		when(documentService.getAllDocuments(any(Pageable.class), eq(true))).thenReturn(summaryPage);
+
+		// Execute and Verify
+		perform(get("/api/documents").param("exact", "true")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.totalElements", is(1)));
+		verify(documentService).getAllDocuments(any(Pageable.class), eq(true));
+	}
+
 	@Test
 	@WithMockUser(roles = "ADMIN")
 	public void testGetUserDocuments() throws Exception {
 		// Setup
-		when(documentService.getDocumentsByAuthor(anyString(), any(Pageable.class))).thenReturn(documentPage);
+		when(documentService.getDocumentsByAuthor(anyString(), any(Pageable.class), eq(false))).thenReturn(summaryPage);
 
 		// Execute and Verify
-		mockMvc.perform(get("/api/documents/user").param("page", "0").param("size", "10").param("sortBy", "createdAt")
+		perform(get("/api/documents/user").param("page", "0").param("size", "10").param("sortBy", "createdAt")
 				.param("sortDir", "desc")).andExpect(status().isOk()).andExpect(jsonPath("$.content", hasSize(1)))
 				.andExpect(jsonPath("$.content[0].title", is("Test Document")));
 	}
@@ -137,23 +235,36 @@ public class DocumentControllerTest {
 	@WithMockUser(roles = "ADMIN")
 	public void testSearchDocuments() throws Exception {
 		// Setup
-		when(documentService.searchDocuments(any(SearchRequest.class), any(Pageable.class))).thenReturn(documentPage);
+		when(documentService.searchDocuments(any(SearchRequest.class), any(Pageable.class), eq(false))).thenReturn(summaryPage);
 
 		// Execute and Verify
-		mockMvc.perform(post("/api/documents/search").contentType(MediaType.APPLICATION_JSON)
+		perform(post("/api/documents/search").contentType(MediaType.APPLICATION_JSON)
 				.content(objectMapper.writeValueAsString(searchRequest)).param("page", "0").param("size", "10"))
 				.andExpect(status().isOk()).andExpect(jsonPath("$.content", hasSize(1)))
 				.andExpect(jsonPath("$.content[0].title", is("Test Document")));
 	}
 
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	public void testSearchDocuments_UnsupportedSort_BadRequest() throws Exception {
+		// Setup
+		when(documentService.searchDocuments(any(SearchRequest.class), any(Pageable.class), eq(false)))
+				.thenThrow(new InvalidSortException("Unsupported sort property: contentText"));
+
+		// Execute and Verify
+		perform(post("/api/documents/search").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(searchRequest)).param("sortBy", "contentText"))
+				.andExpect(status().isBadRequest());
+	}
+
 	@Test
 	@WithMockUser(roles = "ADMIN")
 	public void testSearchByKeyword() throws Exception {
 		// Setup
-		when(documentService.searchByKeyword(anyString(), any(Pageable.class))).thenReturn(documentPage);
+		when(documentService.searchByKeyword(anyString(), any(Pageable.class), eq(false))).thenReturn(summaryPage);
 
 		// Execute and Verify
-		mockMvc.perform(get("/api/documents/search").param("keyword", "test").param("page", "0").param("size", "10"))
+		perform(get("/api/documents/search").param("keyword", "test").param("page", "0").param("size", "10"))
 				.andExpect(status().isOk()).andExpect(jsonPath("$.content", hasSize(1)))
 				.andExpect(jsonPath("$.content[0].title", is("Test Document")));
 	}
@@ -169,7 +280,7 @@ public class DocumentControllerTest {
 		when(documentService.updateDocument(anyLong(), any(DocumentDto.class))).thenReturn(updatedDocument);
 
 		// Execute and Verify
-		mockMvc.perform(put("/api/documents/1").contentType(MediaType.APPLICATION_JSON)
+		perform(put("/api/documents/1").contentType(MediaType.APPLICATION_JSON)
 				.content(objectMapper.writeValueAsString(documentDto))).andExpect(status().isOk())
 				.andExpect(jsonPath("$.title", is("Updated Document")))
 				.andExpect(jsonPath("$.description", is("This is an updated document")));
@@ -182,7 +293,7 @@ public class DocumentControllerTest {
 		doNothing().when(documentService).deleteDocument(1L);
 
 		// Execute and Verify
-		mockMvc.perform(delete("/api/documents/1")).andExpect(status().isOk())
+		perform(delete("/api/documents/1")).andExpect(status().isOk())
 				.andExpect(jsonPath("$.message", is("Document deleted successfully")));
 
 		verify(documentService).deleteDocument(1L);
@@ -195,7 +306,7 @@ public class DocumentControllerTest {
 		when(documentService.getUnprocessedDocuments()).thenReturn(documentList);
 
 		// Execute and Verify
-		mockMvc.perform(get("/api/documents/unprocessed")).andExpect(status().isOk())
+		perform(get("/api/documents/unprocessed")).andExpect(status().isOk())
 				.andExpect(jsonPath("$", hasSize(1))).andExpect(jsonPath("$[0].title", is("Test Document")));
 	}
 
@@ -215,6 +326,63 @@ public class DocumentControllerTest {
 		// Execute and Verify - Note: This is a simplified test as multipart file
 		// uploads are complex to test
 		// In a real test environment, you might need to configure additional components
-		mockMvc.perform(multipart("/api/documents/upload").file(file).file(metadata)).andExpect(status().isCreated());
+		perform(multipart("/api/documents/upload").file(file).file(metadata)).andExpect(status().isCreated());
+	}
+
+	@Test
+	@WithMockUser(roles = "EDITOR")
+	public void testUploadDocumentStream() throws Exception {
+		// Setup
+		when(documentService.resolveUploadQuota(any())).thenReturn(1024L);
+		when(documentService.uploadDocumentStream(any(DocumentUploadRequest.class), any(), eq("notes.txt"), eq(1024L),
+				anyString())).thenReturn(testDocument);
+
+		// Execute and Verify
+		perform(post("/api/documents/upload/stream").param("title", "Test Document").param("tags", "test")
+				.header("X-File-Name", "notes.txt").contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.content("raw content".getBytes())).andExpect(status().isCreated())
+				.andExpect(jsonPath("$.title", is("Test Document")));
+	}
+
+	@Test
+	@WithMockUser(roles = "EDITOR")
+	public void testUploadDocumentStream_ExceedsQuota() throws Exception {
+		// Setup
+		when(documentService.resolveUploadQuota(any())).thenReturn(4L);
+
+		// Execute and Verify - rejected from Content-Length before the body is read
+		perform(post("/api/documents/upload/stream").param("title", "Test Document")
+				.contentType(MediaType.APPLICATION_OCTET_STREAM).content("raw content".getBytes()))
+				.andExpect(status().isPayloadTooLarge());
+		verify(documentService, never()).uploadDocumentStream(any(), any(), any(), anyLong(), any());
+	}
+
+	@Test
+	@WithMockUser(roles = "EDITOR")
+	public void testBulkUpload() throws Exception {
+		// Setup
+		BulkUploadItem item = new BulkUploadItem("a.pdf", "Document A", null, new HashSet<>());
+		MockMultipartFile manifest = new MockMultipartFile("manifest", "", MediaType.APPLICATION_JSON_VALUE,
+				objectMapper.writeValueAsString(new BulkUploadManifest(Arrays.asList(item))).getBytes());
+		MockMultipartFile file = new MockMultipartFile("files", "a.pdf", MediaType.APPLICATION_PDF_VALUE,
+				"PDF content".getBytes());
+		BulkUploadResult result = new BulkUploadResult(1, 1, 0, Arrays.asList(
+				new BulkUploadResult.ItemResult("a.pdf", BulkUploadResult.Status.CREATED, 5L, null)));
+
+		when(documentService.resolveUploadQuota(any())).thenReturn(1024L);
+		when(bulkUploadService.uploadFiles(any(BulkUploadManifest.class), anyList(), eq(1024L), anyString()))
+				.thenReturn(result);
+
+		// Execute and Verify
+		perform(multipart("/api/documents/bulk").file(manifest).file(file)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.created", is(1))).andExpect(jsonPath("$.items[0].status", is("CREATED")))
+				.andExpect(jsonPath("$.items[0].documentId", is(5)));
+	}
+
+	// Controller methods returning CompletableFuture complete in an async dispatch
+	private ResultActions perform(RequestBuilder request) throws Exception {
+		ResultActions actions = mockMvc.perform(request);
+		MvcResult result = actions.andReturn();
+		return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
 	}
 }
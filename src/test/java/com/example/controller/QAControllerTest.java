@@ -1,7 +1,12 @@
 package com.example.controller;
 
+import com.example.config.AuthEntryPointJwt;
+import com.example.service.TokenRevocationService;
+import com.example.service.PrincipalCache;
+import com.example.config.JwtUtils;
+import com.example.service.UserDetailsServiceImpl;
+import com.example.dto.DocumentDto;
 import com.example.dto.QuestionRequest;
-import com.example.entity.Document;
 import com.example.entity.User;
 import com.example.service.DocumentService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -16,6 +21,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -24,6 +32,7 @@ import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,10 +49,24 @@ public class QAControllerTest {
 	@MockBean
 	private DocumentService documentService;
 
-	private Document testDocument;
+	@MockBean
+	private UserDetailsServiceImpl userDetailsService;
+
+	@MockBean
+	private JwtUtils jwtUtils;
+
+	@MockBean
+	private PrincipalCache principalCache;
+
+	@MockBean
+	private TokenRevocationService tokenRevocationService;
+
+	@MockBean
+	private AuthEntryPointJwt authEntryPointJwt;
+
 	private User testUser;
 	private QuestionRequest questionRequest;
-	private Page<Document> documentPage;
+	private Page<DocumentDto> documentPage;
 
 	@BeforeEach
 	public void setup() {
@@ -53,14 +76,10 @@ public class QAControllerTest {
 		testUser.setUsername("testuser");
 		testUser.setEmail("testuser@example.com");
 
-		// Initialize test document
-		testDocument = Document.builder().id(1L).title("Test Document").description("This is a test document")
-				.filePath("test/path/document.pdf").fileType("application/pdf").fileSize(1024L)
-				.contentText("This is the content of the test document. It contains information about testing.")
-				.author(testUser).createdAt(LocalDateTime.now()).indexed(true).build();
-
 		// Initialize document page
-		documentPage = new PageImpl<>(Arrays.asList(testDocument));
+		documentPage = new PageImpl<>(Arrays.asList(DocumentDto.builder().id(1L).title("Test Document")
+				.description("This is a test document").fileType("application/pdf").fileSize(1024L)
+				.authorUsername(testUser.getUsername()).createdAt(LocalDateTime.now().toString()).build()));
 
 		// Initialize question request
 		questionRequest = new QuestionRequest();
@@ -71,13 +90,16 @@ public class QAControllerTest {
 	@WithMockUser(roles = "VIEWER")
 	public void testAskQuestion() throws Exception {
 		// Setup
-		when(documentService.searchByKeyword(anyString(), any(Pageable.class))).thenReturn(documentPage);
+		when(documentService.searchByKeyword(anyString(), any(Pageable.class), eq(false))).thenReturn(documentPage);
+		when(documentService.getDocumentContents(anyCollection())).thenReturn(Map.of(1L,
+				"This is the content of the test document. It contains information about testing."));
 
 		// Execute and Verify
-		mockMvc.perform(post("/api/qa/question").contentType(MediaType.APPLICATION_JSON)
+		perform(post("/api/qa/question").contentType(MediaType.APPLICATION_JSON)
 				.content(objectMapper.writeValueAsString(questionRequest))).andExpect(status().isOk())
 				.andExpect(jsonPath("$.question", is("What is testing?"))).andExpect(jsonPath("$.snippets", hasSize(1)))
 				.andExpect(jsonPath("$.snippets[0].title", is("Test Document")))
+				.andExpect(jsonPath("$.snippets[0].textSnippet", containsString("testing")))
 				.andExpect(jsonPath("$.totalResults", is(1)));
 	}
 
@@ -85,10 +107,10 @@ public class QAControllerTest {
 	@WithMockUser(roles = "VIEWER")
 	public void testGetRecentDocuments() throws Exception {
 		// Setup
-		when(documentService.getAllDocuments(any(Pageable.class))).thenReturn(documentPage);
+		when(documentService.getAllDocuments(any(Pageable.class), eq(false))).thenReturn(documentPage);
 
 		// Execute and Verify
-		mockMvc.perform(get("/api/qa/recent").param("page", "0").param("size", "10")).andExpect(status().isOk())
+		perform(get("/api/qa/recent").param("page", "0").param("size", "10")).andExpect(status().isOk())
 				.andExpect(jsonPath("$.content", hasSize(1)))
 				.andExpect(jsonPath("$.content[0].title", is("Test Document")));
 	}
@@ -97,9 +119,16 @@ public class QAControllerTest {
 	@WithMockUser(roles = "VIEWER")
 	public void testGetPopularTerms() throws Exception {
 		// Execute and Verify
-		mockMvc.perform(get("/api/qa/popular-terms")).andExpect(status().isOk())
+		perform(get("/api/qa/popular-terms")).andExpect(status().isOk())
 				.andExpect(jsonPath("$.document", is(120))).andExpect(jsonPath("$.management", is(98)))
 				.andExpect(jsonPath("$.search", is(87))).andExpect(jsonPath("$.upload", is(65)))
 				.andExpect(jsonPath("$.user", is(42)));
 	}
+
+	// Controller methods returning CompletableFuture complete in an async dispatch
+	private ResultActions perform(RequestBuilder request) throws Exception {
+		ResultActions actions = mockMvc.perform(request);
+		MvcResult result = actions.andReturn();
+		return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+	}
 }
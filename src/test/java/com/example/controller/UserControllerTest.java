@@ -1,9 +1,15 @@
 package com.example.controller;
 
+import com.example.config.AuthEntryPointJwt;
+import com.example.service.TokenRevocationService;
+import com.example.config.JwtUtils;
+import com.example.service.UserDetailsServiceImpl;
 import com.example.entity.Role;
 import com.example.entity.Role.ERole;
 import com.example.entity.User;
+import com.example.repository.RoleRepository;
 import com.example.repository.UserRepository;
+import com.example.service.PrincipalCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,11 +20,15 @@ import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.*;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +45,24 @@ public class UserControllerTest {
 	@MockBean
 	private UserRepository userRepository;
 
+	@MockBean
+	private RoleRepository roleRepository;
+
+	@MockBean
+	private PrincipalCache principalCache;
+
+	@MockBean
+	private UserDetailsServiceImpl userDetailsService;
+
+	@MockBean
+	private JwtUtils jwtUtils;
+
+	@MockBean
+	private TokenRevocationService tokenRevocationService;
+
+	@MockBean
+	private AuthEntryPointJwt authEntryPointJwt;
+
 	private User testUser;
 	private User adminUser;
 	private List<User> userList;
@@ -80,7 +108,7 @@ public class UserControllerTest {
 		when(userRepository.findAll()).thenReturn(userList);
 
 		// Execute and Verify
-		mockMvc.perform(get("/api/users")).andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(2)))
+		perform(get("/api/users")).andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(2)))
 				.andExpect(jsonPath("$[0].username", is("testuser")))
 				.andExpect(jsonPath("$[1].username", is("adminuser")))
 				// Password should be masked
@@ -91,10 +119,10 @@ public class UserControllerTest {
 	@WithMockUser(roles = "ADMIN")
 	public void testGetUserById_Success() throws Exception {
 		// Setup
-		when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+		when(userRepository.findWithRolesById(1L)).thenReturn(Optional.of(testUser));
 
 		// Execute and Verify
-		mockMvc.perform(get("/api/users/1")).andExpect(status().isOk()).andExpect(jsonPath("$.id", is(1)))
+		perform(get("/api/users/1")).andExpect(status().isOk()).andExpect(jsonPath("$.id", is(1)))
 				.andExpect(jsonPath("$.username", is("testuser")))
 				.andExpect(jsonPath("$.email", is("testuser@example.com")))
 				// Password should be masked
@@ -105,20 +133,20 @@ public class UserControllerTest {
 	@WithMockUser(roles = "ADMIN")
 	public void testGetUserById_NotFound() throws Exception {
 		// Setup
-		when(userRepository.findById(99L)).thenReturn(Optional.empty());
+		when(userRepository.findWithRolesById(99L)).thenReturn(Optional.empty());
 
 		// Execute and Verify
-		mockMvc.perform(get("/api/users/99")).andExpect(status().isNotFound());
+		perform(get("/api/users/99")).andExpect(status().isNotFound());
 	}
 
 	@Test
 	@WithMockUser(username = "testuser", roles = "VIEWER")
 	public void testGetUserProfile() throws Exception {
 		// Setup
-		when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+		when(userRepository.findWithRolesByUsername("testuser")).thenReturn(Optional.of(testUser));
 
 		// Execute and Verify
-		mockMvc.perform(get("/api/users/profile")).andExpect(status().isOk())
+		perform(get("/api/users/profile")).andExpect(status().isOk())
 				.andExpect(jsonPath("$.username", is("testuser")))
 				.andExpect(jsonPath("$.email", is("testuser@example.com")))
 				// Password should be masked
@@ -129,26 +157,28 @@ public class UserControllerTest {
 	@WithMockUser(roles = "ADMIN")
 	public void testDeleteUser_Success() throws Exception {
 		// Setup
-		when(userRepository.existsById(1L)).thenReturn(true);
+		when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
 		doNothing().when(userRepository).deleteById(1L);
 
 		// Execute and Verify
-		mockMvc.perform(delete("/api/users/1")).andExpect(status().isOk())
+		perform(delete("/api/users/1")).andExpect(status().isOk())
 				.andExpect(jsonPath("$.message", is("User deleted successfully")));
 
 		verify(userRepository).deleteById(1L);
+		verify(principalCache).invalidate("testuser");
 	}
 
 	@Test
 	@WithMockUser(roles = "ADMIN")
 	public void testDeleteUser_NotFound() throws Exception {
 		// Setup
-		when(userRepository.existsById(99L)).thenReturn(false);
+		when(userRepository.findById(99L)).thenReturn(Optional.empty());
 
 		// Execute and Verify
-		mockMvc.perform(delete("/api/users/99")).andExpect(status().isNotFound());
+		perform(delete("/api/users/99")).andExpect(status().isNotFound());
 
 		verify(userRepository, never()).deleteById(anyLong());
+		verify(principalCache, never()).invalidate(anyString());
 	}
 
 	@Test
@@ -156,10 +186,39 @@ public class UserControllerTest {
 	public void testUpdateUserRole() throws Exception {
 		// Setup
 		List<String> roles = Arrays.asList("admin", "editor");
+		Role adminRole = Role.builder().id(3).name(ERole.ROLE_ADMIN).build();
+		Role editorRole = Role.builder().id(2).name(ERole.ROLE_EDITOR).build();
+		when(userRepository.findWithRolesById(1L)).thenReturn(Optional.of(testUser));
+		when(roleRepository.findByName(ERole.ROLE_ADMIN)).thenReturn(Optional.of(adminRole));
+		when(roleRepository.findByName(ERole.ROLE_EDITOR)).thenReturn(Optional.of(editorRole));
 
 		// Execute and Verify
-		mockMvc.perform(put("/api/users/1/role").contentType(MediaType.APPLICATION_JSON)
+		perform(put("/api/users/1/role").contentType(MediaType.APPLICATION_JSON)
 				.content(objectMapper.writeValueAsString(roles))).andExpect(status().isOk())
 				.andExpect(jsonPath("$.message", is("Roles updated successfully")));
+
+		verify(userRepository).save(argThat(user -> user.getRoles().size() == 2 && user.getRoles().contains(adminRole)));
+		verify(principalCache).invalidate("testuser");
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	public void testUpdateUserRole_NotFound() throws Exception {
+		// Setup
+		when(userRepository.findWithRolesById(99L)).thenReturn(Optional.empty());
+
+		// Execute and Verify
+		perform(put("/api/users/99/role").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(Collections.singletonList("viewer"))))
+				.andExpect(status().isNotFound());
+
+		verify(userRepository, never()).save(any(User.class));
+	}
+
+	// Controller methods returning CompletableFuture complete in an async dispatch
+	private ResultActions perform(RequestBuilder request) throws Exception {
+		ResultActions actions = mockMvc.perform(request);
+		MvcResult result = actions.andReturn();
+		return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
 	}
 }
@@ -0,0 +1,74 @@
+package com.example.entity;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.config.FileStorageProperties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedTextConverterTest {
+
+	private FileStorageProperties properties;
+	private CompressedTextConverter converter;
+
+	@BeforeEach
+	public void setup() {
+		properties = new FileStorageProperties();
+		properties.getCompression().setCodec("deflate");
+		properties.getCompression().setTextMinLength(100);
+		converter = new CompressedTextConverter();
+		ReflectionTestUtils.setField(converter, "fileStorageProperties", properties);
+	}
+
+	@Test
+	public void testRoundTrip_LongText() {
+		// Setup
+		String text = "Extracted document text with repeated words. ".repeat(50);
+
+		// Execute
+		String stored = converter.convertToDatabaseColumn(text);
+
+		// Verify
+		assertTrue(stored.startsWith("{deflate}"));
+		assertTrue(stored.length() < text.length());
+		assertEquals(text, converter.convertToEntityAttribute(stored));
+	}
+
+	@Test
+	public void testShortText_StoredAsIs() {
+		// Execute
+		String stored = converter.convertToDatabaseColumn("Short text");
+
+		// Verify
+		assertEquals("Short text", stored);
+		assertEquals("Short text", converter.convertToEntityAttribute(stored));
+	}
+
+	@Test
+	public void testCodecNone_StoredAsIs() {
+		// Setup
+		properties.getCompression().setCodec("none");
+		String text = "Extracted document text with repeated words. ".repeat(50);
+
+		// Execute & Verify
+		assertEquals(text, converter.convertToDatabaseColumn(text));
+	}
+
+	@Test
+	public void testReadsOtherCodecAndUncompressedValues() {
+		// Setup - written with gzip before the codec was changed
+		properties.getCompression().setCodec("gzip");
+		String text = "Extracted document text with repeated words. ".repeat(50);
+		String gzipped = converter.convertToDatabaseColumn(text);
+		properties.getCompression().setCodec("deflate");
+
+		// Execute & Verify
+		assertTrue(gzipped.startsWith("{gzip}"));
+		assertEquals(text, converter.convertToEntityAttribute(gzipped));
+		assertEquals("legacy plain value", converter.convertToEntityAttribute("legacy plain value"));
+		assertNull(converter.convertToEntityAttribute(null));
+		assertNull(converter.convertToDatabaseColumn(null));
+	}
+}
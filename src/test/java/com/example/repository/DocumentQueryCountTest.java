@@ -0,0 +1,156 @@
+package com.example.repository;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.example.entity.Document;
+import com.example.entity.Role;
+import com.example.entity.Tag;
+import com.example.entity.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements of the read paths that need authors and tags, so an
+ * association slipping back to per-row loading shows up as a failing test.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.show-sql=false"
+})
+public class DocumentQueryCountTest {
+
+	private static final int AUTHORS = 4;
+	private static final int DOCUMENTS = 24;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private DocumentRepository documentRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private Statistics statistics;
+	private Long firstDocumentId;
+
+	@BeforeEach
+	public void setup() {
+		Role viewer = entityManager.persist(Role.builder().name(Role.ERole.ROLE_VIEWER).build());
+		Role editor = entityManager.persist(Role.builder().name(Role.ERole.ROLE_EDITOR).build());
+		Tag report = entityManager.persist(Tag.builder().name("report").build());
+		Tag finance = entityManager.persist(Tag.builder().name("finance").build());
+
+		User[] authors = new User[AUTHORS];
+		for (int i = 0; i < AUTHORS; i++) {
+			authors[i] = entityManager.persist(User.builder().username("author" + i).email("author" + i + "@example.com")
+					.password("secret").roles(new HashSet<>(Arrays.asList(viewer, editor))).build());
+		}
+		for (int i = 0; i < DOCUMENTS; i++) {
+			Document document = entityManager.persist(Document.builder().title("Document " + i)
+					.filePath("file-" + i + ".txt").fileType("text/plain").fileSize(10L).author(authors[i % AUTHORS])
+					.tags(new HashSet<>(Arrays.asList(report, finance))).indexed(false).build());
+			if (firstDocumentId == null) {
+				firstDocumentId = document.getId();
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	public void testSummaryPage_ConstantQueriesPerPage() {
+		// Execute - a small and a large page both need the same statements
+		long smallPage = countSummaryPageQueries(5);
+		long largePage = countSummaryPageQueries(20);
+
+		// Verify - rows, count and one query for the tags of the whole page
+		assertEquals(3, smallPage);
+		assertEquals(smallPage, largePage);
+	}
+
+	@Test
+	public void testFindWithAuthorAndTagsById_SingleQuery() {
+		// Execute
+		Document document = documentRepository.findWithAuthorAndTagsById(firstDocumentId).orElseThrow();
+
+		// Verify
+		assertTrue(Hibernate.isInitialized(document.getAuthor()));
+		assertTrue(Hibernate.isInitialized(document.getTags()));
+		assertEquals("author0", document.getAuthor().getUsername());
+		assertEquals(2, document.getTags().size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testFindByIndexed_NoQueriesPerDocument() {
+		// Execute
+		List<Document> documents = documentRepository.findByIndexed(false);
+		List<String> authors = documents.stream().map(document -> document.getAuthor().getUsername())
+				.collect(Collectors.toList());
+		int tagCount = documents.stream().mapToInt(document -> document.getTags().size()).sum();
+
+		// Verify
+		assertEquals(DOCUMENTS, authors.size());
+		assertEquals(DOCUMENTS * 2, tagCount);
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testFindByUsername_DoesNotLoadRoles() {
+		// Execute
+		User author = userRepository.findByUsername("author1").orElseThrow();
+
+		// Verify
+		assertFalse(Hibernate.isInitialized(author.getRoles()));
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testFindAllUsers_RolesInSingleQuery() {
+		// Execute
+		List<User> users = userRepository.findAll();
+		int roleCount = users.stream().mapToInt(user -> user.getRoles().size()).sum();
+
+		// Verify
+		assertEquals(AUTHORS, users.size());
+		assertEquals(AUTHORS * 2, roleCount);
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	private long countSummaryPageQueries(int pageSize) {
+		entityManager.clear();
+		statistics.clear();
+
+		Page<DocumentSummary> page = documentRepository.findAllSummaries(
+				PageRequest.of(0, pageSize, Sort.by("createdAt").descending()));
+		List<Long> ids = page.getContent().stream().map(DocumentSummary::getId).collect(Collectors.toList());
+		List<DocumentTagName> tags = documentRepository.findTagNamesByDocumentIds(ids);
+
+		assertEquals(pageSize, page.getNumberOfElements());
+		assertEquals(pageSize * 2, tags.size());
+		return statistics.getPrepareStatementCount();
+	}
+}
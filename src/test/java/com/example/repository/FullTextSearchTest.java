@@ -0,0 +1,144 @@
+package com.example.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.config.FullTextIndexInitializer;
+import com.example.entity.Document;
+import com.example.entity.DocumentContent;
+import com.example.entity.User;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the native FT_SEARCH_DATA queries of app.search.mode=fulltext against the
+ * migrated schema, so a change to the SQL (key casts, the UNION of document and
+ * content matches, the native sort) is caught by the regular build.
+ */
+@DataJpaTest
+@Import(FullTextIndexInitializer.class)
+@TestPropertySource(properties = {
+		"app.search.mode=fulltext",
+		"spring.jpa.show-sql=false"
+})
+public class FullTextSearchTest {
+
+	// Native queries sort on column names, id keeps the order of creation
+	private static final Pageable PAGE = PageRequest.of(0, 10, Sort.by("id"));
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private DocumentRepository documentRepository;
+
+	private User alice;
+	private User bob;
+
+	@BeforeEach
+	public void setup() {
+		alice = entityManager.persist(User.builder().username("alice").email("alice@example.com")
+				.password("secret").roles(new HashSet<>()).build());
+		bob = entityManager.persist(User.builder().username("bob").email("bob@example.com")
+				.password("secret").roles(new HashSet<>()).build());
+
+		// Matches "budget" in the title and in its text, it must still be listed once
+		document("Budget 2024", "Yearly plan", "pdf", alice, "the budget was approved");
+		document("Minutes", "Board meeting", "pdf", bob, "budget figures were discussed");
+		document("Budget draft", null, "docx", bob, "first version");
+		document("Holiday plan", "Summer rota", "pdf", alice, "no figures here");
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	public void testSearchSummariesFullText_MatchesTitlesAndContent() {
+		// Execute
+		Page<DocumentSummary> page = documentRepository.searchSummariesFullText("budget", PAGE);
+
+		// Verify
+		assertEquals(3, page.getTotalElements());
+		assertEquals(Arrays.asList("Budget 2024", "Minutes", "Budget draft"), titles(page.getContent()));
+		assertEquals("bob", page.getContent().get(1).getAuthorUsername());
+	}
+
+	@Test
+	public void testSearchSummariesFullText_NoMatch() {
+		// Execute
+		Page<DocumentSummary> page = documentRepository.searchSummariesFullText("invoice", PAGE);
+
+		// Verify
+		assertEquals(0, page.getTotalElements());
+		assertTrue(page.getContent().isEmpty());
+	}
+
+	@Test
+	public void testSliceSearchSummariesFullText_PagesWithoutCount() {
+		// Execute
+		Slice<DocumentSummary> first = documentRepository.sliceSearchSummariesFullText("budget",
+				PageRequest.of(0, 2, Sort.by("id")));
+		Slice<DocumentSummary> second = documentRepository.sliceSearchSummariesFullText("budget",
+				PageRequest.of(1, 2, Sort.by("id")));
+
+		// Verify
+		assertEquals(Arrays.asList("Budget 2024", "Minutes"), titles(first.getContent()));
+		assertTrue(first.hasNext());
+		assertEquals(Arrays.asList("Budget draft"), titles(second.getContent()));
+		assertFalse(second.hasNext());
+	}
+
+	@Test
+	public void testFindSummariesByMultipleParametersFullText_TitleOnlyWithOtherCriteria() {
+		// Execute - the text match of "Minutes" does not count, the title filter only looks at titles
+		Page<DocumentSummary> byTitle = documentRepository.findSummariesByMultipleParametersFullText(
+				"budget", null, null, null, null, PAGE);
+		Page<DocumentSummary> byTitleAndType = documentRepository.findSummariesByMultipleParametersFullText(
+				"budget", "pdf", null, null, alice.getId(), PAGE);
+
+		// Verify
+		assertEquals(Arrays.asList("Budget 2024", "Budget draft"), titles(byTitle.getContent()));
+		assertEquals(2, byTitle.getTotalElements());
+		assertEquals(Arrays.asList("Budget 2024"), titles(byTitleAndType.getContent()));
+		assertEquals(1, byTitleAndType.getTotalElements());
+	}
+
+	@Test
+	public void testFindSummariesByMultipleParametersFullText_NoTitle() {
+		// Execute
+		Page<DocumentSummary> page = documentRepository.findSummariesByMultipleParametersFullText(
+				null, null, null, null, bob.getId(), PAGE);
+		Slice<DocumentSummary> slice = documentRepository.sliceSummariesByMultipleParametersFullText(
+				null, "pdf", null, null, null, PAGE);
+
+		// Verify
+		assertEquals(2, page.getTotalElements());
+		assertEquals(3, slice.getNumberOfElements());
+	}
+
+	private void document(String title, String description, String fileType, User author, String text) {
+		Document document = entityManager.persist(Document.builder().title(title).description(description)
+				.filePath(title + ".bin").fileType(fileType).fileSize(1L).author(author).tags(new HashSet<>())
+				.indexed(true).build());
+		entityManager.persist(DocumentContent.builder().document(document).chunkIndex(0).contentText(text)
+				.searchVector(text).build());
+	}
+
+	private List<String> titles(List<DocumentSummary> summaries) {
+		return summaries.stream().map(DocumentSummary::getTitle).collect(Collectors.toList());
+	}
+}
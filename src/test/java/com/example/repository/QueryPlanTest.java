@@ -0,0 +1,268 @@
+package com.example.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.config.FullTextIndexInitializer;
+import com.example.entity.Document;
+import com.example.entity.DocumentContent;
+import com.example.entity.RevokedToken;
+import com.example.entity.Role;
+import com.example.entity.Tag;
+import com.example.entity.User;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every repository query, records the SQL and parameters Hibernate actually sends
+ * and checks the EXPLAIN plan of each statement, so a changed query or a dropped index
+ * that turns a lookup into a table scan fails the build.
+ */
+@DataJpaTest
+@Import({ FullTextIndexInitializer.class, QueryPlanTest.RecordingConfig.class })
+@TestPropertySource(properties = {
+		"app.search.mode=fulltext",
+		"spring.jpa.show-sql=false",
+		// Every call has to reach the database to be explained
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+		"spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+public class QueryPlanTest {
+
+	private static final Pattern TABLE_SCAN = Pattern.compile("PUBLIC\\.(\\w+)\\.tableScan");
+	private static final Pageable PAGE = PageRequest.of(0, 10, Sort.by("createdAt").descending());
+	private static final Pageable NATIVE_PAGE = PageRequest.of(0, 10, Sort.by("created_at").descending());
+	private static final String[] NONE = {};
+
+	@TestConfiguration
+	static class RecordingConfig {
+		@Bean
+		static BeanPostProcessor statementRecorderPostProcessor() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource && !(bean instanceof StatementRecorder)
+							? new StatementRecorder((DataSource) bean) : bean;
+				}
+			};
+		}
+	}
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private DocumentRepository documentRepository;
+
+	@Autowired
+	private DocumentContentRepository documentContentRepository;
+
+	@Autowired
+	private RevokedTokenRepository revokedTokenRepository;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private TagRepository tagRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private User author;
+	private Document document;
+
+	@BeforeEach
+	public void setup() {
+		// The roles are inserted by the baseline migration
+		Role viewer = roleRepository.findByName(Role.ERole.ROLE_VIEWER).orElseThrow();
+		Tag report = entityManager.persist(Tag.builder().name("report").build());
+		for (int i = 0; i < 4; i++) {
+			User user = entityManager.persist(User.builder().username("author" + i).email("author" + i + "@example.com")
+					.password("secret").roles(new HashSet<>(Collections.singletonList(viewer))).build());
+			if (author == null) {
+				author = user;
+			}
+		}
+		for (int i = 0; i < 40; i++) {
+			Document saved = entityManager.persist(Document.builder().title("Quarterly report " + i)
+					.description("Figures for quarter " + i).filePath("file-" + i + ".txt").fileType("text/plain")
+					.fileSize(10L).author(author).tags(new HashSet<>(Collections.singletonList(report)))
+					.indexed(i % 2 == 0).build());
+			entityManager.persist(DocumentContent.builder().document(saved).chunkIndex(0)
+					.contentText("revenue grew in quarter " + i).searchVector("revenue grew in quarter " + i).build());
+			if (document == null) {
+				document = saved;
+			}
+		}
+		entityManager.persist(RevokedToken.builder().jti(UUID.randomUUID().toString())
+				.revokedAt(LocalDateTime.now()).expiresAt(LocalDateTime.now().plusHours(1)).build());
+		entityManager.flush();
+		entityManager.clear();
+		recorder().drain();
+	}
+
+	@Test
+	public void testDocumentLookups_UseIndexes() {
+		LocalDateTime now = LocalDateTime.now();
+
+		assertScans(() -> documentRepository.findByAuthor(author), NONE);
+		assertScans(() -> documentRepository.findByAuthor(author, PAGE), NONE);
+		assertScans(() -> documentRepository.findByTitle("Quarterly report 1"), NONE);
+		assertScans(() -> documentRepository.findByFileType("text/plain", PAGE), NONE);
+		assertScans(() -> documentRepository.findByDateRange(now.minusDays(1), now, PAGE), NONE);
+		assertScans(() -> documentRepository.findWithAuthorAndTagsById(document.getId()), NONE);
+		assertScans(() -> documentRepository.findByIndexed(false), NONE);
+		assertScans(() -> documentRepository.findById(document.getId()), NONE);
+		assertScans(() -> documentRepository.findSummariesByAuthorId(author.getId(), PAGE), NONE);
+		assertScans(() -> documentRepository.sliceSummariesByAuthorId(author.getId(), PAGE), NONE);
+		assertScans(() -> documentRepository.findTagNamesByDocumentIds(Arrays.asList(document.getId(), 2L)), NONE);
+	}
+
+	@Test
+	public void testDocumentListings_ScanOnlyDocuments() {
+		// An unfiltered listing reads every document, authors must still come through the primary key
+		assertScans(() -> documentRepository.findAllSummaries(PAGE), "DOCUMENTS");
+		assertScans(() -> documentRepository.sliceAllSummaries(PAGE), "DOCUMENTS");
+	}
+
+	@Test
+	public void testKeywordSearch_ScansOnlyDocuments() {
+		// A contains-match on title and description cannot use an index, the content lookup per document must
+		assertScans(() -> documentRepository.searchDocuments("report", "report", PAGE), "DOCUMENTS");
+		assertScans(() -> documentRepository.searchSummaries("report", "report", PAGE), "DOCUMENTS");
+		assertScans(() -> documentRepository.sliceSearchSummaries("report", "report", PAGE), "DOCUMENTS");
+	}
+
+	@Test
+	public void testFullTextSearch_NoTableScans() {
+		assertScans(() -> documentRepository.searchSummariesFullText("revenue", NATIVE_PAGE), NONE);
+		assertScans(() -> documentRepository.sliceSearchSummariesFullText("revenue", NATIVE_PAGE), NONE);
+	}
+
+	@Test
+	public void testCriteriaSearch_ScansOnlyDocuments() {
+		// Each criterion is optional (:x IS NULL OR ...), so no single index applies to every combination
+		LocalDateTime now = LocalDateTime.now();
+		assertScans(() -> documentRepository.findByMultipleParameters("report", "text/plain", now.minusDays(1), now,
+				author.getId(), PAGE), "DOCUMENTS");
+		assertScans(() -> documentRepository.findSummariesByMultipleParameters(null, "text/plain", null, null,
+				author.getId(), PAGE), "DOCUMENTS");
+		assertScans(() -> documentRepository.sliceSummariesByMultipleParameters("report", null, null, null,
+				null, PAGE), "DOCUMENTS");
+		assertScans(() -> documentRepository.findSummariesByMultipleParametersFullText("report", "text/plain", null,
+				null, author.getId(), NATIVE_PAGE), "DOCUMENTS");
+		assertScans(() -> documentRepository.sliceSummariesByMultipleParametersFullText("report", null, null, null,
+				null, NATIVE_PAGE), "DOCUMENTS");
+	}
+
+	@Test
+	public void testDocumentContentQueries_UseIndexes() {
+		assertScans(() -> documentContentRepository.findByDocumentIdOrderByChunkIndex(document.getId()), NONE);
+		assertScans(() -> documentContentRepository.findByDocumentIdInOrderByDocumentIdAscChunkIndexAsc(
+				Arrays.asList(document.getId(), 2L)), NONE);
+		assertScans(() -> documentContentRepository.deleteByDocumentId(document.getId()), NONE);
+	}
+
+	@Test
+	public void testUserRoleAndTagQueries_UseIndexes() {
+		assertScans(() -> userRepository.findByUsername("author1"), NONE);
+		assertScans(() -> userRepository.findWithRolesByUsername("author1"), NONE);
+		assertScans(() -> userRepository.findWithRolesById(author.getId()), NONE);
+		assertScans(() -> userRepository.findByEmail("author1@example.com"), NONE);
+		assertScans(() -> userRepository.existsByUsername("author1"), NONE);
+		assertScans(() -> userRepository.existsByEmail("author1@example.com"), NONE);
+		assertScans(() -> roleRepository.findByName(Role.ERole.ROLE_VIEWER), NONE);
+		assertScans(() -> tagRepository.findByName("report"), NONE);
+		assertScans(() -> tagRepository.findByNameIn(Arrays.asList("report", "finance")), NONE);
+		assertScans(() -> tagRepository.existsByName("report"), NONE);
+	}
+
+	@Test
+	public void testUserListing_ScansUsersOnly() {
+		assertScans(() -> userRepository.findAll(), "USERS");
+	}
+
+	@Test
+	public void testRevokedTokenQueries_UseIndexes() {
+		LocalDateTime now = LocalDateTime.now();
+		assertScans(() -> revokedTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(now.minusDays(1), now),
+				NONE);
+		assertScans(() -> revokedTokenRepository.insertIfAbsent(UUID.randomUUID().toString(), now.plusHours(1), now),
+				NONE);
+		assertScans(() -> revokedTokenRepository.deleteExpired(now), NONE);
+	}
+
+	private StatementRecorder recorder() {
+		return (StatementRecorder) dataSource;
+	}
+
+	// Runs the query, explains every statement it sent and compares the scanned tables
+	private void assertScans(Runnable query, String... expectedScans) {
+		entityManager.clear();
+		recorder().drain();
+		query.run();
+		List<StatementRecorder.Recorded> statements = recorder().drain();
+		assertFalse(statements.isEmpty(), "The query sent no statement");
+
+		Set<String> scanned = new TreeSet<>();
+		List<String> plans = new ArrayList<>();
+		for (StatementRecorder.Recorded statement : statements) {
+			String plan = explain(statement);
+			plans.add(plan);
+			Matcher matcher = TABLE_SCAN.matcher(plan);
+			while (matcher.find()) {
+				scanned.add(matcher.group(1));
+			}
+		}
+		recorder().drain();
+		assertEquals(new TreeSet<>(Arrays.asList(expectedScans)), scanned, String.join("\n\n", plans));
+	}
+
+	private String explain(StatementRecorder.Recorded statement) {
+		Connection connection = DataSourceUtils.getConnection(dataSource);
+		try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql)) {
+			statement.bind(explain);
+			try (ResultSet plan = explain.executeQuery()) {
+				plan.next();
+				return plan.getString(1);
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException("Cannot explain " + statement.sql, e);
+		} finally {
+			DataSourceUtils.releaseConnection(connection, dataSource);
+		}
+	}
+}
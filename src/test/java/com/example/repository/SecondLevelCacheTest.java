@@ -0,0 +1,123 @@
+package com.example.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.entity.Role;
+import com.example.entity.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Role, tag and user lookups should hit the database once and then be answered from the
+ * second-level and query cache. Runs without a test transaction, entities only reach the
+ * cache on commit.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.show-sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private SessionFactory sessionFactory;
+	private Statistics statistics;
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	public void setup() {
+		sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		sessionFactory.getCache().evictAll();
+		sessionFactory.getCache().evictQueryRegions();
+		statistics = sessionFactory.getStatistics();
+		statistics.clear();
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		userRepository.findByUsername("cached").ifPresent(userRepository::delete);
+	}
+
+	@Test
+	public void testRoleLookup_SecondCallFromCache() {
+		// Execute
+		Role first = roleRepository.findByName(Role.ERole.ROLE_VIEWER).orElseThrow();
+		Role second = roleRepository.findByName(Role.ERole.ROLE_VIEWER).orElseThrow();
+
+		// Verify
+		assertEquals(first.getId(), second.getId());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(1, statistics.getQueryCacheHitCount());
+		assertEquals(1, statistics.getDomainDataRegionStatistics("roles").getHitCount());
+	}
+
+	@Test
+	public void testUserWithRoles_SecondLookupWithoutQueries() {
+		// Setup
+		Role viewer = roleRepository.findByName(Role.ERole.ROLE_VIEWER).orElseThrow();
+		userRepository.save(User.builder().username("cached").email("cached@example.com").password("secret")
+				.roles(new HashSet<>(Collections.singleton(viewer))).build());
+		loadRoleCount();
+		statistics.clear();
+
+		// Execute
+		int roles = loadRoleCount();
+
+		// Verify
+		CacheRegionStatistics users = statistics.getDomainDataRegionStatistics("users");
+		CacheRegionStatistics userRoles = statistics.getDomainDataRegionStatistics("user-roles");
+		assertEquals(1, roles);
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertEquals(1, users.getHitCount());
+		assertEquals(1, userRoles.getHitCount());
+	}
+
+	@Test
+	public void testUserUpdate_InvalidatesCachedLookup() {
+		// Setup
+		userRepository.save(User.builder().username("cached").email("cached@example.com").password("secret")
+				.roles(new HashSet<>()).build());
+		userRepository.findByUsername("cached").orElseThrow();
+
+		// Execute
+		transactionTemplate.executeWithoutResult(status -> {
+			User user = userRepository.findByUsername("cached").orElseThrow();
+			user.setEmail("changed@example.com");
+		});
+
+		// Verify
+		assertEquals("changed@example.com", userRepository.findByUsername("cached").orElseThrow().getEmail());
+	}
+
+	private int loadRoleCount() {
+		return transactionTemplate.execute(status ->
+				userRepository.findWithRolesByUsername("cached").orElseThrow().getRoles().size());
+	}
+}
@@ -0,0 +1,106 @@
+package com.example.repository;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Records the SQL and bound parameters of every prepared statement executed through it,
+ * so tests can re-run exactly what Hibernate sent, for example under EXPLAIN.
+ */
+class StatementRecorder extends DelegatingDataSource {
+
+	static class Recorded {
+		final String sql;
+		// parameter index -> setter and its arguments after the index
+		final Map<Integer, Object[]> parameters;
+
+		Recorded(String sql, Map<Integer, Object[]> parameters) {
+			this.sql = sql;
+			this.parameters = parameters;
+		}
+
+		void bind(PreparedStatement statement) throws SQLException {
+			for (Map.Entry<Integer, Object[]> parameter : parameters.entrySet()) {
+				Object[] value = parameter.getValue();
+				if ("setNull".equals(value[0])) {
+					statement.setNull(parameter.getKey(), (Integer) value[1]);
+				} else {
+					statement.setObject(parameter.getKey(), value[1]);
+				}
+			}
+		}
+	}
+
+	private final List<Recorded> recorded = Collections.synchronizedList(new ArrayList<>());
+
+	StatementRecorder(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return recording(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return recording(super.getConnection(username, password));
+	}
+
+	List<Recorded> drain() {
+		synchronized (recorded) {
+			List<Recorded> statements = new ArrayList<>(recorded);
+			recorded.clear();
+			return statements;
+		}
+	}
+
+	private Connection recording(Connection connection) {
+		return (Connection) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+					Object result = invoke(method, connection, args);
+					if (method.getName().equals("prepareStatement")) {
+						return recording((PreparedStatement) result, (String) args[0]);
+					}
+					return result;
+				});
+	}
+
+	private PreparedStatement recording(PreparedStatement statement, String sql) {
+		Map<Integer, Object[]> parameters = new TreeMap<>();
+		return (PreparedStatement) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+					String name = method.getName();
+					if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+						parameters.put((Integer) args[0], new Object[] { name, args[1] });
+					} else if ((name.equals("executeQuery") || name.equals("executeUpdate") || name.equals("execute"))
+							&& (args == null || args.length == 0)) {
+						recorded.add(new Recorded(sql, new TreeMap<>(parameters)));
+					} else if (name.equals("clearParameters")) {
+						parameters.clear();
+					}
+					return invoke(method, statement, args);
+				});
+	}
+
+	private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+}
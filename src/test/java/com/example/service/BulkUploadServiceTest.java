@@ -0,0 +1,269 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.config.FileStorageProperties;
+import com.example.dto.BulkUploadItem;
+import com.example.dto.BulkUploadManifest;
+import com.example.dto.BulkUploadResult;
+import com.example.entity.Document;
+import com.example.entity.Tag;
+import com.example.entity.User;
+import com.example.exception.InvalidUploadException;
+import com.example.exception.UploadTooLargeException;
+import com.example.repository.DocumentRepository;
+import com.example.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkUploadServiceTest {
+
+	@Mock
+	private FileStorageService fileStorageService;
+
+	@Mock
+	private DocumentService documentService;
+
+	@Mock
+	private DocumentRepository documentRepository;
+
+	@Mock
+	private TagRegistryService tagRegistryService;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private TransactionTemplate transactionTemplate;
+
+	@Mock
+	private PageTotalEstimator pageTotalEstimator;
+
+	@Spy
+	private FileStorageProperties fileStorageProperties = new FileStorageProperties();
+
+	@Spy
+	private ObjectMapper objectMapper = new ObjectMapper();
+
+	@InjectMocks
+	private BulkUploadService bulkUploadService;
+
+	private User testUser;
+
+	@BeforeEach
+	public void setup() {
+		testUser = new User();
+		testUser.setId(1L);
+		testUser.setUsername("testuser");
+
+		when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testUploadArchive_PerItemStatus() throws IOException {
+		// Setup - two listed files (one fails to store), one unlisted file and one listed file missing
+		String manifest = "{\"items\":["
+				+ "{\"fileName\":\"docs/a.txt\",\"title\":\"A\",\"tags\":[\"finance\",\"2024\"]},"
+				+ "{\"fileName\":\"docs/b.txt\",\"title\":\"B\",\"tags\":[\"finance\"]},"
+				+ "{\"fileName\":\"docs/c.txt\",\"title\":\"C\"},"
+				+ "{\"fileName\":\"docs/missing.txt\",\"title\":\"Missing\"}]}";
+		byte[] archive = zip("docs/a.txt", "alpha", "docs/b.txt", "bravo", "docs/c.txt", "charlie",
+				"extra.txt", "unlisted", BulkUploadService.MANIFEST_ENTRY, manifest);
+
+		when(fileStorageService.storeStream(any(), eq("docs/a.txt"), eq(1024L)))
+				.thenReturn(new StoredUpload("a-stored.txt", 5L, "aa", "text/plain"));
+		when(fileStorageService.storeStream(any(), eq("docs/b.txt"), eq(1024L)))
+				.thenThrow(new IllegalStateException("disk full"));
+		when(fileStorageService.storeStream(any(), eq("docs/c.txt"), eq(1024L)))
+				.thenReturn(new StoredUpload("c-stored.txt", 7L, "cc", "text/plain"));
+		when(fileStorageService.storeStream(any(), eq("extra.txt"), eq(1024L)))
+				.thenReturn(new StoredUpload("extra-stored.txt", 8L, "ee", "text/plain"));
+		when(transactionTemplate.execute(any())).thenAnswer(
+				invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+
+		Tag finance = Tag.builder().id(1L).name("finance").build();
+		Tag year = Tag.builder().id(2L).name("2024").build();
+		Map<String, Tag> tags = new HashMap<>();
+		tags.put("finance", finance);
+		tags.put("2024", year);
+		when(tagRegistryService.resolve(anyCollection())).thenReturn(tags);
+		when(documentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+			List<Document> documents = invocation.getArgument(0);
+			long id = 10;
+			for (Document document : documents) {
+				document.setId(id++);
+			}
+			return documents;
+		});
+
+		// Execute
+		BulkUploadResult result = bulkUploadService.uploadArchive(new ByteArrayInputStream(archive), 1024L, "testuser");
+
+		// Verify
+		assertEquals(4, result.getTotal());
+		assertEquals(2, result.getCreated());
+		assertEquals(2, result.getFailed());
+		assertEquals(BulkUploadResult.Status.CREATED, result.getItems().get(0).getStatus());
+		assertEquals(10L, result.getItems().get(0).getDocumentId());
+		assertEquals("disk full", result.getItems().get(1).getMessage());
+		assertEquals(BulkUploadResult.Status.CREATED, result.getItems().get(2).getStatus());
+		assertEquals(BulkUploadResult.Status.FAILED, result.getItems().get(3).getStatus());
+		assertEquals(BulkUploadResult.Status.SKIPPED, result.getItems().get(4).getStatus());
+
+		verify(tagRegistryService, times(1)).resolve(anyCollection());
+		verify(documentRepository, times(1)).saveAll(anyList());
+		verify(fileStorageService).deleteFile("extra-stored.txt");
+		verify(documentService).processDocumentContentBatch(Arrays.asList(10L, 11L));
+		verify(pageTotalEstimator).invalidate();
+	}
+
+	@Test
+	public void testUploadArchive_MissingManifest() throws IOException {
+		// Setup
+		byte[] archive = zip("a.txt", "alpha");
+		when(fileStorageService.storeStream(any(), eq("a.txt"), eq(1024L)))
+				.thenReturn(new StoredUpload("a-stored.txt", 5L, "aa", "text/plain"));
+
+		// Execute & Verify
+		assertThrows(InvalidUploadException.class,
+				() -> bulkUploadService.uploadArchive(new ByteArrayInputStream(archive), 1024L, "testuser"));
+		verify(fileStorageService).deleteFile("a-stored.txt");
+		verify(documentRepository, never()).saveAll(anyList());
+		verify(documentService, never()).processDocumentContentBatch(anyList());
+	}
+
+	@Test
+	public void testUploadArchive_TooManyEntries() throws IOException {
+		// Setup
+		fileStorageProperties.getUpload().setBulkMaxEntries(2);
+		byte[] archive = zip("a.txt", "alpha", "b.txt", "bravo", "c.txt", "charlie");
+		when(fileStorageService.storeStream(any(), anyString(), eq(1024L)))
+				.thenReturn(new StoredUpload("a-stored.txt", 5L, "aa", "text/plain"))
+				.thenReturn(new StoredUpload("b-stored.txt", 5L, "bb", "text/plain"));
+
+		// Execute & Verify - the stored entries are removed again
+		assertThrows(InvalidUploadException.class,
+				() -> bulkUploadService.uploadArchive(new ByteArrayInputStream(archive), 1024L, "testuser"));
+		verify(fileStorageService, times(2)).storeStream(any(), anyString(), anyLong());
+		verify(fileStorageService).deleteFile("a-stored.txt");
+		verify(fileStorageService).deleteFile("b-stored.txt");
+		verify(documentRepository, never()).saveAll(anyList());
+	}
+
+	@Test
+	public void testUploadArchive_ExpandsBeyondLimit() throws IOException {
+		// Setup - the second entry only gets what is left of the 100 byte archive budget
+		fileStorageProperties.getUpload().setBulkMaxArchiveSize(DataSize.ofBytes(100));
+		byte[] archive = zip("a.txt", "a".repeat(60), "b.txt", "b".repeat(60));
+		when(fileStorageService.storeStream(any(), eq("a.txt"), eq(100L)))
+				.thenReturn(new StoredUpload("a-stored.txt", 60L, "aa", "text/plain"));
+		when(fileStorageService.storeStream(any(), eq("b.txt"), eq(40L)))
+				.thenThrow(new UploadTooLargeException("Upload exceeds the allowed size of 40 bytes"));
+
+		// Execute & Verify
+		assertThrows(UploadTooLargeException.class,
+				() -> bulkUploadService.uploadArchive(new ByteArrayInputStream(archive), 1024L, "testuser"));
+		verify(fileStorageService).deleteFile("a-stored.txt");
+		verify(documentRepository, never()).saveAll(anyList());
+	}
+
+	@Test
+	public void testUploadArchive_ManifestTooLarge() throws IOException {
+		// Setup - the manifest is refused by its own limit, well below the archive budget
+		fileStorageProperties.getUpload().setBulkMaxManifestSize(DataSize.ofBytes(64));
+		byte[] archive = zip("a.txt", "alpha", BulkUploadService.MANIFEST_ENTRY,
+				"{\"items\":[{\"fileName\":\"a.txt\",\"title\":\"" + "A".repeat(100) + "\"}]}");
+		when(fileStorageService.storeStream(any(), eq("a.txt"), eq(1024L)))
+				.thenReturn(new StoredUpload("a-stored.txt", 5L, "aa", "text/plain"));
+
+		// Execute & Verify
+		UploadTooLargeException ex = assertThrows(UploadTooLargeException.class,
+				() -> bulkUploadService.uploadArchive(new ByteArrayInputStream(archive), 1024L, "testuser"));
+		assertTrue(ex.getMessage().contains(BulkUploadService.MANIFEST_ENTRY));
+		verify(fileStorageService).deleteFile("a-stored.txt");
+		verify(documentRepository, never()).saveAll(anyList());
+	}
+
+	@Test
+	public void testUploadArchive_DuplicateEntryNames() throws IOException {
+		// Setup - ZipOutputStream refuses duplicates, so the second name is rewritten in the bytes
+		byte[] archive = new String(zip("a.txt", "alpha", "b.txt", "again"), StandardCharsets.ISO_8859_1)
+				.replace("b.txt", "a.txt").getBytes(StandardCharsets.ISO_8859_1);
+		when(fileStorageService.storeStream(any(), eq("a.txt"), eq(1024L)))
+				.thenReturn(new StoredUpload("a-stored.txt", 5L, "aa", "text/plain"));
+
+		// Execute & Verify
+		assertThrows(InvalidUploadException.class,
+				() -> bulkUploadService.uploadArchive(new ByteArrayInputStream(archive), 1024L, "testuser"));
+		verify(fileStorageService, times(1)).storeStream(any(), anyString(), anyLong());
+		verify(fileStorageService).deleteFile("a-stored.txt");
+	}
+
+	@Test
+	public void testUploadFiles_DuplicateFileNames() {
+		// Setup
+		List<MultipartFile> files = Arrays.asList(
+				new MockMultipartFile("files", "a.txt", "text/plain", "alpha".getBytes(StandardCharsets.UTF_8)),
+				new MockMultipartFile("files", "a.txt", "text/plain", "again".getBytes(StandardCharsets.UTF_8)));
+		BulkUploadManifest manifest = new BulkUploadManifest(Collections.singletonList(
+				BulkUploadItem.builder().fileName("a.txt").title("A").build()));
+
+		// Execute & Verify - nothing is stored when one name stands for two files
+		assertThrows(InvalidUploadException.class,
+				() -> bulkUploadService.uploadFiles(manifest, files, 1024L, "testuser"));
+		verifyNoInteractions(fileStorageService, documentRepository);
+	}
+
+	@Test
+	public void testUploadFiles_NothingToSave() {
+		// Execute
+		BulkUploadResult result = bulkUploadService.uploadFiles(
+				new BulkUploadManifest(Collections.emptyList()), Collections.emptyList(), 1024L,
+				"testuser");
+
+		// Verify
+		assertEquals(0, result.getCreated());
+		verifyNoInteractions(documentRepository, documentService);
+	}
+
+	private byte[] zip(String... namesAndContents) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+			for (int i = 0; i < namesAndContents.length; i += 2) {
+				zip.putNextEntry(new ZipEntry(namesAndContents[i]));
+				zip.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+				zip.closeEntry();
+			}
+		}
+		return bytes.toByteArray();
+	}
+}
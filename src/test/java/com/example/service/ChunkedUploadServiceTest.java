@@ -0,0 +1,231 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import com.example.config.FileStorageProperties;
+import com.example.dto.ChunkedUploadRequest;
+import com.example.dto.DocumentUploadRequest;
+import com.example.entity.Document;
+import com.example.exception.InvalidUploadException;
+import com.example.exception.ResourceNotFoundException;
+import com.example.exception.UploadTooLargeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ChunkedUploadServiceTest {
+
+	@Mock
+	private FileStorageService fileStorageService;
+
+	@Mock
+	private DocumentService documentService;
+
+	@Spy
+	private FileStorageProperties fileStorageProperties = new FileStorageProperties();
+
+	@InjectMocks
+	private ChunkedUploadService chunkedUploadService;
+
+	private ChunkedUploadRequest request;
+
+	@BeforeEach
+	public void setup() {
+		request = new ChunkedUploadRequest();
+		request.setTitle("Large Video");
+		request.setFileName("video.mp4");
+		request.setFileSize(250L);
+		request.setChunkSize(100L);
+		fileStorageProperties.getUpload().setMinChunkSize(DataSize.ofBytes(10));
+	}
+
+	@Test
+	public void testCreateSession_ComputesChunkLayout() {
+		// Execute
+		UploadSession session = chunkedUploadService.createSession(request, 1000L, "editor");
+
+		// Verify
+		assertEquals(3, session.getChunkCount());
+		assertEquals(100L, session.expectedChunkSize(0));
+		assertEquals(50L, session.expectedChunkSize(2));
+		assertEquals("Large Video", session.getMetadata().getTitle());
+	}
+
+	@Test
+	public void testCreateSession_ExceedsQuota() {
+		assertThrows(UploadTooLargeException.class, () -> chunkedUploadService.createSession(request, 100L, "editor"));
+	}
+
+	@Test
+	public void testCreateSession_ChunkSizeTooSmall() {
+		// Setup
+		request.setChunkSize(5L);
+
+		// Execute & Verify
+		assertThrows(InvalidUploadException.class, () -> chunkedUploadService.createSession(request, 1000L, "editor"));
+	}
+
+	@Test
+	public void testCreateSession_TooManyChunks() {
+		// Setup - 250 bytes in 10 byte chunks is 25 chunks
+		fileStorageProperties.getUpload().setMaxChunkCount(20);
+		request.setChunkSize(10L);
+
+		// Execute & Verify
+		assertThrows(InvalidUploadException.class, () -> chunkedUploadService.createSession(request, 1000L, "editor"));
+	}
+
+	@Test
+	public void testCreateSession_SmallFileInOneChunk() {
+		// Setup - below the minimum, but the whole file is a single chunk
+		request.setFileSize(8L);
+		request.setChunkSize(8L);
+
+		// Execute
+		UploadSession session = chunkedUploadService.createSession(request, 1000L, "editor");
+
+		// Verify
+		assertEquals(1, session.getChunkCount());
+	}
+
+	@Test
+	public void testGetSession_OtherUser() {
+		// Setup
+		UploadSession session = chunkedUploadService.createSession(request, 1000L, "editor");
+
+		// Execute & Verify
+		assertThrows(ResourceNotFoundException.class, () -> chunkedUploadService.getSession(session.getId(), "someone"));
+	}
+
+	@Test
+	public void testStoreChunk_InvalidIndex() {
+		// Setup
+		UploadSession session = chunkedUploadService.createSession(request, 1000L, "editor");
+
+		// Execute & Verify
+		assertThrows(InvalidUploadException.class, () -> chunkedUploadService.storeChunk(session.getId(), 3,
+				new ByteArrayInputStream(new byte[50]), null, "editor"));
+		verifyNoInteractions(fileStorageService);
+	}
+
+	@Test
+	public void testCompleteSession_MissingChunks() {
+		// Setup
+		UploadSession session = chunkedUploadService.createSession(request, 1000L, "editor");
+		InputStream content = new ByteArrayInputStream(new byte[100]);
+		when(fileStorageService.storeChunk(session.getId(), 0, content, 100L, "abc"))
+				.thenReturn(new StoredUpload("chunk-000000", 100L, "abc", null));
+		chunkedUploadService.storeChunk(session.getId(), 0, content, "abc", "editor");
+
+		// Execute & Verify
+		assertThrows(InvalidUploadException.class, () -> chunkedUploadService.completeSession(session.getId(), "editor"));
+		verify(fileStorageService, never()).assembleChunks(any(), anyInt(), any());
+		assertFalse(session.getCompleting().get());
+	}
+
+	@Test
+	public void testCompleteSession_Success() {
+		// Setup - chunks arrive out of order
+		UploadSession session = chunkedUploadService.createSession(request, 1000L, "editor");
+		for (int index : new int[] { 2, 0, 1 }) {
+			when(fileStorageService.storeChunk(eq(session.getId()), eq(index), any(), eq(session.expectedChunkSize(index)),
+					isNull())).thenReturn(new StoredUpload("chunk", session.expectedChunkSize(index), "abc", null));
+			chunkedUploadService.storeChunk(session.getId(), index, new ByteArrayInputStream(new byte[0]), null, "editor");
+		}
+		StoredUpload assembled = new StoredUpload("assembled.mp4", 250L, null, "video/mp4");
+		when(fileStorageService.assembleChunks(session.getId(), 3, "video.mp4")).thenReturn(assembled);
+		Document document = Document.builder().id(7L).title("Large Video").build();
+		when(documentService.completeUpload(any(DocumentUploadRequest.class), eq(assembled), eq("editor")))
+				.thenReturn(document);
+
+		// Execute
+		Document result = chunkedUploadService.completeSession(session.getId(), "editor");
+
+		// Verify
+		assertEquals(document, result);
+		assertThrows(ResourceNotFoundException.class, () -> chunkedUploadService.getSession(session.getId(), "editor"));
+	}
+
+	@Test
+	public void testCompleteSession_WaitsForChunkInFlight() throws Exception {
+		// Setup - chunks 0 and 1 are stored, chunk 2 is still being written when completion starts
+		UploadSession session = chunkedUploadService.createSession(request, 1000L, "editor");
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(fileStorageService.storeChunk(eq(session.getId()), anyInt(), any(), anyLong(), isNull()))
+				.thenAnswer(invocation -> {
+					if (invocation.getArgument(1, Integer.class) == 2) {
+						writing.countDown();
+						assertTrue(release.await(5, TimeUnit.SECONDS));
+					}
+					return new StoredUpload("chunk", 100L, "abc", null);
+				});
+		chunkedUploadService.storeChunk(session.getId(), 0, new ByteArrayInputStream(new byte[0]), null, "editor");
+		chunkedUploadService.storeChunk(session.getId(), 1, new ByteArrayInputStream(new byte[0]), null, "editor");
+		StoredUpload assembled = new StoredUpload("assembled.mp4", 250L, null, "video/mp4");
+		when(fileStorageService.assembleChunks(session.getId(), 3, "video.mp4")).thenReturn(assembled);
+		Document document = Document.builder().id(7L).title("Large Video").build();
+		when(documentService.completeUpload(any(DocumentUploadRequest.class), eq(assembled), eq("editor")))
+				.thenReturn(document);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		try {
+			// Execute
+			Future<StoredUpload> lastChunk = executor.submit(() -> chunkedUploadService.storeChunk(session.getId(), 2,
+					new ByteArrayInputStream(new byte[0]), null, "editor"));
+			assertTrue(writing.await(5, TimeUnit.SECONDS));
+			Future<Document> completion = executor.submit(
+					() -> chunkedUploadService.completeSession(session.getId(), "editor"));
+
+			// Verify - nothing is assembled while the chunk is written, and a re-sent chunk is refused
+			verify(fileStorageService, after(200).never()).assembleChunks(any(), anyInt(), any());
+			Future<StoredUpload> resent = executor.submit(() -> chunkedUploadService.storeChunk(session.getId(), 1,
+					new ByteArrayInputStream(new byte[0]), null, "editor"));
+			release.countDown();
+			assertNotNull(lastChunk.get(5, TimeUnit.SECONDS));
+			assertEquals(document, completion.get(5, TimeUnit.SECONDS));
+			ExecutionException refused = assertThrows(ExecutionException.class, () -> resent.get(5, TimeUnit.SECONDS));
+			// Refused while completing, or not found once the completed session is gone
+			assertTrue(refused.getCause() instanceof InvalidUploadException
+					|| refused.getCause() instanceof ResourceNotFoundException);
+			verify(fileStorageService, times(3)).storeChunk(eq(session.getId()), anyInt(), any(), anyLong(), isNull());
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testPurgeExpiredSessions_RemovesOrphanedChunks() {
+		// Setup
+		UploadSession session = chunkedUploadService.createSession(request, 1000L, "editor");
+		when(fileStorageService.listChunkSessions()).thenReturn(Arrays.asList(session.getId(), "orphan"));
+
+		// Execute
+		chunkedUploadService.purgeExpiredSessions();
+
+		// Verify - the live session is kept
+		verify(fileStorageService).deleteChunks("orphan");
+		verify(fileStorageService, never()).deleteChunks(session.getId());
+		assertEquals(session, chunkedUploadService.getSession(session.getId(), "editor"));
+	}
+}
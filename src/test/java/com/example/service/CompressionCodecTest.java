@@ -0,0 +1,51 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressionCodecTest {
+
+	@Test
+	public void testRoundTrip_AllCodecs() throws IOException {
+		String content = "The quick brown fox jumps over the lazy dog. ".repeat(100);
+
+		for (CompressionCodec codec : CompressionCodec.values()) {
+			// Execute
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			try (OutputStream out = codec.compress(compressed, 6)) {
+				out.write(content.getBytes(StandardCharsets.UTF_8));
+			}
+
+			String restored;
+			try (InputStream in = codec.decompress(new ByteArrayInputStream(compressed.toByteArray()))) {
+				restored = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+			}
+
+			// Verify
+			assertEquals(content, restored, codec.name());
+			if (codec != CompressionCodec.NONE) {
+				assertTrue(compressed.size() < content.length(), codec.name());
+			}
+		}
+	}
+
+	@Test
+	public void testLookup() {
+		assertEquals(CompressionCodec.DEFLATE, CompressionCodec.fromName("deflate"));
+		assertEquals(CompressionCodec.NONE, CompressionCodec.fromName(""));
+		assertThrows(IllegalArgumentException.class, () -> CompressionCodec.fromName("brotli"));
+
+		assertEquals(CompressionCodec.GZIP, CompressionCodec.forStoredName("abc.txt.gz"));
+		assertEquals(CompressionCodec.NONE, CompressionCodec.forStoredName("abc.txt"));
+		assertEquals(CompressionCodec.DEFLATE, CompressionCodec.forText("{deflate}eJw="));
+		assertEquals(CompressionCodec.NONE, CompressionCodec.forText("plain text"));
+	}
+}
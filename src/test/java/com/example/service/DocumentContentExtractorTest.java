@@ -12,6 +12,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -80,7 +82,7 @@ public class DocumentContentExtractorTest {
 
 		// Verify
 		assertNotNull(result);
-		assertEquals("this is a test document  it contains uppercase and punctuation", result);
+		assertEquals("this is a test document it contains uppercase and punctuation", result);
 	}
 
 	@Test
@@ -139,4 +141,29 @@ public class DocumentContentExtractorTest {
 		// Verify
 		assertEquals("", result);
 	}
+
+	@Test
+	public void testSplitText_BreaksAtWhitespace() {
+		// Setup
+		String text = "word ".repeat(100);
+
+		// Execute
+		List<String> chunks = contentExtractor.splitText(text, 52);
+
+		// Verify
+		assertEquals(text, String.join("", chunks));
+		for (String chunk : chunks) {
+			assertTrue(chunk.length() <= 52);
+			assertTrue(chunk.endsWith(" ") || chunk == chunks.get(chunks.size() - 1));
+		}
+	}
+
+	@Test
+	public void testSplitText_Unchunked() {
+		// Execute & Verify
+		assertEquals(Collections.singletonList("short text"), contentExtractor.splitText("short text", 0));
+		assertEquals(Collections.singletonList("short text"), contentExtractor.splitText("short text", 100));
+		assertTrue(contentExtractor.splitText("", 100).isEmpty());
+		assertTrue(contentExtractor.splitText(null, 100).isEmpty());
+	}
 }
@@ -0,0 +1,87 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.dto.DocumentDetails;
+import com.example.entity.Document;
+import com.example.entity.Tag;
+import com.example.entity.User;
+import com.example.repository.DocumentRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DocumentDetailsLoaderTest {
+
+	@Mock
+	private DocumentRepository documentRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private DocumentDetailsLoader loader;
+	private Document testDocument;
+
+	@BeforeEach
+	public void setup() {
+		loader = new DocumentDetailsLoader(documentRepository, transactionManager);
+
+		User author = new User();
+		author.setId(1L);
+		author.setUsername("testuser");
+		testDocument = Document.builder().id(1L).title("Test Document").description("This is a test document")
+				.filePath("test/path/document.pdf").fileType("application/pdf").fileSize(1024L).author(author)
+				.tags(new HashSet<>(Collections.singleton(Tag.builder().id(1L).name("test").build())))
+				.createdAt(LocalDateTime.now()).indexed(true).build();
+	}
+
+	@Test
+	public void testLoadDetails_Snapshot() {
+		// Setup
+		when(documentRepository.findWithAuthorAndTagsById(1L)).thenReturn(Optional.of(testDocument));
+
+		// Execute
+		DocumentDetails result = loader.loadDetails(1L);
+
+		// Verify
+		assertEquals(1L, result.getId());
+		assertEquals("Test Document", result.getTitle());
+		assertEquals("testuser", result.getAuthorUsername());
+		assertEquals(Collections.singleton("test"), result.getTags());
+		assertTrue(result.isIndexed());
+		assertThrows(UnsupportedOperationException.class, () -> result.getTags().add("other"));
+		verify(transactionManager).commit(any());
+	}
+
+	@Test
+	public void testLoadDetails_ReadsFromPrimary() {
+		// Setup
+		when(documentRepository.findWithAuthorAndTagsById(1L)).thenReturn(Optional.of(testDocument));
+
+		// Execute
+		loader.loadDetails(1L);
+
+		// Verify - a read-only transaction would be routed to the replica
+		verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+	}
+
+	@Test
+	public void testLoad_MissingDocumentIsNull() {
+		// Setup
+		when(documentRepository.findWithAuthorAndTagsById(99L)).thenReturn(Optional.empty());
+
+		// Execute & Verify
+		assertNull(loader.load(99L));
+	}
+}
@@ -5,27 +5,43 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.config.FileStorageProperties;
+import com.example.config.SearchProperties;
+import com.example.dto.DocumentDetails;
 import com.example.dto.DocumentDto;
 import com.example.dto.DocumentUploadRequest;
+import com.example.dto.EstimatedPage;
 import com.example.dto.SearchRequest;
 import com.example.entity.Document;
+import com.example.entity.DocumentContent;
 import com.example.entity.Tag;
 import com.example.entity.User;
+import com.example.exception.InvalidSortException;
 import com.example.exception.ResourceNotFoundException;
+import com.example.repository.DocumentContentRepository;
 import com.example.repository.DocumentRepository;
-import com.example.repository.TagRepository;
+import com.example.repository.DocumentSummary;
+import com.example.repository.DocumentTagName;
 import com.example.repository.UserRepository;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.file.Path;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -43,7 +59,7 @@ public class DocumentServiceTest {
 	private UserRepository userRepository;
 
 	@Mock
-	private TagRepository tagRepository;
+	private TagRegistryService tagRegistryService;
 
 	@Mock
 	private FileStorageService fileStorageService;
@@ -51,6 +67,30 @@ public class DocumentServiceTest {
 	@Mock
 	private DocumentContentExtractor contentExtractor;
 
+	@Mock
+	private TransactionTemplate transactionTemplate;
+
+	@Mock
+	private DocumentContentRepository documentContentRepository;
+
+	@Spy
+	private FileStorageProperties fileStorageProperties = new FileStorageProperties();
+
+	@Spy
+	private SearchProperties searchProperties = new SearchProperties();
+
+	@Mock
+	private CacheManager cacheManager;
+
+	@Mock
+	private DocumentDetailsLoader documentDetailsLoader;
+
+	@Mock
+	private Cache documentCache;
+
+	@Spy
+	private PageTotalEstimator pageTotalEstimator = new PageTotalEstimator(new SearchProperties());
+
 	@InjectMocks
 	private DocumentService documentService;
 
@@ -78,7 +118,7 @@ public class DocumentServiceTest {
 		// Initialize test document
 		testDocument = Document.builder().id(1L).title("Test Document").description("This is a test document")
 				.filePath("test/path/document.pdf").fileType("application/pdf").fileSize(1024L)
-				.contentText("Test document content text for searching").author(testUser).createdAt(LocalDateTime.now())
+				.author(testUser).createdAt(LocalDateTime.now())
 				.indexed(true).build();
 
 		Set<Tag> tags = new HashSet<>();
@@ -117,10 +157,10 @@ public class DocumentServiceTest {
 		// Setup
 		when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(testUser));
 		when(fileStorageService.storeFile(any(MultipartFile.class))).thenReturn("stored-file-name.pdf");
-		when(tagRepository.findByName("test")).thenReturn(Optional.of(testTag));
-		when(tagRepository.findByName("document")).thenReturn(Optional.empty());
-		when(tagRepository.save(any(Tag.class))).thenReturn(new Tag());
+		when(tagRegistryService.resolveTags(uploadRequest.getTags())).thenReturn(new HashSet<>(Arrays.asList(testTag, new Tag())));
 		when(documentRepository.save(any(Document.class))).thenReturn(testDocument);
+		// Content processing is called on the service itself, so it runs inline here
+		when(documentRepository.findById(1L)).thenReturn(Optional.of(testDocument));
 
 		// Execute
 		Document result = documentService.uploadDocument(uploadRequest, testFile, "testuser");
@@ -133,10 +173,9 @@ public class DocumentServiceTest {
 
 		verify(userRepository).findByUsername("testuser");
 		verify(fileStorageService).storeFile(testFile);
-		verify(tagRepository).findByName("test");
-		verify(tagRepository).findByName("document");
-		verify(tagRepository).save(any(Tag.class));
+		verify(tagRegistryService).resolveTags(uploadRequest.getTags());
 		verify(documentRepository).save(any(Document.class));
+		verify(pageTotalEstimator).invalidate();
 	}
 
 	@Test
@@ -155,70 +194,167 @@ public class DocumentServiceTest {
 	}
 
 	@Test
-	public void testGetDocumentById_Success() {
+	public void testUploadDocumentStream_Success() {
 		// Setup
+		InputStream content = new ByteArrayInputStream("Streamed content".getBytes());
+		StoredUpload upload = new StoredUpload("stored-file-name.txt", 16L, "ab12", "text/plain");
+		when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+		when(fileStorageService.storeStream(content, "notes.txt", 1024L)).thenReturn(upload);
+		when(transactionTemplate.execute(any())).thenAnswer(
+				invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+		when(tagRegistryService.resolveTags(anyCollection())).thenReturn(Collections.singleton(testTag));
+		when(documentRepository.save(any(Document.class))).thenReturn(testDocument);
 		when(documentRepository.findById(1L)).thenReturn(Optional.of(testDocument));
+		when(fileStorageService.loadFileAsResource("test/path/document.pdf"))
+				.thenReturn(new ByteArrayInputStream("Streamed content".getBytes()));
+		when(contentExtractor.extractText(any(InputStream.class))).thenReturn("Streamed content");
 
 		// Execute
-		Document result = documentService.getDocumentById(1L);
+		Document result = documentService.uploadDocumentStream(uploadRequest, content, "notes.txt", 1024L, "testuser");
 
 		// Verify
-		assertNotNull(result);
-		assertEquals(1L, result.getId());
-		assertEquals("Test Document", result.getTitle());
+		assertEquals(testDocument, result);
+		verify(documentRepository).save(argThat(document -> "ab12".equals(document.getChecksum())
+				&& "text/plain".equals(document.getFileType()) && document.getFileSize() == 16L));
+	}
 
-		verify(documentRepository).findById(1L);
+	@Test
+	public void testUploadDocumentStream_SaveFails_DeletesFile() {
+		// Setup
+		InputStream content = new ByteArrayInputStream("Streamed content".getBytes());
+		when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+		when(fileStorageService.storeStream(content, "notes.txt", 1024L))
+				.thenReturn(new StoredUpload("stored-file-name.txt", 16L, "ab12", "text/plain"));
+		when(transactionTemplate.execute(any())).thenThrow(new IllegalStateException("database down"));
+
+		// Execute & Verify
+		assertThrows(IllegalStateException.class,
+				() -> documentService.uploadDocumentStream(uploadRequest, content, "notes.txt", 1024L, "testuser"));
+		verify(fileStorageService).deleteFile("stored-file-name.txt");
+	}
+
+	@Test
+	public void testGetDocumentById_Success() {
+		// Setup
+		DocumentDetails details = DocumentDetails.builder().id(1L).title("Test Document")
+				.tags(Collections.singleton("test")).build();
+		when(documentDetailsLoader.loadDetails(1L)).thenReturn(details);
+
+		// Execute
+		DocumentDetails result = documentService.getDocumentById(1L);
+
+		// Verify
+		assertSame(details, result);
+		verify(documentDetailsLoader).loadDetails(1L);
 	}
 
 	@Test
 	public void testGetDocumentById_NotFound() {
 		// Setup
-		when(documentRepository.findById(99L)).thenReturn(Optional.empty());
+		when(documentDetailsLoader.loadDetails(99L)).thenReturn(null);
 
 		// Execute & Verify
 		assertThrows(ResourceNotFoundException.class, () -> {
 			documentService.getDocumentById(99L);
 		});
 
-		verify(documentRepository).findById(99L);
+		verify(documentDetailsLoader).loadDetails(99L);
 	}
 
 	@Test
 	public void testGetAllDocuments() {
 		// Setup
 		Pageable pageable = PageRequest.of(0, 10);
-		Page<Document> documentPage = new PageImpl<>(Collections.singletonList(testDocument), pageable, 1);
-		when(documentRepository.findAll(pageable)).thenReturn(documentPage);
+		Page<DocumentSummary> summaryPage = new PageImpl<>(Collections.singletonList(summaryOf(testDocument)), pageable, 1);
+		when(documentRepository.findAllSummaries(pageable)).thenReturn(summaryPage);
+		when(documentRepository.findTagNamesByDocumentIds(Collections.singletonList(1L)))
+				.thenReturn(Collections.singletonList(tagNameOf(1L, "test")));
 
 		// Execute
-		Page<Document> result = documentService.getAllDocuments(pageable);
+		Page<DocumentDto> result = documentService.getAllDocuments(pageable);
 
 		// Verify
 		assertNotNull(result);
 		assertEquals(1, result.getTotalElements());
+		DocumentDto dto = result.getContent().get(0);
+		assertEquals("Test Document", dto.getTitle());
+		assertEquals("testuser", dto.getAuthorUsername());
+		assertEquals(Collections.singleton("test"), dto.getTags());
+
+		verify(documentRepository).findAllSummaries(pageable);
+		verify(documentRepository, never()).findAll(any(Pageable.class));
+	}
+
+	@Test
+	public void testGetAllDocuments_EmptyPageSkipsTagQuery() {
+		// Setup
+		Pageable pageable = PageRequest.of(0, 10);
+		when(documentRepository.findAllSummaries(pageable)).thenReturn(Page.empty(pageable));
+
+		// Execute
+		Page<DocumentDto> result = documentService.getAllDocuments(pageable);
+
+		// Verify
+		assertTrue(result.isEmpty());
+		verify(documentRepository, never()).findTagNamesByDocumentIds(anyCollection());
+	}
+
+	@Test
+	public void testGetAllDocuments_EstimatedTotalSkipsCount() {
+		// Setup
+		Pageable firstPage = PageRequest.of(0, 1);
+		Pageable thirdPage = PageRequest.of(2, 1);
+		List<DocumentSummary> content = Collections.singletonList(summaryOf(testDocument));
+		when(documentRepository.findAllSummaries(firstPage)).thenReturn(new PageImpl<>(content, firstPage, 100));
+		when(documentRepository.sliceAllSummaries(thirdPage)).thenReturn(new SliceImpl<>(content, thirdPage, true));
+
+		// Execute
+		documentService.getAllDocuments(firstPage, false);
+		Page<DocumentDto> result = documentService.getAllDocuments(thirdPage, false);
+
+		// Verify
+		assertEquals(100, result.getTotalElements());
+		assertTrue(((EstimatedPage<DocumentDto>) result).isTotalEstimated());
 		assertEquals("Test Document", result.getContent().get(0).getTitle());
+		verify(documentRepository, never()).findAllSummaries(thirdPage);
+	}
+
+	@Test
+	public void testGetAllDocuments_ExactAlwaysCounts() {
+		// Setup
+		Pageable pageable = PageRequest.of(0, 1);
+		List<DocumentSummary> content = Collections.singletonList(summaryOf(testDocument));
+		when(documentRepository.findAllSummaries(pageable)).thenReturn(new PageImpl<>(content, pageable, 100));
 
-		verify(documentRepository).findAll(pageable);
+		// Execute
+		documentService.getAllDocuments(pageable, true);
+		Page<DocumentDto> result = documentService.getAllDocuments(pageable, true);
+
+		// Verify
+		assertEquals(100, result.getTotalElements());
+		verify(documentRepository, times(2)).findAllSummaries(pageable);
+		verify(documentRepository, never()).sliceAllSummaries(any(Pageable.class));
 	}
 
 	@Test
 	public void testGetDocumentsByAuthor() {
 		// Setup
 		Pageable pageable = PageRequest.of(0, 10);
-		Page<Document> documentPage = new PageImpl<>(Collections.singletonList(testDocument), pageable, 1);
+		Page<DocumentSummary> summaryPage = new PageImpl<>(Collections.singletonList(summaryOf(testDocument)), pageable, 1);
 		when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-		when(documentRepository.findByAuthor(testUser, pageable)).thenReturn(documentPage);
+		when(documentRepository.findSummariesByAuthorId(1L, pageable)).thenReturn(summaryPage);
 
 		// Execute
-		Page<Document> result = documentService.getDocumentsByAuthor("testuser", pageable);
+		Page<DocumentDto> result = documentService.getDocumentsByAuthor("testuser", pageable);
 
 		// Verify
 		assertNotNull(result);
 		assertEquals(1, result.getTotalElements());
 		assertEquals("Test Document", result.getContent().get(0).getTitle());
+		assertTrue(result.getContent().get(0).getTags().isEmpty());
 
 		verify(userRepository).findByUsername("testuser");
-		verify(documentRepository).findByAuthor(testUser, pageable);
+		verify(documentRepository).findSummariesByAuthorId(1L, pageable);
 	}
 
 	@Test
@@ -233,26 +369,26 @@ public class DocumentServiceTest {
 		});
 
 		verify(userRepository).findByUsername("nonexistentuser");
-		verify(documentRepository, never()).findByAuthor(any(User.class), any(Pageable.class));
+		verify(documentRepository, never()).findSummariesByAuthorId(anyLong(), any(Pageable.class));
 	}
 
 	@Test
 	public void testSearchDocuments() {
 		// Setup
 		Pageable pageable = PageRequest.of(0, 10);
-		Page<Document> documentPage = new PageImpl<>(Collections.singletonList(testDocument), pageable, 1);
-		when(documentRepository.findByMultipleParameters(anyString(), anyString(), any(LocalDateTime.class),
-				any(LocalDateTime.class), anyLong(), any(Pageable.class))).thenReturn(documentPage);
+		Page<DocumentSummary> summaryPage = new PageImpl<>(Collections.singletonList(summaryOf(testDocument)), pageable, 1);
+		when(documentRepository.findSummariesByMultipleParameters(anyString(), anyString(), any(LocalDateTime.class),
+				any(LocalDateTime.class), anyLong(), any(Pageable.class))).thenReturn(summaryPage);
 
 		// Execute
-		Page<Document> result = documentService.searchDocuments(searchRequest, pageable);
+		Page<DocumentDto> result = documentService.searchDocuments(searchRequest, pageable);
 
 		// Verify
 		assertNotNull(result);
 		assertEquals(1, result.getTotalElements());
 		assertEquals("Test Document", result.getContent().get(0).getTitle());
 
-		verify(documentRepository).findByMultipleParameters(searchRequest.getTitle(), searchRequest.getFileType(),
+		verify(documentRepository).findSummariesByMultipleParameters(searchRequest.getTitle(), searchRequest.getFileType(),
 				searchRequest.getStartDate(), searchRequest.getEndDate(), searchRequest.getAuthorId(), pageable);
 	}
 
@@ -260,27 +396,70 @@ public class DocumentServiceTest {
 	public void testSearchByKeyword() {
 		// Setup
 		Pageable pageable = PageRequest.of(0, 10);
-		Page<Document> documentPage = new PageImpl<>(Collections.singletonList(testDocument), pageable, 1);
-		when(documentRepository.searchDocuments("test", pageable)).thenReturn(documentPage);
+		Page<DocumentSummary> summaryPage = new PageImpl<>(Collections.singletonList(summaryOf(testDocument)), pageable, 1);
+		when(contentExtractor.preprocessTextForSearch("test")).thenReturn("test");
+		when(documentRepository.searchSummaries("test", "test", pageable)).thenReturn(summaryPage);
 
 		// Execute
-		Page<Document> result = documentService.searchByKeyword("test", pageable);
+		Page<DocumentDto> result = documentService.searchByKeyword("test", pageable);
 
 		// Verify
 		assertNotNull(result);
 		assertEquals(1, result.getTotalElements());
 		assertEquals("Test Document", result.getContent().get(0).getTitle());
 
-		verify(documentRepository).searchDocuments("test", pageable);
+		verify(documentRepository).searchSummaries("test", "test", pageable);
+		verify(documentRepository, never()).searchDocuments(anyString(), anyString(), any(Pageable.class));
+	}
+
+	@Test
+	public void testSearchByKeyword_ContentKeywordNormalized() {
+		// Setup - search vectors have punctuation replaced, titles and descriptions do not
+		Pageable pageable = PageRequest.of(0, 10);
+		when(contentExtractor.preprocessTextForSearch("E-Mail")).thenReturn("e mail");
+		when(documentRepository.searchSummaries("E-Mail", "e mail", pageable)).thenReturn(Page.empty(pageable));
+
+		// Execute
+		documentService.searchByKeyword("E-Mail", pageable);
+
+		// Verify
+		verify(documentRepository).searchSummaries("E-Mail", "e mail", pageable);
+	}
+
+	@Test
+	public void testSearchByKeyword_FullTextMode() {
+		// Setup
+		searchProperties.setMode(SearchProperties.Mode.FULLTEXT);
+		Pageable pageable = PageRequest.of(1, 10, Sort.by("createdAt").descending());
+		Pageable nativePageable = PageRequest.of(1, 10, Sort.by("created_at").descending());
+		Page<DocumentSummary> summaryPage = new PageImpl<>(Collections.singletonList(summaryOf(testDocument)), nativePageable, 11);
+		when(documentRepository.searchSummariesFullText("test", nativePageable)).thenReturn(summaryPage);
+
+		// Execute
+		Page<DocumentDto> result = documentService.searchByKeyword("test", pageable);
+
+		// Verify
+		assertEquals(11, result.getTotalElements());
+		assertEquals("Test Document", result.getContent().get(0).getTitle());
+		verify(documentRepository, never()).searchSummaries(anyString(), anyString(), any(Pageable.class));
+	}
+
+	@Test
+	public void testSearchDocuments_FullTextMode_UnknownSortProperty() {
+		// Setup
+		searchProperties.setMode(SearchProperties.Mode.FULLTEXT);
+		Pageable pageable = PageRequest.of(0, 10, Sort.by("contentText"));
+
+		// Execute & Verify
+		assertThrows(InvalidSortException.class, () -> documentService.searchDocuments(searchRequest, pageable));
+		verifyNoInteractions(documentRepository);
 	}
 
 	@Test
 	public void testUpdateDocument_Success() {
 		// Setup
-		when(documentRepository.findById(1L)).thenReturn(Optional.of(testDocument));
-		when(tagRepository.findByName("test")).thenReturn(Optional.of(testTag));
-		when(tagRepository.findByName("document")).thenReturn(Optional.empty());
-		when(tagRepository.save(any(Tag.class))).thenReturn(new Tag());
+		when(documentRepository.findWithAuthorAndTagsById(1L)).thenReturn(Optional.of(testDocument));
+		when(tagRegistryService.resolveTags(documentDto.getTags())).thenReturn(new HashSet<>(Arrays.asList(testTag, new Tag())));
 		when(documentRepository.save(any(Document.class))).thenReturn(testDocument);
 
 		// Execute
@@ -291,23 +470,22 @@ public class DocumentServiceTest {
 		assertEquals("Updated Document", result.getTitle());
 		assertEquals("This is an updated document", result.getDescription());
 
-		verify(documentRepository).findById(1L);
-		verify(tagRepository).findByName("test");
-		verify(tagRepository).findByName("document");
+		verify(documentRepository).findWithAuthorAndTagsById(1L);
+		verify(tagRegistryService).resolveTags(documentDto.getTags());
 		verify(documentRepository).save(any(Document.class));
 	}
 
 	@Test
 	public void testUpdateDocument_NotFound() {
 		// Setup
-		when(documentRepository.findById(99L)).thenReturn(Optional.empty());
+		when(documentRepository.findWithAuthorAndTagsById(99L)).thenReturn(Optional.empty());
 
 		// Execute & Verify
 		assertThrows(ResourceNotFoundException.class, () -> {
 			documentService.updateDocument(99L, documentDto);
 		});
 
-		verify(documentRepository).findById(99L);
+		verify(documentRepository).findWithAuthorAndTagsById(99L);
 		verify(documentRepository, never()).save(any(Document.class));
 	}
 
@@ -315,7 +493,7 @@ public class DocumentServiceTest {
 	public void testDeleteDocument_Success() {
 		// Setup
 		when(documentRepository.findById(1L)).thenReturn(Optional.of(testDocument));
-		doNothing().when(fileStorageService).deleteFile(anyString());
+		when(fileStorageService.deleteFile(anyString())).thenReturn(true);
 		doNothing().when(documentRepository).delete(any(Document.class));
 
 		// Execute
@@ -324,7 +502,9 @@ public class DocumentServiceTest {
 		// Verify
 		verify(documentRepository).findById(1L);
 		verify(fileStorageService).deleteFile(testDocument.getFilePath());
+		verify(documentContentRepository).deleteByDocumentId(1L);
 		verify(documentRepository).delete(testDocument);
+		verify(pageTotalEstimator).invalidate();
 	}
 
 	@Test
@@ -362,21 +542,76 @@ public class DocumentServiceTest {
 	@Test
 	public void testProcessDocumentContent() throws IOException {
 		// Setup
+		fileStorageProperties.getContent().setChunkSize(16);
 		when(documentRepository.findById(1L)).thenReturn(Optional.of(testDocument));
-		when(fileStorageService.getFilePath(anyString())).thenReturn(Path.of("test/path/document.pdf"));
-		when(contentExtractor.extractText(any(Path.class))).thenReturn("Extracted content from document");
-		when(contentExtractor.preprocessTextForSearch(anyString())).thenReturn("preprocessed content");
+		when(fileStorageService.loadFileAsResource(anyString()))
+				.thenReturn(new ByteArrayInputStream("Test PDF content".getBytes()));
+		when(contentExtractor.extractText(any(InputStream.class))).thenReturn("Extracted content from document");
+		when(contentExtractor.splitText("Extracted content from document", 16))
+				.thenReturn(Arrays.asList("Extracted content ", "from document"));
+		when(contentExtractor.preprocessTextForSearch("Extracted content from document"))
+				.thenReturn("extracted content from document");
+		when(transactionTemplate.execute(any())).thenAnswer(
+				invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
 		when(documentRepository.save(any(Document.class))).thenReturn(testDocument);
+		when(cacheManager.getCache("documentCache")).thenReturn(documentCache);
 
 		// Execute
 		documentService.processDocumentContent(1L);
 
-		// Verify
+		// Verify - "content from" crosses the chunk boundary and is still in the search column
 		verify(documentRepository).findById(1L);
-		verify(fileStorageService).getFilePath(testDocument.getFilePath());
-		verify(contentExtractor).extractText(any(Path.class));
+		verify(fileStorageService).loadFileAsResource(testDocument.getFilePath());
+		verify(contentExtractor).extractText(any(InputStream.class));
 		verify(contentExtractor).preprocessTextForSearch(anyString());
-		verify(documentRepository).save(any(Document.class));
+		verify(documentContentRepository).deleteByDocumentId(1L);
+		verify(documentContentRepository).saveAll(argThat((List<DocumentContent> contents) -> contents.size() == 2
+				&& contents.get(0).getSearchVector().contains("content from")
+				&& contents.get(1).getChunkIndex() == 1 && "from document".equals(contents.get(1).getContentText())
+				&& contents.get(1).getSearchVector() == null));
+		verify(documentRepository).save(argThat(Document::isIndexed));
+		verify(documentCache).evict(1L);
+	}
+
+	@Test
+	public void testGetDocumentContent() {
+		// Setup
+		when(documentRepository.existsById(1L)).thenReturn(true);
+		when(documentContentRepository.findByDocumentIdOrderByChunkIndex(1L)).thenReturn(Arrays.asList(
+				DocumentContent.builder().chunkIndex(0).contentText("Extracted content ").build(),
+				DocumentContent.builder().chunkIndex(1).contentText("from document").build()));
+
+		// Execute
+		String result = documentService.getDocumentContent(1L);
+
+		// Verify
+		assertEquals("Extracted content from document", result);
+	}
+
+	@Test
+	public void testGetDocumentContent_NotFound() {
+		// Setup
+		when(documentRepository.existsById(99L)).thenReturn(false);
+
+		// Execute & Verify
+		assertThrows(ResourceNotFoundException.class, () -> documentService.getDocumentContent(99L));
+		verify(documentContentRepository, never()).findByDocumentIdOrderByChunkIndex(anyLong());
+	}
+
+	@Test
+	public void testGetDocumentContents() {
+		// Setup
+		when(documentContentRepository.findByDocumentIdInOrderByDocumentIdAscChunkIndexAsc(Arrays.asList(1L, 2L)))
+				.thenReturn(Arrays.asList(
+						DocumentContent.builder().document(testDocument).chunkIndex(0).contentText("Extracted ").build(),
+						DocumentContent.builder().document(testDocument).chunkIndex(1).contentText("content").build()));
+
+		// Execute
+		Map<Long, String> result = documentService.getDocumentContents(Arrays.asList(1L, 2L));
+
+		// Verify
+		assertEquals(1, result.size());
+		assertEquals("Extracted content", result.get(1L));
 	}
 
 	@Test
@@ -390,7 +625,27 @@ public class DocumentServiceTest {
 		});
 
 		verify(documentRepository).findById(99L);
-		verify(fileStorageService, never()).getFilePath(anyString());
+		verify(fileStorageService, never()).loadFileAsResource(anyString());
 		verify(documentRepository, never()).save(any(Document.class));
 	}
+
+	private DocumentSummary summaryOf(Document document) {
+		return new DocumentSummary() {
+			public Long getId() { return document.getId(); }
+			public String getTitle() { return document.getTitle(); }
+			public String getDescription() { return document.getDescription(); }
+			public String getFileType() { return document.getFileType(); }
+			public Long getFileSize() { return document.getFileSize(); }
+			public LocalDateTime getCreatedAt() { return document.getCreatedAt(); }
+			public LocalDateTime getUpdatedAt() { return document.getUpdatedAt(); }
+			public String getAuthorUsername() { return document.getAuthor().getUsername(); }
+		};
+	}
+
+	private DocumentTagName tagNameOf(Long documentId, String tagName) {
+		return new DocumentTagName() {
+			public Long getDocumentId() { return documentId; }
+			public String getTagName() { return tagName; }
+		};
+	}
 }
@@ -0,0 +1,196 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FileDownloadServiceTest {
+
+	@Mock
+	private FileStorageService fileStorageService;
+
+	@InjectMocks
+	private FileDownloadService fileDownloadService;
+
+	@TempDir
+	Path tempDir;
+
+	private Path storedFile;
+	private String storedContent;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		// Create a stored file
+		storedContent = "0123456789abcdefghij";
+		storedFile = tempDir.resolve("stored.txt");
+		Files.write(storedFile, storedContent.getBytes(StandardCharsets.UTF_8));
+
+		lenient().when(fileStorageService.locateFile("stored.txt"))
+				.thenReturn(new StoredFileLocation(storedFile, 0, storedContent.length()));
+	}
+
+	@Test
+	public void testSendFile_FullContent() throws IOException {
+		// Setup
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents/1/file");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Execute
+		fileDownloadService.sendFile("stored.txt", "text/plain", 20, "Report", request, response);
+
+		// Verify
+		assertEquals(200, response.getStatus());
+		assertEquals(storedContent.length(), response.getContentLengthLong());
+		assertEquals(storedContent, response.getContentAsString());
+		assertEquals("bytes", response.getHeader("Accept-Ranges"));
+		assertNotNull(response.getHeader("ETag"));
+		assertTrue(response.getHeader("Content-Disposition").contains("Report.txt"));
+	}
+
+	@Test
+	public void testSendFile_ByteRange() throws IOException {
+		// Setup
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents/1/file");
+		request.addHeader("Range", "bytes=5-9");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Execute
+		fileDownloadService.sendFile("stored.txt", "text/plain", 20, null, request, response);
+
+		// Verify
+		assertEquals(206, response.getStatus());
+		assertEquals(5, response.getContentLengthLong());
+		assertEquals("56789", response.getContentAsString());
+		assertEquals("bytes 5-9/20", response.getHeader("Content-Range"));
+	}
+
+	@Test
+	public void testSendFile_NotModified() throws IOException {
+		// Setup - first request to obtain the ETag
+		MockHttpServletResponse first = new MockHttpServletResponse();
+		fileDownloadService.sendFile("stored.txt", "text/plain", 20, null,
+				new MockHttpServletRequest("GET", "/api/documents/1/file"), first);
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents/1/file");
+		request.addHeader("If-None-Match", first.getHeader("ETag"));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Execute
+		fileDownloadService.sendFile("stored.txt", "text/plain", 20, null, request, response);
+
+		// Verify
+		assertEquals(304, response.getStatus());
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	public void testSendFile_UnsatisfiableRange() throws IOException {
+		// Setup
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents/1/file");
+		request.addHeader("Range", "bytes=50-60");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Execute
+		fileDownloadService.sendFile("stored.txt", "text/plain", 20, null, request, response);
+
+		// Verify
+		assertEquals(416, response.getStatus());
+		assertEquals("bytes */20", response.getHeader("Content-Range"));
+	}
+
+	@Test
+	public void testSendFile_PackedRegion() throws IOException {
+		// Setup - a blob stored at offset 4 of a segment file
+		when(fileStorageService.locateFile("packed:blob.txt"))
+				.thenReturn(new StoredFileLocation(storedFile, 4, 6));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents/1/file");
+		request.addHeader("Range", "bytes=1-3");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Execute
+		fileDownloadService.sendFile("packed:blob.txt", "text/plain", 6, null, request, response);
+
+		// Verify
+		assertEquals(206, response.getStatus());
+		assertEquals("567", response.getContentAsString());
+		assertEquals("bytes 1-3/6", response.getHeader("Content-Range"));
+	}
+
+	@Test
+	public void testSendFile_PackedRegionMovedByCompaction() throws IOException {
+		// Setup - the segment found first was removed by compaction before the download opened it
+		when(fileStorageService.isPacked("packed:blob.txt")).thenReturn(true);
+		when(fileStorageService.locateFile("packed:blob.txt")).thenReturn(
+				new StoredFileLocation(tempDir.resolve("segment-00000001.pack"), 4, 6),
+				new StoredFileLocation(storedFile, 10, 6));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents/1/file");
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Execute
+		fileDownloadService.sendFile("packed:blob.txt", "text/plain", 6, null, request, response);
+
+		// Verify - served from the new segment through an open channel, not handed to sendfile
+		assertEquals(200, response.getStatus());
+		assertEquals("abcdef", response.getContentAsString());
+		assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		verify(fileStorageService, times(2)).locateFile("packed:blob.txt");
+	}
+
+	@Test
+	public void testSendFile_CompressedFile() throws IOException {
+		// Setup
+		when(fileStorageService.isCompressed("stored.txt.deflate")).thenReturn(true);
+		when(fileStorageService.loadFileAsResource("stored.txt.deflate"))
+				.thenReturn(new ByteArrayInputStream(storedContent.getBytes(StandardCharsets.UTF_8)));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents/1/file");
+		request.addHeader("Range", "bytes=15-");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Execute
+		fileDownloadService.sendFile("stored.txt.deflate", "text/plain", 20, "Notes", request, response);
+
+		// Verify
+		assertEquals(206, response.getStatus());
+		assertEquals(5, response.getContentLengthLong());
+		assertEquals("fghij", response.getContentAsString());
+		assertTrue(response.getHeader("Content-Disposition").contains("Notes.txt"));
+		verify(fileStorageService, never()).locateFile(anyString());
+	}
+
+	@Test
+	public void testSendFile_UsesSendfileWhenSupported() throws IOException {
+		// Setup
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents/1/file");
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		request.addHeader("Range", "bytes=10-");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Execute
+		fileDownloadService.sendFile("stored.txt", "text/plain", 20, null, request, response);
+
+		// Verify - the connector writes the bytes, nothing goes through the servlet stream
+		assertEquals(206, response.getStatus());
+		assertEquals(storedFile.toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+		assertEquals(20L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+}
@@ -0,0 +1,135 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.example.config.FileStorageProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class FileStorageServiceTest {
+
+	@TempDir
+	Path storageDir;
+
+	private FileStorageProperties properties;
+
+	@BeforeEach
+	public void setup() {
+		properties = new FileStorageProperties();
+		properties.setStorageLocation(storageDir.toString());
+		properties.getCompression().setCodec("gzip");
+	}
+
+	@Test
+	public void testSelectCodec_SkipsCompressedFormats() {
+		// Setup
+		FileStorageService service = new FileStorageService(properties, mock(PackedBlobStore.class));
+
+		// Execute & Verify
+		assertEquals(CompressionCodec.GZIP, service.selectCodec("text/plain"));
+		assertEquals(CompressionCodec.GZIP, service.selectCodec("application/json; charset=UTF-8"));
+		assertEquals(CompressionCodec.GZIP, service.selectCodec(null));
+		assertEquals(CompressionCodec.NONE, service.selectCodec("image/png"));
+		assertEquals(CompressionCodec.NONE, service.selectCodec("application/pdf"));
+		assertEquals(CompressionCodec.NONE, service.selectCodec("APPLICATION/ZIP"));
+		assertEquals(CompressionCodec.NONE, service.selectCodec(
+				"application/vnd.openxmlformats-officedocument.wordprocessingml.document"));
+	}
+
+	@Test
+	public void testSelectCodec_Disabled() {
+		// Setup
+		properties.getCompression().setCodec("none");
+		FileStorageService service = new FileStorageService(properties, mock(PackedBlobStore.class));
+
+		// Execute & Verify
+		assertEquals(CompressionCodec.NONE, service.selectCodec("text/plain"));
+	}
+
+	@Test
+	public void testStoreFile_CompressedRoundTrip() throws IOException {
+		// Setup
+		FileStorageService service = new FileStorageService(properties, mock(PackedBlobStore.class));
+		String content = "Plain text that compresses well. ".repeat(200);
+		MockMultipartFile file = new MockMultipartFile("file", "notes.txt", "text/plain",
+				content.getBytes(StandardCharsets.UTF_8));
+
+		// Execute
+		String fileName = service.storeFile(file);
+
+		// Verify
+		assertTrue(fileName.endsWith(".txt.gz"));
+		assertTrue(service.isCompressed(fileName));
+		assertTrue(Files.size(storageDir.resolve(fileName)) < content.length());
+		try (InputStream in = service.loadFileAsResource(fileName)) {
+			assertEquals(content, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void testStoreFile_SkippedTypeStoredAsIs() throws IOException {
+		// Setup
+		FileStorageService service = new FileStorageService(properties, mock(PackedBlobStore.class));
+		byte[] content = new byte[] { (byte) 0x89, 'P', 'N', 'G', 1, 2, 3 };
+		MockMultipartFile file = new MockMultipartFile("file", "image.png", "image/png", content);
+
+		// Execute
+		String fileName = service.storeFile(file);
+
+		// Verify
+		assertTrue(fileName.endsWith(".png"));
+		assertFalse(service.isCompressed(fileName));
+		assertArrayEquals(content, Files.readAllBytes(storageDir.resolve(fileName)));
+	}
+
+	@Test
+	public void testAssembleChunks_CompressedWithChecksum() throws IOException {
+		// Setup - a text upload in two chunks
+		FileStorageService service = new FileStorageService(properties, mock(PackedBlobStore.class));
+		String first = "Plain text that compresses well. ".repeat(100);
+		String second = "And the rest of it. ".repeat(100);
+		service.storeChunk("session-1", 0, stream(first), first.length(), null);
+		service.storeChunk("session-1", 1, stream(second), second.length(), null);
+
+		// Execute
+		StoredUpload upload = service.assembleChunks("session-1", 2, "notes.txt");
+
+		// Verify
+		String content = first + second;
+		assertTrue(upload.getFileName().endsWith(".txt.gz"));
+		assertEquals(content.length(), upload.getSize());
+		assertEquals(sha256(content), upload.getChecksum());
+		assertTrue(Files.size(storageDir.resolve(upload.getFileName())) < content.length());
+		try (InputStream in = service.loadFileAsResource(upload.getFileName())) {
+			assertEquals(content, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+		}
+		assertTrue(service.listChunkSessions().isEmpty());
+	}
+
+	private String sha256(String content) throws IOException {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+			return String.format("%064x", new BigInteger(1, digest));
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IOException(ex);
+		}
+	}
+
+	private InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
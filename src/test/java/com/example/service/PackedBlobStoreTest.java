@@ -0,0 +1,208 @@
+package com.example.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.config.FileStorageProperties;
+import com.example.exception.FileNotFoundException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedBlobStoreTest {
+
+	@TempDir
+	Path tempDir;
+
+	private FileStorageProperties properties;
+	private PackedBlobStore blobStore;
+
+	@BeforeEach
+	public void setup() {
+		properties = new FileStorageProperties();
+		properties.setStorageLocation(tempDir.toString());
+		properties.getPacked().setEnabled(true);
+		properties.getPacked().setMaxBlobSize(1024);
+		properties.getPacked().setSegmentSize(256);
+		properties.getPacked().setCompactionThreshold(0.5);
+
+		blobStore = new PackedBlobStore(properties);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		blobStore.close();
+	}
+
+	@Test
+	public void testAccepts_RespectsThreshold() {
+		assertTrue(blobStore.accepts(1024));
+		assertFalse(blobStore.accepts(1025));
+	}
+
+	@Test
+	public void testPutAndRead() throws IOException {
+		// Execute
+		put("a.txt", "first blob");
+		put("b.txt", "second blob");
+
+		// Verify
+		assertEquals("first blob", read("a.txt"));
+		assertEquals("second blob", read("b.txt"));
+
+		StoredFileLocation location = blobStore.locate("b.txt");
+		assertEquals(11, location.getLength());
+		assertTrue(location.getOffset() > 0);
+	}
+
+	@Test
+	public void testDelete() throws IOException {
+		// Setup
+		put("a.txt", "first blob");
+
+		// Execute
+		assertTrue(blobStore.delete("a.txt"));
+
+		// Verify
+		assertFalse(blobStore.contains("a.txt"));
+		assertFalse(blobStore.delete("a.txt"));
+		assertThrows(FileNotFoundException.class, () -> blobStore.openStream("a.txt"));
+	}
+
+	@Test
+	public void testReopen_ReplaysSegments() throws IOException {
+		// Setup
+		put("a.txt", "first blob");
+		put("b.txt", "second blob");
+		blobStore.delete("a.txt");
+		blobStore.close();
+
+		// Execute
+		blobStore = new PackedBlobStore(properties);
+
+		// Verify
+		assertFalse(blobStore.contains("a.txt"));
+		assertEquals("second blob", read("b.txt"));
+	}
+
+	@Test
+	public void testCompact_ReclaimsDeletedBlobs() throws IOException {
+		// Setup - two 118 byte records fit a 256 byte segment, so six blobs fill segments 1 to 3.
+		// Deleting one blob of each of the first two leaves them half dead, at the threshold.
+		String payload = "x".repeat(100);
+		for (int i = 0; i < 6; i++) {
+			put("blob-" + i, payload + i);
+		}
+		blobStore.delete("blob-0");
+		blobStore.delete("blob-2");
+		long segmentsBefore = countSegments();
+		long bytesBefore = segmentBytes();
+
+		// Execute - the second run removes the segments retired by the first
+		blobStore.compact();
+		blobStore.compact();
+
+		// Verify - the live blobs of segments 1 and 2 now share one segment
+		assertEquals(4, segmentsBefore);
+		assertEquals(2, countSegments());
+		assertEquals(bytesBefore - 2 * recordSize("blob-0", payload + 0), segmentBytes());
+		assertFalse(segmentsContain(payload + 0));
+		assertFalse(segmentsContain(payload + 2));
+		for (int i : new int[] { 1, 3, 4, 5 }) {
+			assertEquals(payload + i, read("blob-" + i));
+		}
+
+		blobStore.close();
+		blobStore = new PackedBlobStore(properties);
+		assertFalse(blobStore.contains("blob-0"));
+		assertFalse(blobStore.contains("blob-2"));
+		for (int i : new int[] { 1, 3, 4, 5 }) {
+			assertEquals(payload + i, read("blob-" + i));
+		}
+	}
+
+	@Test
+	public void testCompact_SkipsActiveSegment() throws IOException {
+		// Setup - the only segment is all garbage but still takes appends
+		put("draft", "temporary");
+		blobStore.delete("draft");
+
+		// Execute
+		blobStore.compact();
+		put("final", "kept");
+
+		// Verify
+		assertEquals(1, countSegments());
+		assertEquals("kept", read("final"));
+	}
+
+	@Test
+	public void testLocate_AfterCompactionRemovedSegment() throws IOException {
+		// Setup - blob-1 lives in segment 1, which compaction moves and removes
+		String payload = "x".repeat(100);
+		for (int i = 0; i < 6; i++) {
+			put("blob-" + i, payload + i);
+		}
+		blobStore.delete("blob-0");
+		blobStore.delete("blob-2");
+		StoredFileLocation before = blobStore.locate("blob-1");
+
+		// Execute
+		blobStore.compact();
+		blobStore.compact();
+		StoredFileLocation after = blobStore.locate("blob-1");
+
+		// Verify - a lookup made before is stale, looking the blob up again finds its new region
+		assertFalse(Files.exists(before.getPath()));
+		byte[] segment = Files.readAllBytes(after.getPath());
+		assertEquals(payload + 1, new String(segment, (int) after.getOffset(), (int) after.getLength(),
+				StandardCharsets.UTF_8));
+	}
+
+	private void put(String key, String content) throws IOException {
+		blobStore.put(key, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private String read(String key) throws IOException {
+		try (InputStream stream = blobStore.openStream(key)) {
+			return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private long countSegments() throws IOException {
+		try (Stream<Path> files = Files.list(tempDir.resolve("packed"))) {
+			return files.count();
+		}
+	}
+
+	private long segmentBytes() throws IOException {
+		try (Stream<Path> files = Files.list(tempDir.resolve("packed"))) {
+			return files.mapToLong(path -> path.toFile().length()).sum();
+		}
+	}
+
+	private boolean segmentsContain(String content) throws IOException {
+		try (Stream<Path> files = Files.list(tempDir.resolve("packed"))) {
+			for (Path path : (Iterable<Path>) files::iterator) {
+				if (new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1).contains(content)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	// Record header: magic, type, key length and data length
+	private long recordSize(String key, String content) {
+		return 11 + key.length() + content.length();
+	}
+}
@@ -0,0 +1,204 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.config.SearchProperties;
+import com.example.dto.EstimatedPage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageTotalEstimatorTest {
+
+	private static final List<Object> FILTER = Arrays.asList("keyword", "report");
+
+	private PageTotalEstimator estimator;
+	private AtomicInteger counts;
+
+	@BeforeEach
+	public void setup() {
+		estimator = new PageTotalEstimator(new SearchProperties());
+		counts = new AtomicInteger();
+	}
+
+	@Test
+	public void testFirstRequest_RunsCount() {
+		// Execute
+		Page<String> page = page(false, PageRequest.of(0, 2), 50, true);
+
+		// Verify
+		assertEquals(50, page.getTotalElements());
+		assertEquals(1, counts.get());
+		assertFalse(page instanceof EstimatedPage);
+	}
+
+	@Test
+	public void testLaterPage_ReusesTotal() {
+		// Setup
+		page(false, PageRequest.of(0, 2), 50, true);
+
+		// Execute
+		Page<String> page = page(false, PageRequest.of(5, 2), 50, true);
+
+		// Verify
+		assertEquals(50, page.getTotalElements());
+		assertEquals(1, counts.get());
+		assertTrue(((EstimatedPage<String>) page).isTotalEstimated());
+	}
+
+	@Test
+	public void testEstimate_RaisedWhenMoreRowsFollow() {
+		// Setup - the total was 4 when counted, rows were added since
+		page(false, PageRequest.of(0, 2), 4, true);
+
+		// Execute
+		Page<String> page = page(false, PageRequest.of(3, 2), 10, true);
+
+		// Verify - at least the rows seen so far plus the next one
+		assertEquals(9, page.getTotalElements());
+		assertEquals(1, counts.get());
+	}
+
+	@Test
+	public void testLastPage_GivesExactTotal() {
+		// Setup
+		page(false, PageRequest.of(0, 2), 50, true);
+
+		// Execute
+		Page<String> last = page(false, PageRequest.of(10, 2), 21, false);
+		Page<String> next = page(false, PageRequest.of(1, 2), 21, true);
+
+		// Verify
+		assertEquals(21, last.getTotalElements());
+		assertFalse(((EstimatedPage<String>) last).isTotalEstimated());
+		assertEquals(21, next.getTotalElements());
+		assertEquals(1, counts.get());
+	}
+
+	@Test
+	public void testExact_AlwaysCounts() {
+		// Execute
+		page(true, PageRequest.of(0, 2), 50, true);
+		Page<String> page = page(true, PageRequest.of(1, 2), 50, true);
+
+		// Verify
+		assertEquals(50, page.getTotalElements());
+		assertEquals(2, counts.get());
+	}
+
+	@Test
+	public void testInvalidate_CountsAgain() {
+		// Setup
+		page(false, PageRequest.of(0, 2), 50, true);
+
+		// Execute
+		estimator.invalidate();
+		page(false, PageRequest.of(1, 2), 50, true);
+
+		// Verify
+		assertEquals(2, counts.get());
+	}
+
+	@Test
+	public void testInvalidate_InTransaction_WaitsForCommit() {
+		// Setup
+		page(false, PageRequest.of(0, 2), 50, true);
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			// Execute - a listing before the commit still uses the remembered total
+			estimator.invalidate();
+			page(false, PageRequest.of(1, 2), 50, true);
+			assertEquals(1, counts.get());
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		page(false, PageRequest.of(1, 2), 50, true);
+
+		// Verify
+		assertEquals(2, counts.get());
+	}
+
+	@Test
+	public void testInvalidateKind_KeepsOtherFilters() {
+		// Setup
+		List<Object> all = Collections.singletonList("all");
+		page(false, PageRequest.of(0, 2), 50, true);
+		page(false, all, PageRequest.of(0, 2), 50, true);
+
+		// Execute
+		estimator.invalidate("keyword");
+		page(false, PageRequest.of(1, 2), 50, true);
+		page(false, all, PageRequest.of(1, 2), 50, true);
+
+		// Verify - only the keyword total is counted again
+		assertEquals(3, counts.get());
+	}
+
+	@Test
+	public void testInvalidate_DuringCount_DiscardsThatCount() {
+		// Setup - a write commits while the first listing is still counting
+		List<String> content = Arrays.asList("a", "b");
+		Pageable first = PageRequest.of(0, 2);
+		estimator.page(false, FILTER, first,
+				() -> {
+					counts.incrementAndGet();
+					estimator.invalidate();
+					return new PageImpl<>(content, first, 50);
+				},
+				() -> new SliceImpl<>(content, first, true));
+
+		// Execute
+		page(false, PageRequest.of(1, 2), 51, true);
+
+		// Verify - the count that overlapped the commit is not reused
+		assertEquals(2, counts.get());
+	}
+
+	@Test
+	public void testInvalidateKind_DuringCount_DiscardsThatCount() {
+		// Setup
+		List<String> content = Arrays.asList("a", "b");
+		Pageable first = PageRequest.of(0, 2);
+		estimator.page(false, FILTER, first,
+				() -> {
+					counts.incrementAndGet();
+					estimator.invalidate("keyword");
+					return new PageImpl<>(content, first, 50);
+				},
+				() -> new SliceImpl<>(content, first, true));
+
+		// Execute
+		page(false, PageRequest.of(1, 2), 51, true);
+
+		// Verify
+		assertEquals(2, counts.get());
+	}
+
+	private Page<String> page(boolean exact, Pageable pageable, long total, boolean hasNext) {
+		return page(exact, FILTER, pageable, total, hasNext);
+	}
+
+	private Page<String> page(boolean exact, List<Object> filter, Pageable pageable, long total, boolean hasNext) {
+		List<String> content = Arrays.asList("a", "b");
+		return estimator.page(exact, filter, pageable,
+				() -> {
+					counts.incrementAndGet();
+					return new PageImpl<>(content, pageable, total);
+				},
+				() -> new SliceImpl<>(hasNext ? content : Collections.singletonList("a"), pageable, hasNext));
+	}
+}
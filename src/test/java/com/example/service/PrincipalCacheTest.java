@@ -0,0 +1,104 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.example.entity.User;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrincipalCacheTest {
+
+	private static final Date ISSUED_AT = new Date(1_700_000_000_000L);
+
+	private PrincipalCache principalCache;
+	private AtomicInteger loads;
+	private Function<String, UserDetails> loader;
+
+	@BeforeEach
+	public void setup() {
+		principalCache = new PrincipalCache(100, 60_000, 100, 60_000);
+		loads = new AtomicInteger();
+		loader = username -> {
+			loads.incrementAndGet();
+			User user = User.builder().id(1L).username(username).email(username + "@example.com")
+					.password("secret").roles(Collections.emptySet()).build();
+			return UserDetailsImpl.build(user);
+		};
+	}
+
+	@Test
+	public void testSameToken_LoadsOnce() {
+		// Execute
+		UserDetails first = principalCache.get("testuser", ISSUED_AT, loader);
+		UserDetails second = principalCache.get("testuser", ISSUED_AT, loader);
+
+		// Verify
+		assertSame(first, second);
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void testNewToken_LoadsAgain() {
+		// Execute
+		principalCache.get("testuser", ISSUED_AT, loader);
+		principalCache.get("testuser", new Date(ISSUED_AT.getTime() + 1000), loader);
+
+		// Verify
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void testInvalidate_DropsAllTokensOfUser() {
+		// Setup
+		principalCache.get("testuser", ISSUED_AT, loader);
+		principalCache.get("testuser", new Date(ISSUED_AT.getTime() + 1000), loader);
+		principalCache.get("otheruser", ISSUED_AT, loader);
+
+		// Execute
+		principalCache.invalidate("testuser");
+		principalCache.get("testuser", ISSUED_AT, loader);
+		principalCache.get("otheruser", ISSUED_AT, loader);
+
+		// Verify - only the invalidated user is loaded again
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	public void testIsChangedSince_OnlyTokensIssuedBeforeChange() {
+		// Setup
+		Date before = new Date(System.currentTimeMillis() - 5000);
+
+		// Execute
+		principalCache.invalidate("testuser");
+
+		// Verify
+		assertTrue(principalCache.isChangedSince("testuser", before));
+		assertFalse(principalCache.isChangedSince("testuser", new Date(System.currentTimeMillis() + 5000)));
+		assertFalse(principalCache.isChangedSince("otheruser", before));
+	}
+
+	@Test
+	public void testIsChangedSince_ForgottenChangesStillDistrustOlderTokens() {
+		// Setup - room for two changes, the third pushes one out
+		principalCache = new PrincipalCache(100, 60_000, 2, 60_000);
+		Date before = new Date(System.currentTimeMillis() - 5000);
+
+		// Execute
+		for (int i = 0; i < 3; i++) {
+			principalCache.invalidate("user" + i);
+		}
+
+		// Verify - whichever user was forgotten, its older tokens are still not trusted
+		for (int i = 0; i < 3; i++) {
+			assertTrue(principalCache.isChangedSince("user" + i, before));
+		}
+		assertFalse(principalCache.isChangedSince("user0", new Date(System.currentTimeMillis() + 5000)));
+	}
+}
@@ -0,0 +1,79 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.example.entity.Document;
+import com.example.entity.Tag;
+import com.example.entity.User;
+import com.example.repository.DocumentRepository;
+import com.example.repository.TagRepository;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the tag MERGE against the migrated schema, inside the test transaction like an
+ * upload runs it inside its own.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Import(TagRegistryService.class)
+public class TagRegistryServiceJpaTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private TagRegistryService tagRegistryService;
+
+	@Autowired
+	private TagRepository tagRepository;
+
+	@Autowired
+	private DocumentRepository documentRepository;
+
+	@Test
+	public void testResolve_CreatesOnlyMissingTags() {
+		// Setup
+		Tag finance = entityManager.persistFlushFind(Tag.builder().name("finance").build());
+
+		// Execute
+		Map<String, Tag> first = tagRegistryService.resolve(Arrays.asList("finance", "legal", "hr"));
+		Map<String, Tag> second = tagRegistryService.resolve(Arrays.asList("legal", "hr"));
+
+		// Verify
+		assertEquals(finance.getId(), first.get("finance").getId());
+		assertEquals(3, tagRepository.findByNameIn(Arrays.asList("finance", "legal", "hr")).size());
+		assertEquals(3, first.values().stream().map(Tag::getId).distinct().count());
+		assertEquals(first.get("legal").getId(), second.get("legal").getId());
+		assertEquals(first.get("hr").getId(), second.get("hr").getId());
+	}
+
+	@Test
+	public void testResolveTags_AttachToNewDocument() {
+		// Setup
+		User author = entityManager.persist(User.builder().username("tagger").email("tagger@example.com")
+				.password("secret").roles(new HashSet<>()).build());
+		tagRegistryService.resolve(Arrays.asList("report"));
+
+		// Execute - the second resolve serves "report" from the id cache
+		Set<Tag> tags = tagRegistryService.resolveTags(Arrays.asList("report", "quarterly"));
+		Document document = documentRepository.save(Document.builder().title("Tagged").filePath("tagged.txt")
+				.fileType("text/plain").fileSize(1L).author(author).tags(tags).build());
+		entityManager.flush();
+		entityManager.clear();
+
+		// Verify
+		Set<String> names = documentRepository.findWithAuthorAndTagsById(document.getId()).orElseThrow().getTags()
+				.stream().map(Tag::getName).collect(Collectors.toSet());
+		assertEquals(new HashSet<>(Arrays.asList("report", "quarterly")), names);
+	}
+}
@@ -0,0 +1,106 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.entity.Tag;
+import com.example.repository.TagRepository;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TagRegistryServiceTest {
+
+	@Mock
+	private TagRepository tagRepository;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	private TagRegistryService tagRegistryService;
+
+	private Tag financeTag;
+
+	@BeforeEach
+	public void setup() {
+		tagRegistryService = new TagRegistryService(tagRepository, jdbcTemplate, 100);
+		financeTag = Tag.builder().id(1L).name("finance").build();
+	}
+
+	@Test
+	public void testResolve_LoadsAndCreatesInBatch() {
+		// Setup
+		Tag legalTag = Tag.builder().id(2L).name("legal").build();
+		Tag hrTag = Tag.builder().id(3L).name("hr").build();
+		when(tagRepository.findByNameIn(anyCollection()))
+				.thenReturn(Arrays.asList(financeTag))
+				.thenReturn(Arrays.asList(legalTag, hrTag));
+
+		// Execute
+		Map<String, Tag> result = tagRegistryService.resolve(Arrays.asList("finance", "legal", "hr"));
+
+		// Verify - one MERGE for both missing names, then one query for their ids
+		assertEquals(3, result.size());
+		assertEquals(financeTag, result.get("finance"));
+		assertEquals(legalTag, result.get("legal"));
+		assertEquals(hrTag, result.get("hr"));
+		verify(jdbcTemplate, times(1)).update(startsWith("MERGE INTO tags"), eq("legal"), eq("hr"));
+		verify(tagRepository, times(2)).findByNameIn(anyCollection());
+		verify(tagRepository, never()).saveAll(anyList());
+	}
+
+	@Test
+	public void testResolve_ServesKnownTagsFromMemory() {
+		// Setup
+		when(tagRepository.findByNameIn(anyCollection())).thenReturn(Arrays.asList(financeTag));
+		tagRegistryService.resolve(Collections.singleton("finance"));
+
+		// Execute
+		Set<Tag> result = tagRegistryService.resolveTags(Collections.singleton("finance"));
+
+		// Verify - the cached id is used without a query
+		assertEquals(Collections.singleton(financeTag), result);
+		verify(tagRepository, times(1)).findByNameIn(anyCollection());
+		verifyNoInteractions(jdbcTemplate);
+	}
+
+	@Test
+	public void testResolve_ConcurrentInsertIsPickedUp() {
+		// Setup - the MERGE loses the race for "legal", a concurrent request created it
+		Tag legalTag = Tag.builder().id(2L).name("legal").build();
+		Tag hrTag = Tag.builder().id(3L).name("hr").build();
+		when(tagRepository.findByNameIn(anyCollection()))
+				.thenReturn(Collections.emptyList())
+				.thenReturn(Arrays.asList(legalTag))
+				.thenReturn(Arrays.asList(hrTag));
+		when(jdbcTemplate.update(anyString(), eq("legal"), eq("hr")))
+				.thenThrow(new DuplicateKeyException("duplicate key"));
+
+		// Execute
+		Map<String, Tag> result = tagRegistryService.resolve(Arrays.asList("legal", "hr"));
+
+		// Verify - only the tag that is still missing is inserted on the retry
+		assertEquals(legalTag, result.get("legal"));
+		assertEquals(hrTag, result.get("hr"));
+		verify(jdbcTemplate).update(startsWith("MERGE INTO tags"), eq("hr"));
+	}
+
+	@Test
+	public void testResolve_IgnoresBlankNames() {
+		// Execute
+		Map<String, Tag> result = tagRegistryService.resolve(Arrays.asList("", " "));
+
+		// Verify
+		assertTrue(result.isEmpty());
+		verifyNoInteractions(tagRepository, jdbcTemplate);
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeBucketedBloomFilterTest {
+
+	private static final long HOUR = Duration.ofHours(1).toMillis();
+
+	@Test
+	public void testNoFalseNegatives_FewFalsePositives() {
+		// Setup
+		TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(Duration.ofHours(1), Duration.ofHours(24),
+				10_000, 0.01);
+		long expiresAt = 100 * HOUR + 123;
+
+		// Execute
+		for (int i = 0; i < 10_000; i++) {
+			filter.put("revoked-" + i, expiresAt);
+		}
+
+		// Verify
+		for (int i = 0; i < 10_000; i++) {
+			assertTrue(filter.mightContain("revoked-" + i, expiresAt));
+		}
+		int falsePositives = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (filter.mightContain("valid-" + i, expiresAt)) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+	}
+
+	@Test
+	public void testOtherWindow_NotContained() {
+		// Setup
+		TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(Duration.ofHours(1), Duration.ofHours(24),
+				1000, 0.01);
+
+		// Execute
+		filter.put("token", 100 * HOUR);
+
+		// Verify
+		assertTrue(filter.mightContain("token", 100 * HOUR + 10));
+		assertFalse(filter.mightContain("token", 101 * HOUR));
+	}
+
+	@Test
+	public void testReusedBucket_ForgetsExpiredKeys() {
+		// Setup - 24 hours in 1 hour buckets gives 26 buckets
+		TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(Duration.ofHours(1), Duration.ofHours(24),
+				1000, 0.01);
+		long memory = filter.memoryBytes();
+		filter.put("old", 100 * HOUR);
+
+		// Execute - the same slot 26 windows later
+		filter.put("new", 126 * HOUR);
+		filter.put("late", 100 * HOUR);
+
+		// Verify
+		assertTrue(filter.mightContain("new", 126 * HOUR));
+		assertFalse(filter.mightContain("old", 100 * HOUR));
+		assertFalse(filter.mightContain("late", 126 * HOUR));
+		assertEquals(memory, filter.memoryBytes());
+	}
+}
@@ -0,0 +1,108 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.example.entity.RevokedToken;
+import com.example.repository.RevokedTokenRepository;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationServiceTest {
+
+	@Mock
+	private RevokedTokenRepository revokedTokenRepository;
+
+	private TokenRevocationService tokenRevocationService;
+
+	@BeforeEach
+	public void setup() {
+		tokenRevocationService = new TokenRevocationService(revokedTokenRepository, 86_400_000, 900_000, 3_600_000,
+				1000, 0.01, 5000);
+	}
+
+	@Test
+	public void testRevoke_PersistsAndRejects() {
+		// Setup
+		Claims claims = claims("jti-1", 60_000);
+		when(revokedTokenRepository.existsById("jti-1")).thenReturn(true);
+
+		// Execute
+		tokenRevocationService.revoke(claims);
+
+		// Verify
+		verify(revokedTokenRepository).insertIfAbsent(eq("jti-1"), any(LocalDateTime.class), any(LocalDateTime.class));
+		assertTrue(tokenRevocationService.isRevoked(claims("jti-1", 60_000)));
+	}
+
+	@Test
+	public void testRevoke_ConcurrentDuplicateIgnored() {
+		// Setup - another logout with the same token committed its row first
+		when(revokedTokenRepository.insertIfAbsent(eq("jti-5"), any(), any()))
+				.thenThrow(new DataIntegrityViolationException("duplicate key"));
+		when(revokedTokenRepository.existsById("jti-5")).thenReturn(true);
+
+		// Execute
+		tokenRevocationService.revoke(claims("jti-5", 60_000));
+
+		// Verify
+		assertTrue(tokenRevocationService.isRevoked(claims("jti-5", 60_000)));
+	}
+
+	@Test
+	public void testIsRevoked_UnknownTokenSkipsDatabase() {
+		// Execute
+		boolean revoked = tokenRevocationService.isRevoked(claims("jti-2", 60_000));
+
+		// Verify
+		assertFalse(revoked);
+		verifyNoInteractions(revokedTokenRepository);
+	}
+
+	@Test
+	public void testRevoke_IgnoresTokensWithoutIdOrExpired() {
+		// Execute
+		tokenRevocationService.revoke(claims(null, 60_000));
+		tokenRevocationService.revoke(claims("jti-3", -60_000));
+
+		// Verify
+		verifyNoInteractions(revokedTokenRepository);
+	}
+
+	@Test
+	public void testSync_LoadsRevocationsFromDatabase() {
+		// Setup
+		Claims claims = claims("jti-4", 60_000);
+		LocalDateTime expiresAt = LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault());
+		when(revokedTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(any(), any()))
+				.thenReturn(Collections.singletonList(RevokedToken.builder().jti("jti-4").expiresAt(expiresAt)
+						.revokedAt(LocalDateTime.now()).build()));
+		when(revokedTokenRepository.existsById("jti-4")).thenReturn(true);
+
+		// Execute
+		tokenRevocationService.syncRevocations();
+
+		// Verify
+		assertTrue(tokenRevocationService.isRevoked(claims));
+	}
+
+	private Claims claims(String jti, long expiresInMs) {
+		return Jwts.claims().setId(jti).setSubject("testuser")
+				.setExpiration(new Date(System.currentTimeMillis() + expiresInMs));
+	}
+}
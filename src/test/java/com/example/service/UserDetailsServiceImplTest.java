@@ -53,7 +53,7 @@ public class UserDetailsServiceImplTest {
 	@Test
 	public void testLoadUserByUsername_Success() {
 		// Setup
-		when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+		when(userRepository.findWithRolesByUsername("testuser")).thenReturn(Optional.of(testUser));
 
 		// Execute
 		UserDetails userDetails = userDetailsService.loadUserByUsername("testuser");
@@ -64,20 +64,20 @@ public class UserDetailsServiceImplTest {
 		assertEquals("password123", userDetails.getPassword());
 		assertEquals(1, userDetails.getAuthorities().size());
 
-		verify(userRepository).findByUsername("testuser");
+		verify(userRepository).findWithRolesByUsername("testuser");
 	}
 
 	@Test
 	public void testLoadUserByUsername_UserNotFound() {
 		// Setup
-		when(userRepository.findByUsername("nonexistentuser")).thenReturn(Optional.empty());
+		when(userRepository.findWithRolesByUsername("nonexistentuser")).thenReturn(Optional.empty());
 
 		// Execute & Verify
 		assertThrows(UsernameNotFoundException.class, () -> {
 			userDetailsService.loadUserByUsername("nonexistentuser");
 		});
 
-		verify(userRepository).findByUsername("nonexistentuser");
+		verify(userRepository).findWithRolesByUsername("nonexistentuser");
 	}
 
 	@Test
@@ -0,0 +1,70 @@
+package db.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MergeSearchVectorsMigrationTest {
+
+	private DriverManagerDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	public void setup() {
+		dataSource = new DriverManagerDataSource("jdbc:h2:mem:merge-search-vectors;DB_CLOSE_DELAY=-1", "sa", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+		migrate("4");
+		jdbcTemplate.update("INSERT INTO documents (id, title, indexed) VALUES (1, 'Report', TRUE), (2, 'Memo', TRUE)");
+	}
+
+	@Test
+	public void testMigrate_MergesChunksOntoFirstRow() {
+		// Setup - rows written when every chunk carried its own search text
+		content(1, 0, "quarterly");
+		content(1, 1, "revenue grew");
+		content(1, 2, "again");
+
+		// Execute
+		migrate("5");
+
+		// Verify - the phrase across the first boundary matches again
+		assertEquals(Arrays.asList("quarterly revenue grew again", null, null), searchVectors(1));
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM document_contents "
+				+ "WHERE search_vector LIKE '%quarterly revenue%'", Integer.class));
+	}
+
+	@Test
+	public void testMigrate_LeavesSingleRowsAlone() {
+		// Setup
+		content(2, 0, "short memo");
+
+		// Execute
+		migrate("5");
+
+		// Verify
+		assertEquals(Arrays.asList("short memo"), searchVectors(2));
+	}
+
+	private void migrate(String target) {
+		Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").target(target).load().migrate();
+	}
+
+	private void content(long documentId, int chunkIndex, String searchVector) {
+		jdbcTemplate.update("INSERT INTO document_contents (id, document_id, chunk_index, content_text, search_vector) "
+				+ "VALUES (NEXT VALUE FOR document_contents_seq, ?, ?, ?, ?)", documentId, chunkIndex, searchVector,
+				searchVector);
+	}
+
+	private List<String> searchVectors(long documentId) {
+		return jdbcTemplate.queryForList("SELECT search_vector FROM document_contents WHERE document_id = ? "
+				+ "ORDER BY chunk_index", String.class, documentId);
+	}
+}